@@ -0,0 +1,92 @@
+package Benchmarks;
+
+import Cells.CellManager;
+import Cells.Grid;
+import Cells.Maze.Maze;
+import Driver.Config;
+import Pathfind.Algorithm;
+import Utilities.Vector2;
+
+/**
+ * Builds the grids the benchmarks run on, the same way the game does: through
+ * the {@code Config}, the configured {@link Maze} and the {@link CellManager}.
+ */
+final class BenchmarkGrids {
+
+    private BenchmarkGrids() {
+    }
+
+    /**
+     * Parses a grid size of the form {@code ROWSxCOLS}.
+     *
+     * @param size The size, for example "100x50".
+     * @return The rows and columns.
+     */
+    static int[] parseSize(String size) {
+        String[] parts = size.toLowerCase().split("x");
+        if (parts.length != 2) {
+            throw new IllegalArgumentException("Grid size must look like ROWSxCOLS: " + size);
+        }
+        return new int[] { Integer.parseInt(parts[0].trim()), Integer.parseInt(parts[1].trim()) };
+    }
+
+    /**
+     * Looks up one of the {@code Config.MAZES} by its class name.
+     */
+    static Maze maze(String name) {
+        for (Maze maze : Config.MAZES) {
+            if (maze.getClass().getSimpleName().equals(name))
+                return maze;
+        }
+        throw new IllegalArgumentException("Unknown maze: " + name);
+    }
+
+    /**
+     * Looks up one of the {@code Config.ALGORITHMS} by its class name.
+     */
+    static Algorithm algorithm(String name) {
+        for (Algorithm algorithm : Config.ALGORITHMS) {
+            if (algorithm.getClass().getSimpleName().equals(name))
+                return algorithm;
+        }
+        throw new IllegalArgumentException("Unknown algorithm: " + name);
+    }
+
+    /**
+     * Points the {@code Config} at a grid of the given size and maze, with the
+     * start and end cells in opposite corners. The maze is fixed to the seed,
+     * so every run generates the same grid.
+     */
+    static void configure(String size, String mazeName, long seed) {
+        int[] dims = parseSize(size);
+
+        Config.setNumCellRows(dims[0]);
+        Config.setNumCellCols(dims[1]);
+        // Maze generators carve on odd coordinates, so keep both ends on one
+        Config.setStartCell(new Vector2(1, 1));
+        Config.setEndCell(new Vector2(odd(dims[0] - 2), odd(dims[1] - 2)));
+
+        Maze maze = maze(mazeName);
+        maze.setSeed(seed);
+        maze.reset();
+        Config.setMaze(maze);
+
+        if (CellManager.Instance == null)
+            new CellManager();
+    }
+
+    /**
+     * Generates the configured maze to completion and returns the grid.
+     */
+    static Grid generate() {
+        CellManager.Instance.generateCells();
+
+        Config.getMaze().GenerateMaze();
+
+        return CellManager.Instance.GetGrid();
+    }
+
+    private static int odd(int value) {
+        return value % 2 == 1 ? value : value - 1;
+    }
+}
@@ -0,0 +1,46 @@
+package Benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Entry point of the benchmark jar.
+ * <p>
+ * Accepts the usual JMH command line options, but always attaches the GC
+ * profiler (for the allocation rate) and writes the results as JSON, to
+ * {@code jmh-result.json} unless {@code -rff} says otherwise, so runs can be
+ * compared to spot regressions.
+ * </p>
+ *
+ * <p>
+ * <b>Example:</b>
+ * <code>
+ * java -jar benchmarks/target/benchmarks.jar PathfindingBenchmark -p size=512x512
+ * </code>
+ * </p>
+ */
+public class BenchmarkRunner {
+
+    public static void main(String[] args) throws Exception {
+        CommandLineOptions commandLine = new CommandLineOptions(args);
+
+        ChainedOptionsBuilder options = new OptionsBuilder()
+                .parent(commandLine)
+                .resultFormat(ResultFormatType.JSON);
+
+        if (!commandLine.getResult().hasValue())
+            options.result("jmh-result.json");
+
+        boolean hasGcProfiler = commandLine.getProfilers().stream()
+                .anyMatch(profiler -> profiler.getKlass().equals(GCProfiler.class.getName())
+                        || profiler.getKlass().equals("gc"));
+        if (!hasGcProfiler)
+            options.addProfiler(GCProfiler.class);
+
+        new Runner(options.build()).run();
+    }
+}
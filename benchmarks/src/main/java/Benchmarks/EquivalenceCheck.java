@@ -0,0 +1,678 @@
+package Benchmarks;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import Cells.CellManager;
+import Cells.ChunkedWorld;
+import Cells.FrozenGrid;
+import Cells.Grid;
+import Cells.GridMap;
+import Cells.MappedGrid;
+import Cells.Maze.Eller;
+import Cells.Maze.Randomized;
+import Cells.Maze.Terrain;
+import Cells.WorldWindow;
+import Driver.Config;
+import Pathfind.Algorithm;
+import Pathfind.AStarSearch;
+import Pathfind.BidirectionalAStarSearch;
+import Pathfind.BidirectionalBreadthFirstSearch;
+import Pathfind.BitsetBreadthFirstSearch;
+import Pathfind.BreadthFirstSearch;
+import Pathfind.DijkstraSearch;
+import Pathfind.HierarchicalSearch;
+import Pathfind.JumpPointSearch;
+import Pathfind.LandmarkSearch;
+import Pathfind.LandmarkTable;
+import Pathfind.LayeredSearch;
+import Pathfind.ParallelBreadthFirstSearch;
+import Pathfind.PathResult;
+import Pathfind.PathSearch;
+import Pathfind.SearchContext;
+
+/**
+ * Checks that the optimized searches and generators give the same answers as
+ * the plain ones they stand in for, on seeded random grids.
+ * <p>
+ * The benchmarks only measure how fast each variant is; this makes sure they
+ * are still measuring the same thing. Every check prints a line when it
+ * fails, and the runner exits with status 1 if any did.
+ * </p>
+ *
+ * <p>
+ * <b>Example:</b>
+ * <code>
+ * java -cp benchmarks/target/benchmarks.jar Benchmarks.EquivalenceCheck
+ * </code>
+ * </p>
+ */
+public class EquivalenceCheck {
+
+    private static final long SEED = 42;
+
+    /** Queries asked of each kind of grid. */
+    private static final int QUERIES = 200;
+
+    /** Where failures are reported, even while the console is silenced. */
+    private static final PrintStream REPORT = System.out;
+
+    private static int checks;
+    private static int failures;
+
+    public static void main(String[] args) throws Exception {
+        searchesMatchDijkstra();
+        bidirectionalSearchesMatch();
+        bitsetSearchMatches();
+        parallelSearchMatches();
+        parallelFillMatches();
+        hierarchicalSearchIsSound();
+        landmarkTablesMatch();
+        mapFilesRoundTrip();
+        algorithmsSeeLateWalls();
+        worldWindowsMatchGrids();
+        evictedChunksRegenerate();
+        mazesArePerfect();
+        streamedMazesMatch();
+
+        System.out.println(checks + " checks, " + failures + " failed");
+        if (failures > 0)
+            System.exit(1);
+    }
+
+    /**
+     * The shortest path searches find a path exactly as cheap as Dijkstra's,
+     * on uniform grids and, for the cost-aware ones, on weighted terrain.
+     */
+    private static void searchesMatchDijkstra() {
+        Random random = new Random(SEED);
+        Grid uniform = randomGrid(random, 120, 90, 0.3, 1);
+        Grid weighted = randomGrid(random, 120, 90, 0.2, 9);
+
+        matchesDijkstra("JumpPointSearch", new JumpPointSearch(), uniform, random);
+        matchesDijkstra("AStarSearch", new AStarSearch(), uniform, random);
+        matchesDijkstra("AStarSearch, weighted", new AStarSearch(), weighted, random);
+    }
+
+    /**
+     * Meeting in the middle finds routes exactly as cheap as searching from
+     * one end.
+     */
+    private static void bidirectionalSearchesMatch() {
+        Random random = new Random(SEED + 1);
+        Grid uniform = randomGrid(random, 120, 90, 0.3, 1);
+        Grid weighted = randomGrid(random, 120, 90, 0.2, 9);
+
+        matchesDijkstra("BreadthFirstSearch", new BreadthFirstSearch(), uniform, random);
+        matchesDijkstra("BidirectionalBreadthFirstSearch", new BidirectionalBreadthFirstSearch(), uniform, random);
+        matchesDijkstra("BidirectionalAStarSearch", new BidirectionalAStarSearch(), uniform, random);
+        matchesDijkstra("BidirectionalAStarSearch, weighted", new BidirectionalAStarSearch(), weighted, random);
+    }
+
+    /**
+     * The bitset search finds paths as short as the queue-based one, and
+     * discovers the same cells in every layer, if in another order.
+     */
+    private static void bitsetSearchMatches() {
+        Random random = new Random(SEED + 2);
+        Grid uniform = randomGrid(random, 150, 100, 0.3, 1);
+
+        matchesDijkstra("BitsetBreadthFirstSearch", new BitsetBreadthFirstSearch(), uniform, random);
+        for (int query = 0; query < 10; query++) {
+            layersMatch("BitsetBreadthFirstSearch", new BitsetBreadthFirstSearch(), uniform,
+                    randomOpenCell(uniform, random), false);
+        }
+    }
+
+    /**
+     * The parallel search discovers the same cells in the same order as the
+     * sequential one, from the same parents, however many threads it runs on.
+     */
+    private static void parallelSearchMatches() {
+        Random random = new Random(SEED + 3);
+        // Layers must span several chunks of the frontier to run in parallel
+        Grid grid = randomGrid(random, 1500, 1000, 0.05, 1);
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            ParallelBreadthFirstSearch search = new ParallelBreadthFirstSearch(pool);
+            for (int query = 0; query < 5; query++) {
+                layersMatch("ParallelBreadthFirstSearch", search, grid, randomOpenCell(grid, random), true);
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Filling a Randomized grid in parallel stripes gives every cell the type
+     * {@link Randomized#IsPath(long, int, int)} gives it alone, on one thread
+     * or several.
+     */
+    private static void parallelFillMatches() {
+        for (int threads : new int[] { 1, 4 }) {
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            try {
+                Randomized maze = new Randomized(pool);
+                for (long seed = SEED; seed < SEED + 3; seed++) {
+                    maze.setSeed(seed);
+                    // Rows that do not divide a stripe, so stripes start mid-row
+                    Grid grid = new Grid(777, 555);
+                    maze.WriteWalls(grid);
+
+                    int wrong = 0;
+                    for (int index = 0; index < grid.size(); index++) {
+                        boolean path = Randomized.IsPath(seed, grid.getX(index), grid.getY(index));
+                        if (grid.isPassable(index) != path)
+                            wrong++;
+                    }
+                    check(wrong == 0, "Randomized on " + threads + " threads with seed " + seed + " filled " + wrong
+                            + " cells wrong");
+                }
+            } finally {
+                pool.shutdown();
+            }
+        }
+    }
+
+    /**
+     * Hierarchical routes are not always the shortest, but they are found
+     * exactly when a route exists, are valid, and never cost less than
+     * Dijkstra's.
+     */
+    private static void hierarchicalSearchIsSound() {
+        Random random = new Random(SEED + 4);
+        GridMap map = randomGrid(random, 200, 150, 0.2, 9).snapshot();
+        HierarchicalSearch search = new HierarchicalSearch();
+        DijkstraSearch dijkstra = new DijkstraSearch();
+        SearchContext context = new SearchContext(), reference = new SearchContext();
+
+        double worst = 1;
+        for (int query = 0; query < QUERIES; query++) {
+            int start = randomOpenCell(map, random), goal = randomOpenCell(map, random);
+            PathResult expected = dijkstra.search(map, start, goal, reference);
+            PathResult actual = search.search(map, start, goal, context);
+
+            String what = "HierarchicalSearch from " + start + " to " + goal;
+            check(actual.isFound() == expected.isFound(), what + " found a path: " + actual.isFound());
+            if (actual.isFound() && expected.isFound()) {
+                check(actual.getCost() >= expected.getCost(),
+                        what + " costs " + actual.getCost() + ", less than " + expected.getCost());
+                checkPath(map, actual, start, goal, what);
+                if (expected.getCost() > 0)
+                    worst = Math.max(worst, actual.getCost() / expected.getCost());
+            }
+        }
+        System.out.printf("HierarchicalSearch: worst route %.3f times the shortest%n", worst);
+    }
+
+    /**
+     * Searching with landmark tables finds routes exactly as cheap as
+     * Dijkstra's, tables read back from a file are the ones saved, and tables
+     * are refused for a map whose walls changed.
+     */
+    private static void landmarkTablesMatch() throws IOException {
+        Random random = new Random(SEED + 5);
+        Grid grid = randomGrid(random, 120, 90, 0.2, 9);
+        LandmarkTable table = LandmarkTable.build(grid, LandmarkTable.DEFAULT_LANDMARKS);
+        matchesDijkstra("LandmarkSearch", new LandmarkSearch(table), grid, random);
+
+        Path file = Files.createTempFile("landmarks", ".bin");
+        try {
+            table.save(file);
+            LandmarkTable loaded = LandmarkTable.load(file, grid);
+            check(sameTables(table, loaded, grid.size()), "Landmark tables read back differ from those saved");
+            matchesDijkstra("LandmarkSearch, loaded", new LandmarkSearch(loaded), grid, random);
+
+            // Opening a wall changes the fingerprint of the map
+            grid.setType(randomWall(grid), Grid.PATH);
+            try {
+                LandmarkTable.load(file, grid);
+                check(false, "Landmark tables were loaded for a map with other walls");
+            } catch (IllegalArgumentException expected) {
+                check(true, "Landmark tables were refused for a map with other walls");
+            }
+            try {
+                new LandmarkSearch(loaded).search(grid, randomOpenCell(grid, random), randomOpenCell(grid, random));
+                check(false, "Landmark tables were searched with after their map changed");
+            } catch (IllegalArgumentException expected) {
+                check(true, "Landmark tables were refused after their map changed");
+            }
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private static boolean sameTables(LandmarkTable a, LandmarkTable b, int size) {
+        if (a.getLandmarkCount() != b.getLandmarkCount())
+            return false;
+        for (int k = 0; k < a.getLandmarkCount(); k++) {
+            if (a.getLandmark(k) != b.getLandmark(k))
+                return false;
+            for (int cell = 0; cell < size; cell++) {
+                if (a.getDistance(k, cell) != b.getDistance(k, cell))
+                    return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * A grid saved to a map file, mapped back in and copied to a grid again
+     * has the same walls, costs, start and end, with and without a cost
+     * plane.
+     */
+    private static void mapFilesRoundTrip() throws IOException {
+        Random random = new Random(SEED + 6);
+        mapFileRoundTrip("uniform", randomGrid(random, 130, 70, 0.3, 1), random);
+        mapFileRoundTrip("weighted", randomGrid(random, 130, 70, 0.3, 9), random);
+    }
+
+    private static void mapFileRoundTrip(String name, Grid grid, Random random) throws IOException {
+        int start = randomOpenCell(grid, random), end;
+        do {
+            end = randomOpenCell(grid, random);
+        } while (end == start);
+        grid.setType(start, Grid.START);
+        grid.setType(end, Grid.END);
+
+        Path file = Files.createTempFile("map", ".grd");
+        try {
+            MappedGrid.save(file, grid, start, end, SEED);
+            MappedGrid mapped = MappedGrid.open(file);
+            Grid copy = mapped.toGrid();
+
+            String what = "Map file of a " + name + " grid";
+            check(mapped.getStart() == start && mapped.getEnd() == end && mapped.getSeed() == SEED,
+                    what + " holds another start, end or seed");
+            check(mapped.getMinCost() == grid.getMinCost() && copy.getMinCost() == grid.getMinCost(),
+                    what + " holds another lowest cost");
+
+            int wrong = 0;
+            for (int index = 0; index < grid.size(); index++) {
+                if (mapped.isPassable(index) != grid.isPassable(index) || mapped.getCost(index) != grid.getCost(index)
+                        || copy.getType(index) != grid.getType(index) || copy.getCost(index) != grid.getCost(index))
+                    wrong++;
+            }
+            check(wrong == 0, what + " read back " + wrong + " cells wrong");
+
+            // A uniform grid leaves the cost plane out of the file
+            boolean uniform = !hasCosts(grid);
+            long planes = 8L * ((grid.size() + 63) >>> 6) + (uniform ? 0 : grid.size());
+            check(Files.size(file) == 64 + planes, what + " is " + Files.size(file) + " bytes, not " + (64 + planes));
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private static boolean hasCosts(GridMap map) {
+        for (int index = 0; index < map.size(); index++) {
+            if (map.getCost(index) != 1)
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * In the game the walls are written once the maze completes, after every
+     * algorithm was started, so an algorithm must not look at the grid before
+     * its first step. Each one is started on an empty grid, a wall with one
+     * gap is written across it, and its path must go through the gap.
+     */
+    private static void algorithmsSeeLateWalls() {
+        int rows = 30, cols = 20;
+        int start = 1 + cols / 2 * rows, end = rows - 2 + cols / 2 * rows;
+
+        // The animated algorithms report every path they find on the console
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        try {
+            for (Algorithm algorithm : Config.ALGORITHMS) {
+                Grid grid = new Grid(rows, cols);
+                grid.setType(start, Grid.START);
+                grid.setType(end, Grid.END);
+                algorithm.startAlgorithm(grid, start, end);
+
+                for (int y = 0; y < cols - 1; y++) {
+                    grid.setType(rows / 2 + y * rows, Grid.WALL);
+                }
+
+                for (int step = 0; step < grid.size() && algorithm.GetResult() == null; step++) {
+                    algorithm.Pathfind();
+                }
+
+                String what = algorithm.getClass().getSimpleName() + " with walls written after its start";
+                PathResult result = algorithm.GetResult();
+                check(result != null && result.isFound(), what + " found no path");
+                if (result != null && result.isFound())
+                    checkPath(grid, result, start, end, what);
+            }
+        } finally {
+            System.setOut(REPORT);
+        }
+    }
+
+    /**
+     * A window onto a world holds the cells its maze gives each position, and
+     * searching it finds routes exactly as cheap as searching the same
+     * rectangle copied into a grid. The windows start at negative coordinates
+     * and span several chunks, so cells are read across chunk boundaries.
+     */
+    private static void worldWindowsMatchGrids() {
+        Random random = new Random(SEED + 7);
+
+        Terrain terrain = new Terrain();
+        terrain.setSeed(SEED);
+        windowMatchesGrid("Terrain", new ChunkedWorld(terrain), -150, -90, 260, 170, random);
+
+        Randomized randomized = new Randomized();
+        randomized.setSeed(SEED);
+        windowMatchesGrid("Randomized", new ChunkedWorld(randomized), -70, -200, 150, 300, random);
+    }
+
+    private static void windowMatchesGrid(String name, ChunkedWorld world, int x0, int y0, int rows, int cols,
+            Random random) {
+        WorldWindow window = world.window(x0, y0, rows, cols);
+        boolean terrain = world.getMaze() instanceof Terrain;
+
+        // The grid is built from the maze itself, not through the world
+        Grid grid = new Grid(rows, cols);
+        byte[] costs = new byte[grid.size()];
+        int wrong = 0;
+        for (int index = 0; index < grid.size(); index++) {
+            int x = x0 + grid.getX(index), y = y0 + grid.getY(index);
+            boolean path = terrain ? Terrain.IsPath(world.getSeed(), x, y) : Randomized.IsPath(world.getSeed(), x, y);
+            costs[index] = (byte) (terrain ? Terrain.Cost(world.getSeed(), x, y) : 1);
+            if (!path)
+                grid.setType(index, Grid.WALL);
+            if (window.isPassable(index) != path || window.getCost(index) != costs[index])
+                wrong++;
+        }
+        grid.setCosts(costs);
+
+        String what = name + " window at (" + x0 + ", " + y0 + ")";
+        check(wrong == 0, what + " reads " + wrong + " cells wrong");
+
+        AStarSearch search = new AStarSearch();
+        DijkstraSearch dijkstra = new DijkstraSearch();
+        SearchContext context = new SearchContext(), reference = new SearchContext();
+        for (int query = 0; query < QUERIES; query++) {
+            int start = randomOpenCell(grid, random), goal = randomOpenCell(grid, random);
+            PathResult expected = dijkstra.search(grid, start, goal, reference);
+            PathResult actual = search.search(window, start, goal, context);
+
+            String route = what + " from " + start + " to " + goal;
+            check(actual.isFound() == expected.isFound(), route + " found a path: " + actual.isFound());
+            if (actual.isFound() && expected.isFound()) {
+                check(actual.getCost() == expected.getCost(),
+                        route + " costs " + actual.getCost() + ", not " + expected.getCost());
+                checkPath(grid, actual, start, goal, route);
+            }
+        }
+    }
+
+    /**
+     * Chunks a live window fetched survive memory running short, and chunks
+     * evicted once their window is dropped are generated again with the same
+     * cells.
+     */
+    private static void evictedChunksRegenerate() {
+        Terrain terrain = new Terrain();
+        terrain.setSeed(SEED);
+        ChunkedWorld world = new ChunkedWorld(terrain);
+
+        WorldWindow pinned = world.window(-100, -100, 200, 200);
+        FrozenGrid pinnedCells = new FrozenGrid(pinned);
+        FrozenGrid droppedCells = new FrozenGrid(world.window(1000, -1000, 200, 200));
+        long generated = world.getGeneratedChunks();
+
+        runOutOfMemory();
+
+        check(pinnedCells.matches(pinned) && world.getGeneratedChunks() == generated,
+                "Chunks of a live window were evicted");
+        check(droppedCells.matches(world.window(1000, -1000, 200, 200)),
+                "Chunks generated again after eviction hold other cells");
+        check(world.getGeneratedChunks() > generated, "No chunk was evicted when memory ran short");
+    }
+
+    /**
+     * Fills the heap until an allocation fails, which makes the garbage
+     * collector clear every soft reference first, then lets it all go.
+     */
+    private static void runOutOfMemory() {
+        List<long[]> hog = new ArrayList<>();
+        try {
+            while (true)
+                hog.add(new long[1 << 20]);
+        } catch (OutOfMemoryError expected) {
+            hog.clear();
+        }
+    }
+
+    /**
+     * Eller and Wilson carve perfect mazes: every cell on the lattice of the
+     * start cell is carved, every carved cell can be reached from the start,
+     * and no passage closes a loop, so the carved cells form a tree.
+     */
+    private static void mazesArePerfect() {
+        for (String name : new String[] { "Eller", "Wilson" }) {
+            for (String size : new String[] { "101x81", "100x80" }) {
+                for (long seed = SEED; seed < SEED + 3; seed++) {
+                    BenchmarkGrids.configure(size, name, seed);
+                    Grid grid = BenchmarkGrids.generate();
+                    String what = name + " maze of " + size + " with seed " + seed;
+
+                    int cells = 0, passages = 0, missing = 0;
+                    for (int index = 0; index < grid.size(); index++) {
+                        int x = grid.getX(index), y = grid.getY(index);
+                        if (x % 2 == 1 && y % 2 == 1 && !grid.isPassable(index))
+                            missing++;
+                        if (!grid.isPassable(index))
+                            continue;
+                        cells++;
+                        if (x + 1 < grid.getRows() && grid.isPassable(index + 1))
+                            passages++;
+                        if (y + 1 < grid.getCols() && grid.isPassable(index + grid.getRows()))
+                            passages++;
+                    }
+                    check(missing == 0, what + " left " + missing + " cells uncarved");
+                    check(passages == cells - 1, what + " has " + passages + " passages between " + cells
+                            + " cells, so it " + (passages < cells - 1 ? "is split" : "has loops"));
+
+                    // A wall as the goal is never reached, so the search floods every carved cell
+                    PathResult flood = new BreadthFirstSearch().search(grid, CellManager.Instance.GetStartIndex(),
+                            randomWall(grid), new SearchContext());
+                    check(flood.getExpanded() == cells, what + " reaches " + flood.getExpanded() + " of its "
+                            + cells + " carved cells from the start");
+                }
+            }
+        }
+    }
+
+    /**
+     * A maze streamed by {@link Eller#Stream} or written to a file by
+     * {@link Eller#WriteToFile} is the one Eller generates in the game for the
+     * same seed, size and start cell.
+     */
+    private static void streamedMazesMatch() throws IOException {
+        for (String size : new String[] { "101x81", "100x80" }) {
+            BenchmarkGrids.configure(size, "Eller", SEED);
+            Grid grid = BenchmarkGrids.generate();
+            int rows = grid.getRows(), cols = grid.getCols();
+            String what = "Eller maze of " + size;
+
+            int[] streamed = { 0, 0 };
+            Eller.Stream(rows, cols, SEED, (y, row) -> {
+                if (y != streamed[0]++)
+                    streamed[1]++;
+                for (int x = 0; x < rows; x++) {
+                    if (((row[x >>> 6] >>> x) & 1) != 0 != grid.isPassable(x + y * rows))
+                        streamed[1]++;
+                }
+            });
+            check(streamed[0] == cols && streamed[1] == 0, what + " streamed " + streamed[0] + " rows with "
+                    + streamed[1] + " wrong");
+
+            Path file = Files.createTempFile("maze", ".bin");
+            try {
+                Eller.WriteToFile(file, rows, cols, SEED);
+                try (DataInputStream in = new DataInputStream(Files.newInputStream(file))) {
+                    check(in.readInt() == rows && in.readInt() == cols, what + " written with another size");
+
+                    byte[] bytes = new byte[(rows + 7) >>> 3];
+                    int wrong = 0;
+                    for (int y = 0; y < cols; y++) {
+                        in.readFully(bytes);
+                        for (int x = 0; x < rows; x++) {
+                            if (((bytes[x >>> 3] >>> (x & 7)) & 1) != 0 != grid.isPassable(x + y * rows))
+                                wrong++;
+                        }
+                    }
+                    check(wrong == 0 && in.read() == -1, what + " written with " + wrong + " cells wrong");
+                }
+            } finally {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    /**
+     * Floods a whole grid one layer at a time with a search and with
+     * {@link BreadthFirstSearch}, and compares the cells of each layer.
+     *
+     * @param ordered True if the cells must also be discovered in the same
+     *                order and from the same parents, not only in the same
+     *                layer.
+     */
+    private static void layersMatch(String name, LayeredSearch search, GridMap map, int start, boolean ordered) {
+        // A wall as the goal is never reached, so both searches flood the grid
+        int goal = randomWall(map);
+        SearchContext context = new SearchContext(), reference = new SearchContext();
+        BreadthFirstSearch breadthFirst = new BreadthFirstSearch();
+        search.start(context, map, start, goal);
+        breadthFirst.start(reference, map, start, goal);
+
+        String what = name + " from " + start;
+        for (int layer = 0; !context.isFinished() || !reference.isFinished(); layer++) {
+            int from = context.getDiscoveredCount(), referenceFrom = reference.getDiscoveredCount();
+            search.stepLayer(context);
+            breadthFirst.stepLayer(reference);
+
+            int[] cells = discovered(context, from), expected = discovered(reference, referenceFrom);
+            if (!ordered) {
+                Arrays.sort(cells);
+                Arrays.sort(expected);
+            }
+            if (!Arrays.equals(cells, expected)) {
+                check(false, what + " discovered other cells in layer " + layer);
+                return;
+            }
+            for (int i = 0; ordered && i < cells.length; i++) {
+                if (context.getParent(cells[i]) != reference.getParent(cells[i])) {
+                    check(false, what + " reached cell " + cells[i] + " from another parent");
+                    return;
+                }
+            }
+        }
+        check(true, what);
+    }
+
+    private static int[] discovered(SearchContext context, int from) {
+        int[] cells = new int[context.getDiscoveredCount() - from];
+        for (int i = 0; i < cells.length; i++) {
+            cells[i] = context.getDiscovered(from + i);
+        }
+        return cells;
+    }
+
+    private static void matchesDijkstra(String name, PathSearch search, GridMap map, Random random) {
+        DijkstraSearch dijkstra = new DijkstraSearch();
+        SearchContext context = new SearchContext();
+        SearchContext reference = new SearchContext();
+
+        for (int query = 0; query < QUERIES; query++) {
+            int start = randomOpenCell(map, random), goal = randomOpenCell(map, random);
+            PathResult expected = dijkstra.search(map, start, goal, reference);
+            PathResult actual = search.search(map, start, goal, context);
+
+            String what = name + " from " + start + " to " + goal;
+            check(actual.isFound() == expected.isFound(), what + " found a path: " + actual.isFound());
+            if (actual.isFound() && expected.isFound()) {
+                check(actual.getCost() == expected.getCost(),
+                        what + " costs " + actual.getCost() + ", not " + expected.getCost());
+                checkPath(map, actual, start, goal, what);
+            }
+        }
+    }
+
+    /**
+     * Checks that a path runs from the start to the goal through open cells,
+     * one step at a time, and costs what the result says.
+     */
+    private static void checkPath(GridMap map, PathResult result, int start, int goal, String what) {
+        int[] path = result.getPath();
+        boolean valid = path.length > 0 && path[0] == start && path[path.length - 1] == goal;
+        double cost = 0;
+        for (int i = 1; valid && i < path.length; i++) {
+            valid = map.isPassable(path[i]) && adjacent(map, path[i - 1], path[i]);
+            cost += map.getCost(path[i]);
+        }
+        check(valid, what + " returned a broken path");
+        check(!valid || cost == result.getCost(), what + " walks a path of cost " + cost + ", not "
+                + result.getCost());
+    }
+
+    private static boolean adjacent(GridMap map, int a, int b) {
+        int rows = map.getRows();
+        int dx = Math.abs(a % rows - b % rows), dy = Math.abs(a / rows - b / rows);
+        return dx + dy == 1;
+    }
+
+    /**
+     * Builds a grid with a given share of walls and cell costs drawn evenly
+     * from 1 to {@code maxCost}.
+     */
+    static Grid randomGrid(Random random, int rows, int cols, double walls, int maxCost) {
+        Grid grid = new Grid(rows, cols);
+        byte[] costs = new byte[grid.size()];
+        for (int index = 0; index < grid.size(); index++) {
+            if (random.nextDouble() < walls)
+                grid.setType(index, Grid.WALL);
+            costs[index] = (byte) (1 + random.nextInt(maxCost));
+        }
+        grid.setCosts(costs);
+        return grid;
+    }
+
+    static int randomOpenCell(GridMap map, Random random) {
+        int index;
+        do {
+            index = random.nextInt(map.size());
+        } while (!map.isPassable(index));
+        return index;
+    }
+
+    static int randomWall(GridMap map) {
+        for (int index = 0; index < map.size(); index++) {
+            if (!map.isPassable(index))
+                return index;
+        }
+        throw new IllegalArgumentException("The map has no walls");
+    }
+
+    static void check(boolean passed, String failure) {
+        checks++;
+        if (!passed) {
+            failures++;
+            REPORT.println("FAILED: " + failure);
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package Benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import Cells.Grid;
+import Driver.Config;
+
+/**
+ * Measures how many complete mazes each {@code Maze} subclass can generate per
+ * second, including filling the grid with the result, as {@code Game} does on
+ * every restart.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = { "-Xms1g", "-Xmx8g" })
+public class MazeBenchmark {
+
+    @Param({ "100x50", "512x512", "2048x2048", "8192x8192" })
+    public String size;
+
+    @Param({ "Randomized", "RecursiveBacktracker", "ReverseRecursiveBacktracker", "Wilson", "Eller", "Terrain" })
+    public String maze;
+
+    @Param({ "42" })
+    public long seed;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        BenchmarkGrids.configure(size, maze, seed);
+    }
+
+    @Setup(Level.Invocation)
+    public void resetMaze() {
+        Config.getMaze().reset();
+    }
+
+    @Benchmark
+    public Grid generate() {
+        return BenchmarkGrids.generate();
+    }
+}
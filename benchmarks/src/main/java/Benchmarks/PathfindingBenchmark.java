@@ -0,0 +1,111 @@
+package Benchmarks;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import Cells.CellManager;
+import Cells.FrozenGrid;
+import Cells.Grid;
+import Pathfind.PathResult;
+import Pathfind.PathSearch;
+import Pathfind.SearchContext;
+
+/**
+ * Measures the headless search behind each {@code Algorithm} on every grid
+ * size and maze type.
+ * <p>
+ * {@link #singleQuery} times one corner-to-corner query (latency), and
+ * {@link #randomQueries} cycles through a fixed set of random start and goal
+ * pairs (queries per second). Run with {@code -prof gc} (the default when
+ * launched through {@link BenchmarkRunner}) to also get the allocation rate.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = { "-Xms1g", "-Xmx8g" })
+public class PathfindingBenchmark {
+
+    /** Number of random query pairs cycled through by {@link #randomQueries}. */
+    private static final int QUERIES = 1024;
+
+    @Param({ "100x50", "512x512", "2048x2048", "8192x8192" })
+    public String size;
+
+    @Param({ "Randomized", "RecursiveBacktracker", "ReverseRecursiveBacktracker", "Terrain" })
+    public String maze;
+
+    @Param({ "42" })
+    public long seed;
+
+    @Param({ "Floodfill", "AStar", "JumpPoint", "BidirectionalFloodfill", "BidirectionalAStar", "BitsetFloodfill",
+            "ParallelFloodfill", "Dijkstra", "Hierarchical", "Landmark" })
+    public String algorithm;
+
+    private FrozenGrid grid;
+    private PathSearch search;
+    private int start;
+    private int end;
+    private int[] queries;
+
+    /**
+     * Per-thread scratch state, so the throughput benchmark can be run with
+     * several threads on the same grid.
+     */
+    @State(Scope.Thread)
+    public static class ThreadState {
+        final SearchContext context = new SearchContext();
+        int next;
+    }
+
+    @Setup(Level.Trial)
+    public void setup() {
+        BenchmarkGrids.configure(size, maze, seed);
+        Grid live = BenchmarkGrids.generate();
+
+        grid = live.snapshot();
+        search = BenchmarkGrids.algorithm(algorithm).GetSearch();
+        start = CellManager.Instance.GetStartIndex();
+        end = CellManager.Instance.GetEndIndex();
+
+        // Fixed seed so every run replays the same queries
+        Random random = new Random(42);
+        queries = new int[QUERIES * 2];
+        for (int i = 0; i < queries.length; i++) {
+            int cell;
+            do {
+                cell = random.nextInt(grid.size());
+            } while (!grid.isPassable(cell));
+            queries[i] = cell;
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SampleTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public PathResult singleQuery(ThreadState state) {
+        return search.search(grid, start, end, state.context);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    public PathResult randomQueries(ThreadState state) {
+        int i = state.next;
+        state.next = (i + 2) % queries.length;
+        return search.search(grid, queries[i], queries[i + 1], state.context);
+    }
+}
@@ -3,10 +3,7 @@ package Cells;
 import java.awt.Color;
 import java.awt.Font;
 import java.awt.Graphics;
-import java.awt.event.MouseEvent;
 
-import Click.ClickListener;
-import Click.ClickManager;
 import Driver.Config;
 import Utilities.ColorInterpolator;
 import Utilities.Vector2;
@@ -20,178 +17,135 @@ import Utilities.Vector2;
  * - Start
  * - End
  * </p>
- * Additionally, the cell has the ability to listen to click events, mark itself
- * as explored, and be part of the fastest route.
+ * A cell holds no state of its own. It is a lightweight view over one index of
+ * a {@link Grid}, which stores the type, explored step and fastest route flag
+ * of every cell in primitive planes. Two views of the same index are equal.
  */
 public class Cell {
 
+	private static final int WALL_RGB = Color.BLACK.getRGB();
+	private static final int START_RGB = Color.GREEN.getRGB();
+	private static final int END_RGB = Color.RED.getRGB();
+
 	/**
-	 * Enum representing the various types of cells.
+	 * Color of an unexplored path of each cost: gray at cost 1, darkening
+	 * towards brown on expensive terrain.
 	 */
-	private static enum CellType {
-		Path,
-		Wall,
-		Start,
-		End
-	};
-
-	/** The type of this cell. */
-	private CellType type;
-
-	/** Position of the cell on screen. */
-	private Vector2 screenPos;
-	/** Position of the cell in the grid graph. */
-	private final Vector2 graphPos;
-
-	/** Indicates if this cell is part of the fastest route. */
-	private boolean isFastestRoute = false;
+	private static final int[] TERRAIN_RGB = new int[Grid.MAX_COST + 1];
+
+	static {
+		Color plain = Color.GRAY;
+		Color hill = new Color(80, 50, 20);
+		for (int cost = 0; cost < TERRAIN_RGB.length; cost++) {
+			// 0 at cost 1, approaching 1 as the cost grows
+			double t = Math.max(0, cost - 1) / (cost + 3.0);
+			TERRAIN_RGB[cost] = new Color(
+					(int) Math.round(plain.getRed() + (hill.getRed() - plain.getRed()) * t),
+					(int) Math.round(plain.getGreen() + (hill.getGreen() - plain.getGreen()) * t),
+					(int) Math.round(plain.getBlue() + (hill.getBlue() - plain.getBlue()) * t)).getRGB();
+		}
+	}
 
-	/** Indicates if this cell has been explored. */
-	private boolean isExplored = false;
+	/**
+	 * Colors drawn recently, by a hash of their RGB value, so drawing a cell
+	 * does not allocate one. A palette has few enough colors that they rarely
+	 * push each other out. Cells are only drawn on the event thread.
+	 */
+	private static final Color[] COLORS = new Color[1024];
 
-	/** Records the step count when this cell was explored. */
-	private int stepsWhenExplored = 0;
+	/** The grid this cell is a view of. */
+	private final Grid grid;
 
 	/** Index of this cell. */
 	public final int index;
 
-	/** Flag for debug mode. */
-	private boolean debug = false;
-
 	/**
-	 * Constructs a cell with a given graph position and index.
+	 * Constructs a view of the cell at the given index.
 	 *
-	 * @param graphPos The position of the cell in the grid graph.
-	 * @param index    The index of the cell.
+	 * @param grid  The grid holding the cell's data.
+	 * @param index The index of the cell.
 	 */
-
-	public Cell(Vector2 graphPos, int index) {
-
-		this.graphPos = graphPos;
+	public Cell(Grid grid, int index) {
+		this.grid = grid;
 		this.index = index;
-
-		updateScreenPosition();
-
-		setCellType();
-
-		// Add Button to Each Cell
-		ClickManager.Instance.addClickListener(new ClickListener() {
-			@Override
-			public void onClick(MouseEvent e) {
-				int xOffset = 7;
-				int yOffset = 28;
-				if (screenPos.x < e.getX() - xOffset && e.getX() - xOffset < screenPos.x + Config.getCellWidth()) {
-					if (screenPos.y < e.getY() - yOffset && e.getY() - yOffset < screenPos.y + Config.getCellHeight()) {
-						if (!debug)
-							System.out.println("DEBUG: " + this +
-									"\n\tIndex: " + index +
-
-									"\n\tMouse X: " + e.getX() +
-									"\n\tMouse Y: " + (e.getY() - yOffset) +
-
-									"\n\tGX: " + graphPos.x +
-									"\n\tGY: " + graphPos.y +
-
-									"\n\tX: " + screenPos.x +
-									"\n\tY: " + screenPos.y +
-									"\n\tX2: " + (screenPos.x + Config.getCellWidth()) +
-									"\n\tY2: " + (screenPos.y + Config.getScreenWidth()) +
-
-									"\n\tType: " + type);
-						debug = !debug;
-
-						if (type == CellType.Wall)
-							type = CellType.Path;
-						else if (type == CellType.Path)
-							type = CellType.Wall;
-					}
-				}
-			}
-		});
 	}
 
 	/**
-	 * Determines and sets the type of this cell based on its position and the
-	 * game's configuration.
+	 * Renders the cell using the given Graphics object.
+	 *
+	 * @param g        The graphics context to use for drawing.
+	 * @param gradient The baked gradient explored cells fade through.
+	 * @param step     The current step of the algorithm.
 	 */
-	public void setCellType() {
-		// If this cell's Coords are equal to the Starting Cell's Coords
-		if (graphPos.equals(Config.getStartCell())) {
-			CellManager.Instance.SetStartIndex(index);
-			type = CellType.Start;
-		}
+	protected void DrawCell(Graphics g, int[] gradient, int step) {
 
-		// If this cell's Coords are equal to the Starting Cell's Coords
-		else if (graphPos.equals(Config.getEndCell())) {
-			CellManager.Instance.SetEndIndex(index);
-			type = CellType.End;
-		}
-
-		// Otherwise, determine if it is a Wall or a Path
-		else
-			type = Config.getMaze().IsWall(graphPos) ? CellType.Path : CellType.Wall;
+		// Neighbors are often the same color, which needs no change at all
+		int rgb = RGBOf(grid, index, gradient, step);
+		Color current = g.getColor();
+		if (current == null || current.getRGB() != rgb)
+			g.setColor(ColorOf(rgb));
+		g.fillRect(
+				grid.getX(index) * Config.getCellWidth(),
+				grid.getY(index) * Config.getCellHeight(),
+				Config.getCellWidth(),
+				Config.getCellHeight());
 
+		if (grid.isSelected(index) && Config.isDeveloperMode()) {
+			DrawCellDeveloperMode(g);
+		}
 	}
 
 	/**
-	 * Updates the screen position of the cell based on its graph position and
-	 * configuration.
+	 * Returns a color with the given RGB value, reusing the last one made for
+	 * it unless another color has taken its place since.
+	 *
+	 * @param rgb The RGB value.
+	 * @return The color.
 	 */
-	public void updateScreenPosition() {
-		screenPos = new Vector2(
-				graphPos.x * Config.getCellWidth(),
-				graphPos.y * Config.getCellHeight());
+	static Color ColorOf(int rgb) {
+		int slot = (rgb ^ (rgb >>> 10) ^ (rgb >>> 20)) & (COLORS.length - 1);
+		Color color = COLORS[slot];
+		if (color == null || color.getRGB() != rgb) {
+			color = new Color(rgb);
+			COLORS[slot] = color;
+		}
+		return color;
 	}
 
 	/**
-	 * Renders the cell using the given Graphics object.
+	 * Picks the color a cell is drawn in, without allocating.
 	 *
-	 * @param g The graphics context to use for drawing.
+	 * @param grid     The grid holding the cell.
+	 * @param index    The index of the cell.
+	 * @param gradient The baked gradient explored cells fade through, see
+	 *                 {@link ColorInterpolator#bake()}.
+	 * @param step     The current step of the algorithm.
+	 * @return The RGB value of the cell.
 	 */
-	protected void DrawCell(Graphics g) {
-
-		Color cellColor = null;
-		if (type == CellType.Path) {
-
-			if (isFastestRoute) {
-				cellColor = Config.getColorPalette()[0]; // Bright yellow
-			}
+	static int RGBOf(Grid grid, int index, int[] gradient, int step) {
 
-			else if (isExplored) {
+		byte type = grid.getType(index);
+		if (type == Grid.PATH) {
 
-				int stepsSinceExplored = Config.getAlgorithm().GetSteps() - stepsWhenExplored;
+			if (grid.isFastestPath(index))
+				return gradient[0]; // Bright yellow
 
-				ColorInterpolator interpolator = new ColorInterpolator(Config.getColorPalette(),
-						Config.getNumColorGradient());
-
-				cellColor = interpolator.getColor(stepsSinceExplored);
-
-			}
+			else if (grid.isExplored(index))
+				return ColorInterpolator.lookup(gradient, step - grid.getExploredStep(index));
 
 			else
-				cellColor = Color.GRAY;
+				return TERRAIN_RGB[grid.getCost(index)];
 
 		}
 
-		else if (type == CellType.Wall)
-			cellColor = Color.BLACK;
-
-		else if (type == CellType.Start)
-			cellColor = Color.GREEN;
-
-		else if (type == CellType.End)
-			cellColor = Color.RED;
+		else if (type == Grid.WALL)
+			return WALL_RGB;
 
-		g.setColor(cellColor);
-		g.fillRect(
-				screenPos.x,
-				screenPos.y,
-				Config.getCellWidth(),
-				Config.getCellHeight());
+		else if (type == Grid.START)
+			return START_RGB;
 
-		if (debug && Config.isDeveloperMode()) {
-			DrawCellDeveloperMode(g);
-		}
+		else
+			return END_RGB;
 	}
 
 	/**
@@ -202,9 +156,11 @@ public class Cell {
 	 */
 	protected void DrawCellDeveloperMode(Graphics g) {
 
+		int screenX = grid.getX(index) * Config.getCellWidth();
+		int screenY = grid.getY(index) * Config.getCellHeight();
+
 		g.setColor(Color.BLUE);
-		g.drawRect(this.screenPos.x, this.screenPos.y, Config.getCellWidth(),
-				Config.getCellHeight());
+		g.drawRect(screenX, screenY, Config.getCellWidth(), Config.getCellHeight());
 
 		g.setColor(Color.white);
 		g.setFont(new Font("Serif", Font.PLAIN, 9));
@@ -213,107 +169,121 @@ public class Cell {
 		int increaseY = 8;
 		int increaseX = 1;
 
-		// g.drawString("ID: " + this.toString(), this.screenPos.x + increaseX,
-		// this.screenPos.y + (increaseY * count));
-		// count++;
-		g.drawString("Index: " + index, this.screenPos.x + increaseX, this.screenPos.y + (increaseY * count));
+		g.drawString("Index: " + index, screenX + increaseX, screenY + (increaseY * count));
 		count++;
 
-		g.drawString("G: (" + this.graphPos.x + ", " + this.graphPos.y + ")", this.screenPos.x + increaseX,
-				this.screenPos.y + (increaseY * count));
+		g.drawString("G: (" + grid.getX(index) + ", " + grid.getY(index) + ")", screenX + increaseX,
+				screenY + (increaseY * count));
 		count++;
 
-		// g.drawString("X1: " + this.screenPos.x, this.screenPos.x + increaseX,
-		// this.screenPos.y + (increaseY * count));
-		// count++;
-		// g.drawString("Y1: " + this.screenPos.y, this.screenPos.x + increaseX,
-		// this.screenPos.y + (increaseY * count));
-		// count++;
-		// g.drawString("X2: " + (this.screenPos.x + Config.CELL_WIDTH),
-		// this.screenPos.x + increaseX,
-		// this.screenPos.y + (increaseY * count));
-		// count++;
-		// g.drawString("Y2: " + (this.screenPos.y + Config.CELL_HEIGHT),
-		// this.screenPos.x + increaseX,
-		// this.screenPos.y + (increaseY * count));
-		// count++;
-
-		g.drawString("Type: " + type, this.screenPos.x + increaseX, this.screenPos.y + (increaseY * count));
+		g.drawString("Type: " + typeName(), screenX + increaseX, screenY + (increaseY * count));
 		count++;
 
-		g.drawString("Status: " + isExplored, this.screenPos.x + increaseX, this.screenPos.y + (increaseY * count));
+		g.drawString("Status: " + IsExplored(), screenX + increaseX, screenY + (increaseY * count));
+		count++;
+
+		g.drawString("Cost: " + grid.getCost(index), screenX + increaseX, screenY + (increaseY * count));
 	}
 
 	/**
 	 * Marks this cell as being part of the fastest path.
 	 */
 	public void MarkAsFastestPath() {
-		isFastestRoute = true;
+		grid.markFastestPath(index);
 	}
 
 	/**
 	 * Marks this cell as explored and records the current algorithm step.
 	 */
 	public void MarkAsExplored() {
-
-		if (isExplored == false) {
-			stepsWhenExplored = Config.getAlgorithm().GetSteps();
-			isExplored = true;
-		}
+		grid.markExplored(index, Config.getAlgorithm().GetSteps());
 	}
 
 	/**
 	 * Checks if this cell has been explored.
-	 * 
+	 *
 	 * @return True if the cell has been explored, otherwise false.
 	 */
 	public boolean IsExplored() {
-		return isExplored;
+		return grid.isExplored(index);
 	}
 
 	/**
 	 * Checks if this cell is of type Path.
-	 * 
+	 *
 	 * @return True if the cell is of type Path, otherwise false.
 	 */
 	public boolean IsPath() {
-		return type == CellType.Path;
+		return grid.getType(index) == Grid.PATH;
 	}
 
 	/**
 	 * Checks if this cell is of type Wall.
-	 * 
+	 *
 	 * @return True if the cell is of type Wall, otherwise false.
 	 */
 	public boolean IsWall() {
-		return type == CellType.Wall;
+		return grid.getType(index) == Grid.WALL;
 	}
 
 	/**
 	 * Checks if this cell is of type Start.
-	 * 
+	 *
 	 * @return True if the cell is of type Start, otherwise false.
 	 */
 	public boolean IsStart() {
-		return type == CellType.Start;
+		return grid.getType(index) == Grid.START;
 	}
 
 	/**
 	 * Checks if this cell is of type End.
-	 * 
+	 *
 	 * @return True if the cell is of type End, otherwise false.
 	 */
 	public boolean IsEnd() {
-		return type == CellType.End;
+		return grid.getType(index) == Grid.END;
 	}
 
 	/**
 	 * Returns the position of the cell in the grid graph.
-	 * 
+	 *
 	 * @return The graph position of the cell.
 	 */
 	public Vector2 GraphPosition() {
-		return graphPos;
+		return new Vector2(grid.getX(index), grid.getY(index));
+	}
+
+	private String typeName() {
+		switch (grid.getType(index)) {
+			case Grid.WALL:
+				return "Wall";
+			case Grid.START:
+				return "Start";
+			case Grid.END:
+				return "End";
+			default:
+				return "Path";
+		}
+	}
+
+	@Override
+	public int hashCode() {
+		return index;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		if (obj == null || getClass() != obj.getClass())
+			return false;
+		Cell cell = (Cell) obj;
+		return index == cell.index && grid == cell.grid;
+	}
+
+	@Override
+	public String toString() {
+		return "Cell " + index + " " + GraphPosition() + " " + typeName();
 	}
 
 }
@@ -1,20 +1,25 @@
 package Cells;
 
 import java.awt.Graphics;
-import java.util.Hashtable;
+import java.awt.Rectangle;
+import java.awt.event.MouseEvent;
+import java.io.IOException;
+import java.nio.file.Path;
 
+import Click.CellClickListener;
+import Click.ClickManager;
+import Click.GridHitTester;
 import Driver.Config;
 import Utilities.Vector2;
 
 /**
- * Manages the creation, rendering, and handling of all Cell instances within
- * the pathfinding simulation.
+ * Manages the creation, rendering, and handling of all cells within the
+ * pathfinding simulation.
  * <p>
- * This class is responsible for creating Cell instances based on the
- * configurations specified
- * in the Config class, drawing all cells, and managing cell-specific properties
- * such as
- * determining start and end cells.
+ * This class is responsible for building the {@link Grid} that stores every
+ * cell based on the configurations specified in the Config class, drawing all
+ * cells, and managing cell-specific properties such as determining start and
+ * end cells.
  * </p>
  * The class is implemented as a singleton.
  */
@@ -23,8 +28,11 @@ public class CellManager {
 	/** The static instance of the CellManager. */
 	public static CellManager Instance;
 
-	/** A hashtable mapping index values to corresponding Cell instances. */
-	private Hashtable<Integer, Cell> CellIndex = new Hashtable<>();
+	/** Primitive storage for every cell in the current grid. */
+	private Grid grid;
+
+	/** Image the grid is drawn into when raster rendering is on. */
+	private final CellRaster raster = new CellRaster();
 
 	/** The index of the starting cell. */
 	private int startIndex = -1;
@@ -45,63 +53,140 @@ public class CellManager {
 	}
 
 	/**
-	 * Generates Cell instances for each position in the grid, based on specified
-	 * configurations.
+	 * Allocates the grid for the configured dimensions and finds the start and
+	 * end cells, without writing any cell.
 	 * <p>
-	 * Initializes each cell, assigns it an index, and stores it in the CellIndex
-	 * hashtable.
+	 * The maze writes every cell once, through {@link #setCellTypes()}, when it
+	 * completes. Until then the grid is all paths.
 	 * </p>
+	 * A single hit tester is registered for the whole grid. It maps the mouse
+	 * position straight to a cell index.
 	 */
 	public void generateCells() {
 
 		Config.getMaze().StartMaze();
 
-		for (int row = 0; row < Config.getNumCellRows(); row++) {
-			for (int col = 0; col < Config.getNumCellCols(); col++) {
+		grid = new Grid(Config.getNumCellRows(), Config.getNumCellCols());
+		startIndex = -1;
+		endIndex = -1;
 
-				int index = row + (col * Config.getNumCellRows());
+		Vector2 start = Config.getStartCell();
+		SetStartIndex(grid.indexOf(start.x, start.y));
 
-				var position = new Vector2(row, col);
+		// Where the start and end share a cell, the start wins
+		Vector2 end = Config.getEndCell();
+		int endCell = grid.indexOf(end.x, end.y);
+		if (endCell != startIndex)
+			SetEndIndex(endCell);
 
-				Cell cell = new Cell(position, index);
+		// Headless runs (benchmarks, services) have no window to click on
+		if (ClickManager.Instance == null)
+			return;
 
-				CellIndex.put(index, cell);
+		// One hit tester maps clicks on the whole Grid straight to a cell
+		ClickManager.Instance.setGrid(new GridHitTester(grid.getRows(), grid.getCols(), new CellClickListener() {
+			@Override
+			public void onCellClick(int index, MouseEvent e) {
+				toggleCell(index, e);
 			}
-		}
+		}));
+	}
+
+	/**
+	 * Toggles a clicked cell between Wall and Path, printing its details the
+	 * first time it is selected.
+	 *
+	 * @param index The index of the clicked cell.
+	 * @param e     The mouse event that triggered the toggle.
+	 */
+	private void toggleCell(int index, MouseEvent e) {
+		if (!grid.isSelected(index))
+			System.out.println("DEBUG: " + GetCellByIndex(index) +
+					"\n\tIndex: " + index +
+
+					"\n\tMouse X: " + e.getX() +
+					"\n\tMouse Y: " + (e.getY() - ClickManager.Y_OFFSET) +
+
+					"\n\tGX: " + grid.getX(index) +
+					"\n\tGY: " + grid.getY(index) +
+
+					"\n\tX: " + grid.getX(index) * Config.getCellWidth() +
+					"\n\tY: " + grid.getY(index) * Config.getCellHeight());
+		grid.toggleSelected(index);
+
+		if (grid.getType(index) == Grid.WALL)
+			grid.setType(index, Grid.PATH);
+		else if (grid.getType(index) == Grid.PATH)
+			grid.setType(index, Grid.WALL);
 	}
 
 	/**
-	 * Calls each Cell instance to determine and set its type based on its position.
+	 * Writes the type of every cell from the finished maze. Called once the
+	 * maze completes.
+	 * <p>
+	 * Costs go back to 1 and the maze writes its walls, and any terrain, into
+	 * the grid in one pass, then the start and end cells found by
+	 * {@link #generateCells()} are placed on top.
+	 * </p>
 	 */
 	public void setCellTypes() {
-		for (Cell cell : CellIndex.values()) {
-			cell.setCellType();
-		}
+		grid.clearCosts();
+		Config.getMaze().WriteWalls(grid);
+
+		if (startIndex != -1)
+			grid.setType(startIndex, Grid.START);
+		if (endIndex != -1)
+			grid.setType(endIndex, Grid.END);
 	}
 
 	/**
-	 * Draws all Cell instances.
-	 * 
+	 * Draws the cells inside the clip of the graphics context, either into a
+	 * single image or with one rectangle per cell, depending on the
+	 * configuration.
+	 *
 	 * @param g The graphics context to use for drawing.
 	 */
 	public void drawCells(Graphics g) {
-		for (Cell cell : CellIndex.values()) {
-			cell.DrawCell(g);
+		int[] gradient = Config.getColorGradient();
+		int step = Config.getAlgorithm().GetSteps();
+
+		// Only the cells under the clip need refreshing
+		int minX = 0, minY = 0, maxX = grid.getRows() - 1, maxY = grid.getCols() - 1;
+		Rectangle clip = g.getClipBounds();
+		if (clip != null) {
+			minX = Math.max(minX, clip.x / Config.getCellWidth());
+			minY = Math.max(minY, clip.y / Config.getCellHeight());
+			maxX = Math.min(maxX, (clip.x + clip.width - 1) / Config.getCellWidth());
+			maxY = Math.min(maxY, (clip.y + clip.height - 1) / Config.getCellHeight());
 		}
-	}
 
-	/**
-	 * Updates the screen position of all Cell instances.
-	 */
-	public void updateScreenPosition() {
-		for (Cell cell : CellIndex.values()) {
-			cell.updateScreenPosition();
+		if (Config.isRasterRendering()) {
+			raster.draw(g, grid, gradient, step, minX, minY, maxX, maxY);
+
+			if (Config.isDeveloperMode()) {
+				// Skip to the selected cells of each row under the clip
+				for (int y = minY; y <= maxY; y++) {
+					int last = maxX + y * grid.getRows();
+					int index = grid.nextSelected(minX + y * grid.getRows(), last);
+					while (index != -1) {
+						new Cell(grid, index).DrawCellDeveloperMode(g);
+						index = grid.nextSelected(index + 1, last);
+					}
+				}
+			}
+			return;
+		}
+
+		for (int y = minY; y <= maxY; y++) {
+			for (int x = minX; x <= maxX; x++) {
+				new Cell(grid, x + y * grid.getRows()).DrawCell(g, gradient, step);
+			}
 		}
 	}
 
 	/**
 	 * Sets the starting index if it hasn't been set already.
-	 * 
+	 *
 	 * @param index The index to set as the starting index.
 	 */
 	public void SetStartIndex(int index) {
@@ -111,7 +196,7 @@ public class CellManager {
 
 	/**
 	 * Sets the ending index if it hasn't been set already.
-	 * 
+	 *
 	 * @param index The index to set as the ending index.
 	 */
 	public void SetEndIndex(int index) {
@@ -121,7 +206,7 @@ public class CellManager {
 
 	/**
 	 * Retrieves the starting index.
-	 * 
+	 *
 	 * @return The starting index.
 	 */
 	public int GetStartIndex() {
@@ -130,7 +215,7 @@ public class CellManager {
 
 	/**
 	 * Retrieves the ending index.
-	 * 
+	 *
 	 * @return The ending index.
 	 */
 	public int GetEndIndex() {
@@ -138,33 +223,49 @@ public class CellManager {
 	}
 
 	/**
-	 * Retrieves the Cell instance associated with a given index.
-	 * 
-	 * @param index The index of the desired Cell instance.
-	 * @return The associated Cell instance.
+	 * Saves the walls and costs of the current grid to a map file, along with
+	 * the start and end cells and the seed of the maze, so the map can be
+	 * shared and opened again with {@link MappedGrid#open(java.nio.file.Path)}.
+	 *
+	 * @param file The file to write, replaced if it exists.
+	 * @throws IOException If the file cannot be written.
+	 */
+	public void saveGrid(Path file) throws IOException {
+		MappedGrid.save(file, grid, startIndex, endIndex, Config.getMaze().getSeed());
+	}
+
+	/**
+	 * Retrieves the primitive store backing every cell.
+	 *
+	 * @return The current grid.
+	 */
+	public Grid GetGrid() {
+		return grid;
+	}
+
+	/**
+	 * Retrieves a view of the cell at a given index.
+	 *
+	 * @param index The index of the desired cell.
+	 * @return A view of the cell, or null if the index is out of bounds.
 	 */
 	public Cell GetCellByIndex(int index) {
-		Cell cell;
-		cell = CellIndex.get(index);
-		return cell;
+		if (index < 0 || index >= grid.size())
+			return null;
+		return new Cell(grid, index);
 	}
 
 	/**
-	 * Retrieves the Cell instance located at the specified Vector2 position.
-	 * 
-	 * @param vector The Vector2 position of the desired Cell instance.
-	 * @return The associated Cell instance.
+	 * Retrieves a view of the cell located at the specified Vector2 position.
+	 *
+	 * @param vector The Vector2 position of the desired cell.
+	 * @return A view of the cell, or null if the position is out of bounds.
 	 */
 	public Cell GetCellByVector(Vector2 vector) {
-		int index = vector.x + (vector.y * Config.getNumCellRows());
-		Cell cell = GetCellByIndex(index);
-		if (cell.GraphPosition().equals(vector)) {
-			return GetCellByIndex(index);
-
-		} else {
-			System.out.println("Could not find Cell: " + vector);
+		int index = grid.indexOf(vector.x, vector.y);
+		if (index == -1)
 			return null;
-		}
+		return new Cell(grid, index);
 	}
 
 }
@@ -0,0 +1,67 @@
+package Cells;
+
+import java.awt.Graphics;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+
+import Driver.Config;
+
+/**
+ * Renders the whole grid as one image with a pixel per cell.
+ * <p>
+ * Cell indices are laid out as {@code x + y * rows}, exactly like the pixels
+ * of an image that is {@code rows} wide, so each cell's color is written
+ * straight into the int[] raster of a {@code TYPE_INT_RGB} image. The image
+ * is then drawn once, scaled up to the cell size. A frame costs one
+ * {@code drawImage} call however many cells there are, instead of a
+ * {@code setColor} and {@code fillRect} per cell.
+ * </p>
+ */
+public class CellRaster {
+
+	/** One pixel per cell, reallocated when the grid changes size. */
+	private BufferedImage image;
+
+	/** The pixels of {@link #image}, indexed like the cells. */
+	private int[] pixels;
+
+	/**
+	 * Refreshes the pixels of the cells in a range and draws the image.
+	 * <p>
+	 * Pixels outside the range keep their last color, so the range must cover
+	 * every cell that changed since the last call. The whole image is refreshed
+	 * when the grid changes size.
+	 * </p>
+	 *
+	 * @param g        The graphics context to use for drawing.
+	 * @param grid     The grid to draw.
+	 * @param gradient The baked gradient explored cells fade through.
+	 * @param step     The current step of the algorithm.
+	 * @param minX     The first column of cells to refresh.
+	 * @param minY     The first row of cells to refresh.
+	 * @param maxX     The last column of cells to refresh.
+	 * @param maxY     The last row of cells to refresh.
+	 */
+	public void draw(Graphics g, Grid grid, int[] gradient, int step, int minX, int minY, int maxX, int maxY) {
+		int rows = grid.getRows();
+		int cols = grid.getCols();
+
+		if (image == null || image.getWidth() != rows || image.getHeight() != cols) {
+			image = new BufferedImage(rows, cols, BufferedImage.TYPE_INT_RGB);
+			pixels = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+			minX = 0;
+			minY = 0;
+			maxX = rows - 1;
+			maxY = cols - 1;
+		}
+
+		for (int y = minY; y <= maxY; y++) {
+			for (int index = minX + y * rows; index <= maxX + y * rows; index++) {
+				pixels[index] = Cell.RGBOf(grid, index, gradient, step);
+			}
+		}
+
+		g.drawImage(image, 0, 0, rows * Config.getCellWidth(), cols * Config.getCellHeight(), null);
+	}
+
+}
@@ -0,0 +1,251 @@
+package Cells;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.SoftReference;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import Cells.Maze.Maze;
+import Utilities.Vector2;
+
+/**
+ * An unbounded world of cells, generated in chunks as they are first needed.
+ * <p>
+ * Where a {@link Grid} allocates every cell up front, the world is split into
+ * chunks of {@link #CHUNK_SIZE} by {@link #CHUNK_SIZE} cells, kept in a
+ * concurrent map keyed by chunk coordinate. A chunk is generated from the
+ * maze the first time one of its cells is asked about, and held by a soft
+ * reference, so the garbage collector evicts chunks when memory runs short.
+ * An evicted chunk is simply generated again: the maze must be one whose
+ * cells are a pure function of the seed and their position, such as
+ * {@code Randomized} or {@code Terrain}. A {@link WorldWindow} pins every
+ * chunk it fetched for as long as it is alive, so chunks are only evicted
+ * between the queries that read them.
+ * </p>
+ * Cell coordinates span the whole int range on both axes. The searches index
+ * cells with a dense int, so they search the world through a
+ * {@link WorldWindow}, a bounded rectangle of it, which only generates the
+ * chunks the search actually reaches. The world is thread-safe.
+ */
+public final class ChunkedWorld {
+
+	/** Width and height of a chunk, in cells. One row of a chunk fills a long. */
+	public static final int CHUNK_SIZE = 64;
+
+	/** Shift from a cell coordinate to the coordinate of its chunk. */
+	static final int CHUNK_SHIFT = 6;
+
+	private final Maze maze;
+	private final long seed;
+
+	/** Chunks generated so far, some of which may have been evicted. */
+	private final ConcurrentHashMap<Long, ChunkReference> chunks = new ConcurrentHashMap<>();
+
+	/** Chunks evicted by the garbage collector, waiting to be dropped from the map. */
+	private final ReferenceQueue<Chunk> evicted = new ReferenceQueue<>();
+
+	/** Number of chunks generated, counting those generated again after eviction. */
+	private final AtomicLong generated = new AtomicLong();
+
+	/**
+	 * Creates a world generated by a maze, at the maze's current seed.
+	 *
+	 * @param maze A maze whose cells can be generated in any order, for which
+	 *             {@link Maze#IsUnbounded()} is true. Its seed should be fixed
+	 *             with {@link Maze#setSeed(long)}, as chunks cannot be generated
+	 *             once it changes.
+	 */
+	public ChunkedWorld(Maze maze) {
+		if (maze == null) {
+			throw new IllegalArgumentException("Maze must not be null");
+		}
+		if (!maze.IsUnbounded()) {
+			throw new IllegalArgumentException(maze + " cannot generate an unbounded world");
+		}
+		this.maze = maze;
+		this.seed = maze.getSeed();
+	}
+
+	/**
+	 * @param x The x coordinate.
+	 * @param y The y coordinate.
+	 * @return True if the cell can be walked on.
+	 */
+	public boolean isPassable(int x, int y) {
+		return chunk(x >> CHUNK_SHIFT, y >> CHUNK_SHIFT).isPassable(x & (CHUNK_SIZE - 1), y & (CHUNK_SIZE - 1));
+	}
+
+	/**
+	 * @param x The x coordinate.
+	 * @param y The y coordinate.
+	 * @return The cost of stepping onto the cell, at least 1.
+	 */
+	public int getCost(int x, int y) {
+		return chunk(x >> CHUNK_SHIFT, y >> CHUNK_SHIFT).getCost(x & (CHUNK_SIZE - 1), y & (CHUNK_SIZE - 1));
+	}
+
+	/**
+	 * Opens a window onto a rectangle of the world, to be searched like any
+	 * other grid.
+	 *
+	 * @param x0   The x coordinate of the first cell.
+	 * @param y0   The y coordinate of the first cell.
+	 * @param rows Number of cells along the x axis.
+	 * @param cols Number of cells along the y axis.
+	 * @return The window.
+	 */
+	public WorldWindow window(int x0, int y0, int rows, int cols) {
+		return new WorldWindow(this, x0, y0, rows, cols);
+	}
+
+	/**
+	 * Opens a window around two cells, with a margin on every side for routes
+	 * that have to go around walls between them.
+	 *
+	 * @param from   One cell.
+	 * @param to     The other cell.
+	 * @param margin Cells added on every side of the rectangle spanning both.
+	 * @return The window.
+	 */
+	public WorldWindow windowAround(Vector2 from, Vector2 to, int margin) {
+		if (margin < 0) {
+			throw new IllegalArgumentException("Margin must not be negative");
+		}
+
+		long x0 = Math.max(Integer.MIN_VALUE, (long) Math.min(from.x, to.x) - margin);
+		long y0 = Math.max(Integer.MIN_VALUE, (long) Math.min(from.y, to.y) - margin);
+		long x1 = Math.min(Integer.MAX_VALUE, (long) Math.max(from.x, to.x) + margin);
+		long y1 = Math.min(Integer.MAX_VALUE, (long) Math.max(from.y, to.y) + margin);
+		if (x1 - x0 + 1 > Integer.MAX_VALUE || y1 - y0 + 1 > Integer.MAX_VALUE) {
+			throw new IllegalArgumentException("Window around " + from + " and " + to + " does not fit an int index");
+		}
+		return window((int) x0, (int) y0, (int) (x1 - x0 + 1), (int) (y1 - y0 + 1));
+	}
+
+	/**
+	 * Returns a chunk, generating it if it was never generated or was evicted.
+	 *
+	 * @param cx The x coordinate of the chunk.
+	 * @param cy The y coordinate of the chunk.
+	 * @return The chunk.
+	 */
+	Chunk chunk(int cx, int cy) {
+		Long key = ((long) cy << 32) | (cx & 0xFFFFFFFFL);
+		ChunkReference reference = chunks.get(key);
+		Chunk chunk = reference == null ? null : reference.get();
+		if (chunk != null)
+			return chunk;
+
+		dropEvicted();
+
+		// Two threads may generate the same chunk at once, and get the same cells
+		chunk = generate(cx, cy);
+		chunks.put(key, new ChunkReference(key, chunk, evicted));
+		return chunk;
+	}
+
+	// Removes the map entries of chunks the garbage collector evicted.
+	private void dropEvicted() {
+		ChunkReference reference;
+		while ((reference = (ChunkReference) evicted.poll()) != null) {
+			chunks.remove(reference.key, reference);
+		}
+	}
+
+	private Chunk generate(int cx, int cy) {
+		if (maze.getSeed() != seed) {
+			throw new IllegalStateException("The seed of " + maze + " changed since the world was created");
+		}
+
+		long[] passable = new long[CHUNK_SIZE];
+		byte[] costs = null;
+		Vector2 position = new Vector2();
+		for (int y = 0; y < CHUNK_SIZE; y++) {
+			position.y = (cy << CHUNK_SHIFT) + y;
+			long row = 0;
+			for (int x = 0; x < CHUNK_SIZE; x++) {
+				position.x = (cx << CHUNK_SHIFT) + x;
+				// IsWall is true for the cells a maze leaves open
+				if (maze.IsWall(position))
+					row |= 1L << x;
+
+				int cost = maze.Cost(position);
+				if (cost != 1 && costs == null) {
+					costs = new byte[CHUNK_SIZE * CHUNK_SIZE];
+					Arrays.fill(costs, 0, x + y * CHUNK_SIZE, (byte) 1);
+				}
+				if (costs != null)
+					costs[x + y * CHUNK_SIZE] = (byte) cost;
+			}
+			passable[y] = row;
+		}
+
+		generated.incrementAndGet();
+		return new Chunk(passable, costs);
+	}
+
+	/**
+	 * @return Number of chunks held in memory.
+	 */
+	public int getLoadedChunks() {
+		dropEvicted();
+		return chunks.size();
+	}
+
+	/**
+	 * @return Number of chunks generated so far, counting those generated
+	 *         again after they were evicted.
+	 */
+	public long getGeneratedChunks() {
+		return generated.get();
+	}
+
+	/**
+	 * @return The maze the world is generated from.
+	 */
+	public Maze getMaze() {
+		return maze;
+	}
+
+	/**
+	 * @return The seed the world is generated from.
+	 */
+	public long getSeed() {
+		return seed;
+	}
+
+	/** The cells of one chunk, never changed once generated. */
+	static final class Chunk {
+
+		/** One long per row of the chunk, bit x set when the cell can be walked on. */
+		final long[] passable;
+
+		/** Cost of each cell as an unsigned byte, or null if every cell costs 1. */
+		final byte[] costs;
+
+		Chunk(long[] passable, byte[] costs) {
+			this.passable = passable;
+			this.costs = costs;
+		}
+
+		boolean isPassable(int x, int y) {
+			return (passable[y] & (1L << x)) != 0;
+		}
+
+		int getCost(int x, int y) {
+			return costs == null ? 1 : costs[x + y * CHUNK_SIZE] & 0xFF;
+		}
+	}
+
+	/** A soft reference to a chunk that remembers its key in the map. */
+	private static final class ChunkReference extends SoftReference<Chunk> {
+
+		final Long key;
+
+		ChunkReference(Long key, Chunk chunk, ReferenceQueue<Chunk> queue) {
+			super(chunk, queue);
+			this.key = key;
+		}
+	}
+}
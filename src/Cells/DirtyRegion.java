@@ -0,0 +1,176 @@
+package Cells;
+
+import java.awt.Rectangle;
+
+/**
+ * A few rectangles covering a set of changed cells, in grid coordinates.
+ * <p>
+ * The grid grows a region every time one of its cells changes, and the game
+ * loop takes it once per frame to repaint only the parts of the window that
+ * show those cells. A cell next to a rectangle grows it, and a cell far from
+ * all of them starts a new one, so a click in one corner and the search front
+ * in the other are repainted as two small rectangles rather than the whole
+ * grid. Once {@link #MAX_RECTANGLES} are in use, a new cell grows whichever
+ * rectangle it adds the fewest cells to.
+ * </p>
+ * Cells are added from the game loop and from click handlers on the event
+ * thread, so every method is synchronized.
+ */
+public class DirtyRegion {
+
+	/** Most rectangles kept before they are grown to take in new cells. */
+	public static final int MAX_RECTANGLES = 8;
+
+	/** Most cells a rectangle grows by to take in a cell, rather than a new one being started. */
+	private static final long MERGE_CELLS = 64;
+
+	private final int[] minX = new int[MAX_RECTANGLES];
+	private final int[] minY = new int[MAX_RECTANGLES];
+	private final int[] maxX = new int[MAX_RECTANGLES];
+	private final int[] maxY = new int[MAX_RECTANGLES];
+
+	/** Number of rectangles in use. */
+	private int count;
+
+	/** Rectangle the last cell went into, checked first. */
+	private int last;
+
+	/**
+	 * Creates an empty region.
+	 */
+	public DirtyRegion() {
+		clear();
+	}
+
+	/**
+	 * Grows the region to include a cell.
+	 *
+	 * @param x The x coordinate (row) of the cell.
+	 * @param y The y coordinate (column) of the cell.
+	 */
+	public synchronized void add(int x, int y) {
+		if (count > 0 && contains(last, x, y))
+			return;
+		add(x, y, x, y);
+	}
+
+	/**
+	 * Grows the region to include a rectangle of cells.
+	 *
+	 * @param x0 The x coordinate of the first cell.
+	 * @param y0 The y coordinate of the first cell.
+	 * @param x1 The x coordinate of the last cell, at least x0.
+	 * @param y1 The y coordinate of the last cell, at least y0.
+	 */
+	public synchronized void add(int x0, int y0, int x1, int y1) {
+		// The rectangle that grows the least to take the new one in
+		int best = -1;
+		long bestGrowth = Long.MAX_VALUE;
+		for (int i = 0; i < count; i++) {
+			long growth = growth(i, x0, y0, x1, y1);
+			if (growth < bestGrowth) {
+				best = i;
+				bestGrowth = growth;
+			}
+		}
+
+		if (best == -1 || (bestGrowth > MERGE_CELLS && count < MAX_RECTANGLES)) {
+			best = count++;
+			minX[best] = x0;
+			minY[best] = y0;
+			maxX[best] = x1;
+			maxY[best] = y1;
+		} else {
+			minX[best] = Math.min(minX[best], x0);
+			minY[best] = Math.min(minY[best], y0);
+			maxX[best] = Math.max(maxX[best], x1);
+			maxY[best] = Math.max(maxY[best], y1);
+		}
+		last = best;
+	}
+
+	private boolean contains(int i, int x, int y) {
+		return minX[i] <= x && x <= maxX[i] && minY[i] <= y && y <= maxY[i];
+	}
+
+	// Cells a rectangle would gain by growing to include another, beyond those of the other.
+	private long growth(int i, int x0, int y0, int x1, int y1) {
+		long width = Math.max(maxX[i], x1) - (long) Math.min(minX[i], x0) + 1;
+		long height = Math.max(maxY[i], y1) - (long) Math.min(minY[i], y0) + 1;
+		return width * height - area(i) - (x1 - (long) x0 + 1) * (y1 - (long) y0 + 1);
+	}
+
+	private long area(int i) {
+		return (maxX[i] - (long) minX[i] + 1) * (maxY[i] - (long) minY[i] + 1);
+	}
+
+	/**
+	 * Grows the region to include every cell of a grid, as one rectangle.
+	 *
+	 * @param rows Number of cells along the x axis.
+	 * @param cols Number of cells along the y axis.
+	 */
+	public synchronized void addAll(int rows, int cols) {
+		count = 1;
+		last = 0;
+		minX[0] = 0;
+		minY[0] = 0;
+		maxX[0] = rows - 1;
+		maxY[0] = cols - 1;
+	}
+
+	/**
+	 * @return True if no cell has been added since the region was last cleared.
+	 */
+	public synchronized boolean isEmpty() {
+		return count == 0;
+	}
+
+	/**
+	 * Empties the region.
+	 */
+	public synchronized void clear() {
+		count = 0;
+		last = 0;
+	}
+
+	/**
+	 * Converts the bounding box of the region to screen coordinates.
+	 *
+	 * @param cellWidth  Width of a cell in pixels.
+	 * @param cellHeight Height of a cell in pixels.
+	 * @return The pixels covered by the region, or null if it is empty.
+	 */
+	public synchronized Rectangle toScreen(int cellWidth, int cellHeight) {
+		if (isEmpty())
+			return null;
+
+		int x0 = minX[0], y0 = minY[0], x1 = maxX[0], y1 = maxY[0];
+		for (int i = 1; i < count; i++) {
+			x0 = Math.min(x0, minX[i]);
+			y0 = Math.min(y0, minY[i]);
+			x1 = Math.max(x1, maxX[i]);
+			y1 = Math.max(y1, maxY[i]);
+		}
+		return new Rectangle(x0 * cellWidth, y0 * cellHeight, (x1 - x0 + 1) * cellWidth, (y1 - y0 + 1) * cellHeight);
+	}
+
+	/**
+	 * Converts each rectangle of the region to screen coordinates and empties
+	 * it.
+	 *
+	 * @param cellWidth  Width of a cell in pixels.
+	 * @param cellHeight Height of a cell in pixels.
+	 * @return The pixels covered by each rectangle, empty if the region was.
+	 */
+	public synchronized Rectangle[] take(int cellWidth, int cellHeight) {
+		Rectangle[] rectangles = new Rectangle[count];
+		for (int i = 0; i < count; i++) {
+			rectangles[i] = new Rectangle(minX[i] * cellWidth, minY[i] * cellHeight,
+					(maxX[i] - minX[i] + 1) * cellWidth, (maxY[i] - minY[i] + 1) * cellHeight);
+		}
+		clear();
+		return rectangles;
+	}
+
+}
@@ -0,0 +1,115 @@
+package Cells;
+
+import java.util.Arrays;
+
+/**
+ * An immutable snapshot of which cells of a {@link Grid} can be walked on.
+ * <p>
+ * Passability is packed into a bitset, one bit per cell, and terrain costs
+ * into a byte per cell when any cell costs more than 1. The snapshot never
+ * changes after construction, so any number of threads can search it at the
+ * same time without locking, while the live grid keeps being edited by the
+ * game.
+ * </p>
+ */
+public final class FrozenGrid implements GridMap {
+
+	/** Number of cells along the x axis. */
+	private final int rows;
+	/** Number of cells along the y axis. */
+	private final int cols;
+
+	/** One bit per cell, set when the cell can be walked on. */
+	private final long[] passable;
+
+	/** Cost of each cell as an unsigned byte, or null if every cell costs 1. */
+	private final byte[] costs;
+
+	/** Lowest cost of any cell. */
+	private final int minCost;
+
+	/**
+	 * Takes a snapshot of any grid.
+	 *
+	 * @param map The grid to copy.
+	 */
+	public FrozenGrid(GridMap map) {
+		this.rows = map.getRows();
+		this.cols = map.getCols();
+
+		int size = map.size();
+		long[] bits = new long[(size + 63) >>> 6];
+		for (int index = 0; index < size; index++) {
+			if (map.isPassable(index))
+				bits[index >>> 6] |= 1L << index;
+		}
+		this.passable = bits;
+
+		byte[] copied = null;
+		for (int index = 0; index < size; index++) {
+			int cost = map.getCost(index);
+			if (cost != 1 && copied == null) {
+				copied = new byte[size];
+				Arrays.fill(copied, 0, index, (byte) 1);
+			}
+			if (copied != null)
+				copied[index] = (byte) cost;
+		}
+		this.costs = copied;
+		this.minCost = map.getMinCost();
+	}
+
+	@Override
+	public int getRows() {
+		return rows;
+	}
+
+	@Override
+	public int getCols() {
+		return cols;
+	}
+
+	@Override
+	public boolean isPassable(int index) {
+		return (passable[index >>> 6] & (1L << index)) != 0;
+	}
+
+	@Override
+	public int getCost(int index) {
+		return costs == null ? 1 : costs[index] & 0xFF;
+	}
+
+	@Override
+	public int getMinCost() {
+		return minCost;
+	}
+
+	@Override
+	public void copyPassable(long[] bits) {
+		System.arraycopy(passable, 0, bits, 0, passable.length);
+	}
+
+	/**
+	 * Checks whether a grid still holds the cells of this snapshot, as when the
+	 * same maze was generated again.
+	 *
+	 * @param map The grid to compare.
+	 * @return True if the grid has the same size, walls and costs.
+	 */
+	public boolean matches(GridMap map) {
+		if (map.getRows() != rows || map.getCols() != cols || map.getMinCost() != minCost)
+			return false;
+
+		long[] bits = new long[passable.length];
+		map.copyPassable(bits);
+		if (!Arrays.equals(bits, passable))
+			return false;
+
+		for (int index = 0; index < map.size(); index++) {
+			if (map.getCost(index) != getCost(index))
+				return false;
+		}
+		return true;
+	}
+
+}
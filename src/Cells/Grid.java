@@ -0,0 +1,400 @@
+package Cells;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Dense, row-major storage for every cell of the pathfinding grid.
+ * <p>
+ * Instead of one object per cell, the grid keeps a handful of primitive
+ * planes that are all indexed by {@code row + col * rows}:
+ * - a byte plane holding the cell type
+ * - a byte plane holding the terrain cost of each cell, only allocated once a
+ * cell costs more than 1
+ * - an int plane holding the step at which each cell was explored
+ * - a bit plane marking the cells on the fastest path
+ * - a bit plane marking the cells selected for developer inspection
+ * </p>
+ * A {@link Cell} is only a lightweight view over one index of this store.
+ * Every change to a cell is recorded in a {@link DirtyRegion}, so the window
+ * only has to repaint the cells that actually changed, and every change to a
+ * type or a cost moves the grid on to a new {@link #getVersion() version}.
+ */
+public class Grid implements GridMap {
+
+	/** Type value for an open cell. */
+	public static final byte PATH = 0;
+	/** Type value for a blocked cell. */
+	public static final byte WALL = 1;
+	/** Type value for the starting cell. */
+	public static final byte START = 2;
+	/** Type value for the ending cell. */
+	public static final byte END = 3;
+
+	/** Highest terrain cost a cell can have. */
+	public static final int MAX_COST = 255;
+
+	/** Explored-step value for a cell that has not been explored yet. */
+	public static final int UNEXPLORED = -1;
+
+	/** Number of cells along the x axis. */
+	private final int rows;
+	/** Number of cells along the y axis. */
+	private final int cols;
+
+	/** Type of each cell. */
+	private final byte[] types;
+	/** Terrain cost of each cell as an unsigned byte, or null while all cost 1. */
+	private byte[] costs;
+	/** Number of cells of each cost, while {@link #costs} exists. */
+	private int[] costCounts;
+	/** Lowest cost of any cell. */
+	private int minCost = 1;
+	/** Algorithm step at which each cell was explored. */
+	private final int[] exploredSteps;
+	/** Bitset of the cells that are part of the fastest path. */
+	private final long[] fastestPath;
+	/** Bitset of the cells toggled into developer inspection. */
+	private final long[] selected;
+
+	/** Cells changed since the window last repainted them. */
+	private final DirtyRegion dirty = new DirtyRegion();
+	/** Cells explored since the search was last cleared. */
+	private final DirtyRegion explored = new DirtyRegion();
+	/** Latest step at which a cell was explored. */
+	private int lastExploredStep = UNEXPLORED;
+	/** Changes to the types and costs so far. Atomic, as runs may be set in parallel. */
+	private final AtomicLong version = new AtomicLong();
+
+	/**
+	 * Allocates a grid of the given dimensions with every cell set to a path.
+	 *
+	 * @param rows Number of cells along the x axis.
+	 * @param cols Number of cells along the y axis.
+	 */
+	public Grid(int rows, int cols) {
+		if (rows <= 0 || cols <= 0) {
+			throw new IllegalArgumentException("Grid dimensions must be positive.");
+		}
+
+		long size = (long) rows * cols;
+		if (size > Integer.MAX_VALUE) {
+			throw new IllegalArgumentException("Grid of " + rows + "x" + cols + " does not fit an int index.");
+		}
+
+		this.rows = rows;
+		this.cols = cols;
+
+		this.types = new byte[(int) size];
+		this.exploredSteps = new int[(int) size];
+		this.fastestPath = new long[bitWords((int) size)];
+		this.selected = new long[bitWords((int) size)];
+
+		clearSearch();
+	}
+
+	private static int bitWords(int bits) {
+		return (bits + 63) >>> 6;
+	}
+
+	/**
+	 * Clears the explored and fastest path planes, leaving cell types intact.
+	 */
+	public void clearSearch() {
+		Arrays.fill(exploredSteps, UNEXPLORED);
+		Arrays.fill(fastestPath, 0L);
+
+		explored.clear();
+		lastExploredStep = UNEXPLORED;
+		dirty.addAll(rows, cols);
+	}
+
+	/**
+	 * @return The cells changed since the window last repainted them.
+	 */
+	public DirtyRegion getDirty() {
+		return dirty;
+	}
+
+	/**
+	 * @return The cells explored since the search was last cleared, whose
+	 *         colors fade as the algorithm steps on.
+	 */
+	public DirtyRegion getExplored() {
+		return explored;
+	}
+
+	/**
+	 * @return The latest step at which a cell was explored, or
+	 *         {@link #UNEXPLORED} if none was.
+	 */
+	public int getLastExploredStep() {
+		return lastExploredStep;
+	}
+
+	private void markDirty(int index) {
+		dirty.add(index % rows, index / rows);
+	}
+
+	/**
+	 * @return A number that changes whenever the type or cost of a cell does.
+	 *         Exploring cells and marking the path leave it alone.
+	 */
+	@Override
+	public long getVersion() {
+		return version.get();
+	}
+
+	@Override
+	public int getRows() {
+		return rows;
+	}
+
+	@Override
+	public int getCols() {
+		return cols;
+	}
+
+	@Override
+	public int size() {
+		return types.length;
+	}
+
+	/**
+	 * Takes an immutable snapshot of which cells can be walked on, safe to share
+	 * between threads running concurrent queries.
+	 *
+	 * @return A snapshot of the current walls.
+	 */
+	public FrozenGrid snapshot() {
+		return new FrozenGrid(this);
+	}
+
+	public byte getType(int index) {
+		return types[index];
+	}
+
+	public void setType(int index, byte type) {
+		if (types[index] == type)
+			return;
+
+		types[index] = type;
+		version.incrementAndGet();
+		markDirty(index);
+	}
+
+	/**
+	 * Sets every cell to a wall or a path from a bitset in one pass, replacing
+	 * the start and end cells too, and marks the whole grid dirty.
+	 *
+	 * @param bits      One bit per cell, indexed like the grid.
+	 * @param setIsPath True if a set bit makes a path, false if it makes a wall.
+	 */
+	public void setTypes(long[] bits, boolean setIsPath) {
+		setTypes(0, bits, types.length, setIsPath);
+	}
+
+	/**
+	 * Sets a run of consecutive cells to walls or paths from a bitset, and marks
+	 * the rows they lie on dirty. Runs that do not overlap may be set from
+	 * different threads at once.
+	 *
+	 * @param from      The index of the first cell.
+	 * @param bits      One bit per cell of the run, bit 0 for the first cell.
+	 * @param count     The number of cells in the run.
+	 * @param setIsPath True if a set bit makes a path, false if it makes a wall.
+	 */
+	public void setTypes(int from, long[] bits, int count, boolean setIsPath) {
+		if (count <= 0)
+			return;
+
+		// PATH is 0 and WALL is 1, so the type is the bit itself or its inverse
+		int flip = setIsPath ? 1 : 0;
+		int changed = 0;
+		for (int i = 0; i < count; i++) {
+			byte type = (byte) (((bits[i >>> 6] >>> i) & 1) ^ flip);
+			changed |= types[from + i] ^ type;
+			types[from + i] = type;
+		}
+		if (changed != 0)
+			version.incrementAndGet();
+		dirty.add(0, from / rows, rows - 1, (from + count - 1) / rows);
+	}
+
+	@Override
+	public int getCost(int index) {
+		return costs == null ? 1 : costs[index] & 0xFF;
+	}
+
+	/**
+	 * Sets the cost of stepping onto a cell.
+	 *
+	 * @param index A cell index.
+	 * @param cost  The cost, from 1 to {@link #MAX_COST}.
+	 */
+	public void setCost(int index, int cost) {
+		if (cost < 1 || cost > MAX_COST) {
+			throw new IllegalArgumentException("Cost " + cost + " is outside 1.." + MAX_COST);
+		}
+
+		if (costs == null) {
+			if (cost == 1)
+				return;
+			costs = new byte[types.length];
+			Arrays.fill(costs, (byte) 1);
+			costCounts = new int[MAX_COST + 1];
+			costCounts[1] = types.length;
+		}
+
+		int old = costs[index] & 0xFF;
+		if (old == cost)
+			return;
+
+		costs[index] = (byte) cost;
+		costCounts[old]--;
+		costCounts[cost]++;
+		version.incrementAndGet();
+
+		if (cost < minCost) {
+			minCost = cost;
+		} else if (old == minCost && costCounts[old] == 0) {
+			while (costCounts[minCost] == 0)
+				minCost++;
+		}
+
+		markDirty(index);
+	}
+
+	/**
+	 * Sets the cost of every cell in one pass, with a single version change,
+	 * and marks the whole grid dirty.
+	 *
+	 * @param plane The cost of each cell as an unsigned byte, from 1 to
+	 *              {@link #MAX_COST}, indexed like the grid. The grid keeps
+	 *              the array, so it must not be changed afterwards.
+	 */
+	public void setCosts(byte[] plane) {
+		if (plane.length != types.length) {
+			throw new IllegalArgumentException("Cost plane of " + plane.length + " cells for a grid of " + types.length);
+		}
+
+		int[] counts = new int[MAX_COST + 1];
+		for (byte cost : plane) {
+			counts[cost & 0xFF]++;
+		}
+		if (counts[0] != 0) {
+			throw new IllegalArgumentException("Cost 0 is outside 1.." + MAX_COST);
+		}
+
+		if (counts[1] == types.length) {
+			clearCosts();
+			return;
+		}
+
+		int lowest = 1;
+		while (counts[lowest] == 0)
+			lowest++;
+
+		costs = plane;
+		costCounts = counts;
+		minCost = lowest;
+		version.incrementAndGet();
+		dirty.addAll(rows, cols);
+	}
+
+	/**
+	 * Sets every cell back to cost 1 and marks the whole grid dirty.
+	 */
+	public void clearCosts() {
+		if (costs == null)
+			return;
+
+		costs = null;
+		costCounts = null;
+		minCost = 1;
+		version.incrementAndGet();
+		dirty.addAll(rows, cols);
+	}
+
+	@Override
+	public int getMinCost() {
+		return minCost;
+	}
+
+	/**
+	 * @param index A cell index.
+	 * @return True if the cell can be walked on (anything but a wall).
+	 */
+	@Override
+	public boolean isPassable(int index) {
+		return types[index] != WALL;
+	}
+
+	public int getExploredStep(int index) {
+		return exploredSteps[index];
+	}
+
+	/**
+	 * Records the step at which a cell was explored. Cells that were already
+	 * explored keep their original step.
+	 *
+	 * @param index A cell index.
+	 * @param step  The current algorithm step.
+	 */
+	public void markExplored(int index, int step) {
+		if (exploredSteps[index] != UNEXPLORED)
+			return;
+
+		exploredSteps[index] = step;
+		explored.add(index % rows, index / rows);
+		if (step > lastExploredStep)
+			lastExploredStep = step;
+		markDirty(index);
+	}
+
+	public boolean isExplored(int index) {
+		return exploredSteps[index] != UNEXPLORED;
+	}
+
+	public void markFastestPath(int index) {
+		fastestPath[index >>> 6] |= 1L << index;
+		markDirty(index);
+	}
+
+	public boolean isFastestPath(int index) {
+		return (fastestPath[index >>> 6] & (1L << index)) != 0;
+	}
+
+	public void toggleSelected(int index) {
+		selected[index >>> 6] ^= 1L << index;
+		markDirty(index);
+	}
+
+	public boolean isSelected(int index) {
+		return (selected[index >>> 6] & (1L << index)) != 0;
+	}
+
+	/**
+	 * Finds the first selected cell in a run of indices, a word of the bit plane
+	 * at a time.
+	 *
+	 * @param from The first index of the run.
+	 * @param to   The last index of the run.
+	 * @return The index of the selected cell, or -1 if there is none.
+	 */
+	public int nextSelected(int from, int to) {
+		if (from > to)
+			return -1;
+
+		int word = from >>> 6;
+		long bits = selected[word] & (-1L << from);
+		while (bits == 0) {
+			if (++word > to >>> 6)
+				return -1;
+			bits = selected[word];
+		}
+		int index = (word << 6) + Long.numberOfTrailingZeros(bits);
+		return index <= to ? index : -1;
+	}
+
+}
@@ -0,0 +1,122 @@
+package Cells;
+
+import java.util.Arrays;
+
+/**
+ * Read-only view of a rectangular cell grid, as seen by the pathfinders.
+ * <p>
+ * Cells are addressed by a single int index laid out row-major as
+ * {@code x + y * rows}. Implementations only need to say how big the grid is
+ * and which cells can be walked on; they do not need to know about rendering,
+ * the {@code Config} or any of the singletons.
+ * </p>
+ * Grids with terrain also give each cell a cost, paid when a path steps onto
+ * it. Searches that count steps, such as the flood fills and Jump Point
+ * Search, ignore the costs.
+ */
+public interface GridMap {
+
+	/**
+	 * @return Number of cells along the x axis.
+	 */
+	int getRows();
+
+	/**
+	 * @return Number of cells along the y axis.
+	 */
+	int getCols();
+
+	/**
+	 * @param index A cell index.
+	 * @return True if the cell can be walked on.
+	 */
+	boolean isPassable(int index);
+
+	/**
+	 * @param index A cell index.
+	 * @return The cost of stepping onto the cell, at least 1. Only meaningful
+	 *         for passable cells.
+	 */
+	default int getCost(int index) {
+		return 1;
+	}
+
+	/**
+	 * @return A lower bound on {@link #getCost(int)} over every cell, which
+	 *         scales the heuristics so they never overestimate.
+	 */
+	default int getMinCost() {
+		return 1;
+	}
+
+	/**
+	 * @return A number that changes whenever a cell becomes passable or
+	 *         impassable or its cost changes, so results computed for one
+	 *         version can be kept until the next. Maps that never change may
+	 *         always return 0.
+	 */
+	default long getVersion() {
+		return 0;
+	}
+
+	/**
+	 * Packs the passability of every cell into a bitset, one bit per cell index.
+	 * Bits past the last cell are cleared.
+	 *
+	 * @param bits The words to fill, at least {@code (size() + 63) / 64} long.
+	 */
+	default void copyPassable(long[] bits) {
+		int size = size();
+		int words = (size + 63) >>> 6;
+		Arrays.fill(bits, 0, words, 0L);
+		for (int index = 0; index < size; index++) {
+			if (isPassable(index))
+				bits[index >>> 6] |= 1L << index;
+		}
+	}
+
+	/**
+	 * @return The total number of cells in the grid.
+	 */
+	default int size() {
+		return getRows() * getCols();
+	}
+
+	/**
+	 * @param x The x coordinate (row).
+	 * @param y The y coordinate (column).
+	 * @return True if the coordinate lies within the grid.
+	 */
+	default boolean inBounds(int x, int y) {
+		return 0 <= x && x < getRows() && 0 <= y && y < getCols();
+	}
+
+	/**
+	 * Converts a grid coordinate into a cell index.
+	 *
+	 * @param x The x coordinate (row).
+	 * @param y The y coordinate (column).
+	 * @return The index of the cell, or -1 if the coordinate is out of bounds.
+	 */
+	default int indexOf(int x, int y) {
+		if (!inBounds(x, y))
+			return -1;
+		return x + y * getRows();
+	}
+
+	/**
+	 * @param index A cell index.
+	 * @return The x coordinate (row) of the cell.
+	 */
+	default int getX(int index) {
+		return index % getRows();
+	}
+
+	/**
+	 * @param index A cell index.
+	 * @return The y coordinate (column) of the cell.
+	 */
+	default int getY(int index) {
+		return index / getRows();
+	}
+}
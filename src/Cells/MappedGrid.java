@@ -0,0 +1,255 @@
+package Cells;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A read-only grid backed by a map file, mapped into memory rather than read.
+ * <p>
+ * The file holds a fixed header followed by the cell planes:
+ * - a 64 byte header of big-endian values: the magic number "GRD1", the rows
+ * and columns, the start and end cell indices (-1 if there are none), the
+ * lowest cost, the seed of the maze the map came from and a flags word
+ * - a bit plane with one bit per cell, set when the cell can be walked on,
+ * packed into little-endian 64-bit words like {@link GridMap#copyPassable}
+ * - a byte plane with the cost of each cell, only present if some cell costs
+ * more than 1
+ * </p>
+ * Opening a map maps its planes with {@link FileChannel#map}, so it takes the
+ * same time however large the map is and the operating system pages cells in
+ * as the searches touch them. The searches read the walls straight from the
+ * mapped planes, without copying them into a {@link Grid} or creating a
+ * {@link Cell} per cell. Like a {@link FrozenGrid}, the map never changes
+ * once opened, so any number of threads can search it at the same time.
+ */
+public final class MappedGrid implements GridMap {
+
+	/** First int of a map file, "GRD1". */
+	private static final int MAGIC = 0x47524431;
+
+	/** Size of the header, which keeps the planes aligned to 64 bytes. */
+	private static final int HEADER_BYTES = 64;
+
+	/** Flag set when the file holds a cost plane. */
+	private static final int FLAG_COSTS = 1;
+
+	private final int rows;
+	private final int cols;
+	private final int start;
+	private final int end;
+	private final int minCost;
+	private final long seed;
+
+	/** One bit per cell, set when the cell can be walked on. */
+	private final MappedByteBuffer passable;
+
+	/** Cost of each cell as an unsigned byte, or null if every cell costs 1. */
+	private final MappedByteBuffer costs;
+
+	private MappedGrid(int rows, int cols, int start, int end, int minCost, long seed, MappedByteBuffer passable,
+			MappedByteBuffer costs) {
+		this.rows = rows;
+		this.cols = cols;
+		this.start = start;
+		this.end = end;
+		this.minCost = minCost;
+		this.seed = seed;
+		this.passable = passable;
+		this.costs = costs;
+	}
+
+	/**
+	 * Maps a map file into memory.
+	 *
+	 * @param file The file to open.
+	 * @return The map, readable as soon as this returns.
+	 * @throws IOException If the file cannot be read or is not a valid map.
+	 */
+	public static MappedGrid open(Path file) throws IOException {
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+			while (header.hasRemaining()) {
+				if (channel.read(header) < 0)
+					throw new IOException(file + " is not a map file");
+			}
+			header.flip();
+			if (header.getInt() != MAGIC)
+				throw new IOException(file + " is not a map file");
+
+			int rows = header.getInt(), cols = header.getInt();
+			int start = header.getInt(), end = header.getInt();
+			int minCost = header.getInt();
+			long seed = header.getLong();
+			int flags = header.getInt();
+
+			long size = (long) rows * cols;
+			if (rows <= 0 || cols <= 0 || size > Integer.MAX_VALUE)
+				throw new IOException(file + " holds a map of " + rows + "x" + cols + " cells");
+			if (start < -1 || start >= size || end < -1 || end >= size)
+				throw new IOException(file + " holds a start or end outside the map");
+			if (minCost < 1 || minCost > Grid.MAX_COST)
+				throw new IOException(file + " holds a corrupt lowest cost");
+
+			long passableBytes = passableBytes((int) size);
+			long costBytes = (flags & FLAG_COSTS) != 0 ? size : 0;
+			if (channel.size() < HEADER_BYTES + passableBytes + costBytes)
+				throw new IOException(file + " ends early");
+
+			// Mappings stay valid after the channel is closed
+			MappedByteBuffer passable = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_BYTES, passableBytes);
+			MappedByteBuffer costs = costBytes == 0 ? null
+					: channel.map(FileChannel.MapMode.READ_ONLY, HEADER_BYTES + passableBytes, costBytes);
+			return new MappedGrid(rows, cols, start, end, minCost, seed, passable, costs);
+		}
+	}
+
+	/**
+	 * Writes a map to a file that {@link #open(Path)} can map.
+	 *
+	 * @param file  The file to write, replaced if it exists.
+	 * @param map   The map to write.
+	 * @param start Index of the start cell, or -1 for none.
+	 * @param end   Index of the end cell, or -1 for none.
+	 * @param seed  Seed of the maze the map came from.
+	 * @throws IOException If the file cannot be written.
+	 */
+	public static void save(Path file, GridMap map, int start, int end, long seed) throws IOException {
+		int size = map.size();
+		if (start < -1 || start >= size || end < -1 || end >= size) {
+			throw new IllegalArgumentException("Start " + start + " or end " + end + " is outside the map");
+		}
+
+		boolean hasCosts = false;
+		for (int index = 0; index < size && !hasCosts; index++) {
+			hasCosts = map.getCost(index) != 1;
+		}
+
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING)) {
+			ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+			header.putInt(MAGIC).putInt(map.getRows()).putInt(map.getCols()).putInt(start).putInt(end)
+					.putInt(map.getMinCost()).putLong(seed).putInt(hasCosts ? FLAG_COSTS : 0);
+			header.clear();
+			writeFully(channel, header);
+
+			ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 20).order(ByteOrder.LITTLE_ENDIAN);
+			for (int from = 0; from < size; from += 64) {
+				long word = 0;
+				for (int bit = 0; bit < 64 && from + bit < size; bit++) {
+					if (map.isPassable(from + bit))
+						word |= 1L << bit;
+				}
+				if (!buffer.hasRemaining())
+					flush(channel, buffer);
+				buffer.putLong(word);
+			}
+			flush(channel, buffer);
+
+			if (!hasCosts)
+				return;
+			for (int index = 0; index < size; index++) {
+				if (!buffer.hasRemaining())
+					flush(channel, buffer);
+				buffer.put((byte) map.getCost(index));
+			}
+			flush(channel, buffer);
+		}
+	}
+
+	private static long passableBytes(int size) {
+		return 8L * ((size + 63) >>> 6);
+	}
+
+	private static void flush(FileChannel channel, ByteBuffer buffer) throws IOException {
+		buffer.flip();
+		writeFully(channel, buffer);
+		buffer.clear();
+	}
+
+	private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+		while (buffer.hasRemaining()) {
+			channel.write(buffer);
+		}
+	}
+
+	/**
+	 * Copies the map into a new grid that can be edited and drawn, with the
+	 * start and end cells placed on it.
+	 *
+	 * @return The grid.
+	 */
+	public Grid toGrid() {
+		Grid grid = new Grid(rows, cols);
+		long[] bits = new long[(size() + 63) >>> 6];
+		copyPassable(bits);
+		grid.setTypes(bits, true);
+
+		if (costs != null) {
+			byte[] plane = new byte[size()];
+			costs.duplicate().get(plane);
+			grid.setCosts(plane);
+		}
+		if (start != -1)
+			grid.setType(start, Grid.START);
+		if (end != -1 && end != start)
+			grid.setType(end, Grid.END);
+		return grid;
+	}
+
+	@Override
+	public int getRows() {
+		return rows;
+	}
+
+	@Override
+	public int getCols() {
+		return cols;
+	}
+
+	@Override
+	public boolean isPassable(int index) {
+		return (passable.get(index >>> 3) & (1 << (index & 7))) != 0;
+	}
+
+	@Override
+	public int getCost(int index) {
+		return costs == null ? 1 : costs.get(index) & 0xFF;
+	}
+
+	@Override
+	public int getMinCost() {
+		return minCost;
+	}
+
+	@Override
+	public void copyPassable(long[] bits) {
+		passable.duplicate().order(ByteOrder.LITTLE_ENDIAN).asLongBuffer().get(bits, 0, (size() + 63) >>> 6);
+	}
+
+	/**
+	 * @return Index of the start cell, or -1 if the map has none.
+	 */
+	public int getStart() {
+		return start;
+	}
+
+	/**
+	 * @return Index of the end cell, or -1 if the map has none.
+	 */
+	public int getEnd() {
+		return end;
+	}
+
+	/**
+	 * @return Seed of the maze the map came from.
+	 */
+	public long getSeed() {
+		return seed;
+	}
+
+}
@@ -0,0 +1,187 @@
+package Cells.Maze;
+
+import java.awt.Color;
+import java.awt.Graphics;
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+import Cells.Grid;
+import Driver.Config;
+import Utilities.Vector2;
+
+/**
+ * Eller is a maze generation algorithm that builds the maze one row at a time,
+ * remembering only the current row. See {@link EllerRowGenerator} for the
+ * algorithm itself.
+ *
+ * <p>
+ * In the game, each call to ComputeMaze produces one row of maze cells and the
+ * passages below it. The maze cells sit on the coordinates with the parity of
+ * the start cell, so the start is always on a path.
+ * </p>
+ *
+ * <p>
+ * Mazes bigger than the heap can be streamed straight to a
+ * {@link MazeRowWriter} with {@link #Stream}, or to a file with
+ * {@link #WriteToFile}, without ever building a Grid.
+ * </p>
+ */
+public class Eller extends Maze {
+
+    // One bit per cell, set once the cell has been carved into a path.
+    private long[] carved = new long[0];
+
+    private EllerRowGenerator generator;
+    private long[] row = new long[0];
+    private int rows, cols;
+
+    // The y coordinate of the last row produced.
+    private int lastRow = -1;
+
+    @Override
+    public void StartMaze() {
+        rows = Config.getNumCellRows();
+        cols = Config.getNumCellCols();
+
+        int words = (int) (((long) rows * cols + 63) >>> 6);
+        if (carved.length < words)
+            carved = new long[words];
+        else
+            Arrays.fill(carved, 0, words, 0L);
+
+        Vector2 startCell = Config.getStartCell();
+        generator = new EllerRowGenerator(rows, cols, Math.floorMod(startCell.x, 2), Math.floorMod(startCell.y, 2),
+                NewRandom());
+        row = new long[generator.rowWords()];
+        lastRow = -1;
+    }
+
+    // Produces one row of maze cells and the row of passages below it. Once
+    // every row is done, the maze is complete.
+    @Override
+    public void ComputeMaze() {
+        if (NextRow() && NextRow())
+            return;
+
+        if (lastRow == cols - 1) {
+            computationComplete = true;
+            ComputationCompleted();
+            if (Config.isDeveloperMode())
+                System.out.println("Maze Computation Complete");
+        }
+    }
+
+    @Override
+    protected void Generate() {
+        while (NextRow()) {
+        }
+    }
+
+    // Copies the next row from the generator into the carved bitset.
+    private boolean NextRow() {
+        int y = generator.nextRow(row);
+        if (y == -1)
+            return false;
+
+        long offset = (long) y * rows;
+        for (int word = 0; word < row.length; word++) {
+            long bits = row[word];
+            while (bits != 0) {
+                long index = offset + (word << 6) + Long.numberOfTrailingZeros(bits);
+                carved[(int) (index >>> 6)] |= 1L << index;
+                bits &= bits - 1;
+            }
+        }
+        lastRow = y;
+        return true;
+    }
+
+    @Override
+    public void WriteWalls(Grid grid) {
+        if (grid.getRows() != rows || grid.getCols() != cols) {
+            super.WriteWalls(grid);
+            return;
+        }
+        grid.setTypes(carved, true);
+    }
+
+    @Override
+    public boolean IsWall(Vector2 position) {
+        if (position.x < 0 || position.x >= rows || position.y < 0 || position.y >= cols)
+            return false;
+        int index = position.x + position.y * rows;
+        return (carved[index >>> 6] & (1L << index)) != 0;
+    }
+
+    @Override
+    public void DrawDebug(Graphics g) {
+
+        // Carved cells
+        g.setColor(Color.blue);
+        for (int y = 0; y <= lastRow; y++) {
+            for (int x = 0; x < rows; x++) {
+                if (IsWall(new Vector2(x, y)))
+                    g.drawRect(x * Config.getCellWidth(), y * Config.getCellHeight(),
+                            Config.getCellWidth(), Config.getCellHeight());
+            }
+        }
+
+        // The row being generated
+        g.setColor(Color.CYAN);
+        g.drawRect(0, (lastRow + 1) * Config.getCellHeight(), rows * Config.getCellWidth(), Config.getCellHeight());
+    }
+
+    /**
+     * Generates a maze row by row without keeping it, in memory proportional to
+     * its width only.
+     *
+     * @param rows   Number of cells along the x axis.
+     * @param cols   Number of cells along the y axis.
+     * @param seed   The seed of every random choice. The same seed and size
+     *               always give the same maze.
+     * @param writer Receives every row, top to bottom.
+     * @throws IOException If the writer fails.
+     */
+    public static void Stream(int rows, int cols, long seed, MazeRowWriter writer) throws IOException {
+        EllerRowGenerator generator = new EllerRowGenerator(rows, cols, 1, 1, new SplittableRandom(seed));
+        long[] row = new long[generator.rowWords()];
+
+        int y;
+        while ((y = generator.nextRow(row)) != -1) {
+            writer.writeRow(y, row);
+        }
+    }
+
+    /**
+     * Streams a maze to a file. The file holds the number of rows and columns
+     * as two big-endian ints, then every row top to bottom as
+     * {@code ceil(rows / 8)} bytes, where bit {@code x & 7} of byte
+     * {@code x >> 3} is set if the cell at {@code x} is a path.
+     *
+     * @param file   The file to write, replaced if it exists.
+     * @param rows   Number of cells along the x axis.
+     * @param cols   Number of cells along the y axis.
+     * @param seed   The seed of every random choice.
+     * @throws IOException If the file cannot be written.
+     */
+    public static void WriteToFile(Path file, int rows, int cols, long seed) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(file), 1 << 16))) {
+            out.writeInt(rows);
+            out.writeInt(cols);
+
+            byte[] bytes = new byte[(rows + 7) >>> 3];
+            Stream(rows, cols, seed, (y, row) -> {
+                for (int i = 0; i < bytes.length; i++) {
+                    bytes[i] = (byte) (row[i >>> 3] >>> ((i & 7) << 3));
+                }
+                out.write(bytes);
+            });
+        }
+    }
+}
@@ -0,0 +1,228 @@
+package Cells.Maze;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Produces an Eller's algorithm maze one row at a time, in O(width) memory.
+ *
+ * Logic/Progression:
+ * 1. Every cell of the current row that has no set yet gets a new set of its
+ * own.
+ * 2. Walking along the row, randomly join neighbouring cells that are in
+ * different sets, merging the sets.
+ * 3. For every set, randomly carve down from at least one of its cells. The
+ * cells below carry their set into the next row.
+ * 4. Repeat for every row. On the last row, join every pair of neighbouring
+ * cells still in different sets, so the whole maze is connected.
+ *
+ * <p>
+ * Like {@link RecursiveBacktracker}, the maze cells sit 2 apart, on the
+ * coordinates with the parity of the origin, with the walls between them
+ * carved into passages. Only the sets of the current row are remembered, and
+ * they are renumbered after every row so set labels stay below twice the
+ * width. The height of the maze therefore costs no memory at all.
+ * </p>
+ */
+public class EllerRowGenerator {
+
+    private final int rows;
+    private final int cols;
+    private final int originX;
+    private final int originY;
+
+    // Number of maze cells along each axis.
+    private final int width;
+    private final int height;
+
+    private final SplittableRandom random;
+
+    // Random bits drawn 64 at a time, for the coin flips.
+    private long randomBits;
+    private int randomBitsLeft;
+
+    // Set label of each cell of the current row, or -1 for none yet.
+    private final int[] sets;
+    // Union-find over the labels of the current row.
+    private final int[] parent;
+    // Per label: the number of cells, and which of them to carve down if none
+    // was chosen.
+    private final int[] counts;
+    private final int[] chosen;
+    private final boolean[] hasDown;
+
+    // Whether each cell is joined to its right neighbour, or carved down.
+    private final boolean[] joinRight;
+    private final boolean[] down;
+
+    // The y coordinate of the next row to produce.
+    private int y;
+
+    /**
+     * @param rows    Number of cells along the x axis.
+     * @param cols    Number of cells along the y axis.
+     * @param originX The x coordinate of the first maze cell, 0 or 1.
+     * @param originY The y coordinate of the first maze cell, 0 or 1.
+     * @param random  Source of the random choices.
+     */
+    public EllerRowGenerator(int rows, int cols, int originX, int originY, SplittableRandom random) {
+        if (rows <= 0 || cols <= 0) {
+            throw new IllegalArgumentException("Maze dimensions must be positive.");
+        }
+
+        this.rows = rows;
+        this.cols = cols;
+        this.originX = originX;
+        this.originY = originY;
+        this.width = rows > originX ? (rows - originX + 1) / 2 : 0;
+        this.height = cols > originY ? (cols - originY + 1) / 2 : 0;
+        this.random = random;
+
+        sets = new int[width];
+        Arrays.fill(sets, -1);
+        parent = new int[2 * width];
+        counts = new int[2 * width];
+        chosen = new int[2 * width];
+        hasDown = new boolean[2 * width];
+        joinRight = new boolean[width];
+        down = new boolean[width];
+    }
+
+    /**
+     * @return The number of longs a row passed to {@link #nextRow(long[])} needs.
+     */
+    public int rowWords() {
+        return (rows + 63) >>> 6;
+    }
+
+    /**
+     * Produces the next row of the maze.
+     *
+     * @param row Receives one bit per cell along the x axis, set for a path.
+     * @return The y coordinate of the row, or -1 once every row was produced.
+     */
+    public int nextRow(long[] row) {
+        if (y >= cols)
+            return -1;
+
+        Arrays.fill(row, 0, rowWords(), 0L);
+
+        int relative = y - originY;
+        if (relative >= 0 && relative < 2 * height) {
+            if ((relative & 1) == 0) {
+                computeRow(relative / 2 == height - 1);
+
+                // The cells, and the passages between joined neighbours
+                for (int i = 0; i < width; i++) {
+                    int x = originX + 2 * i;
+                    row[x >>> 6] |= 1L << x;
+                    if (i + 1 < width)
+                        row[(x + 1) >>> 6] |= (joinRight[i] ? 1L : 0L) << (x + 1);
+                }
+            } else {
+                // The passages down into the next row
+                for (int i = 0; i < width; i++) {
+                    int x = originX + 2 * i;
+                    row[x >>> 6] |= (down[i] ? 1L : 0L) << x;
+                }
+            }
+        }
+
+        return y++;
+    }
+
+    private void computeRow(boolean last) {
+        // Cells not carried down from the row above start a set of their own.
+        // Carried labels are below the width, so new ones never collide.
+        for (int i = 0; i < width; i++) {
+            if (sets[i] < 0)
+                sets[i] = width + i;
+        }
+        for (int label = 0; label < parent.length; label++) {
+            parent[label] = label;
+        }
+
+        // Join neighbours in different sets. After a join the left root is also
+        // the root of the right cell, so it carries over to the next pair.
+        int left = width > 0 ? find(sets[0]) : 0;
+        for (int i = 0; i + 1 < width; i++) {
+            int right = find(sets[i + 1]);
+            joinRight[i] = left != right && (last || nextBit());
+            if (joinRight[i])
+                parent[right] = left;
+            else
+                left = right;
+        }
+        if (width > 0)
+            joinRight[width - 1] = false;
+        for (int i = 0; i < width; i++) {
+            sets[i] = find(sets[i]);
+        }
+
+        if (last) {
+            Arrays.fill(down, false);
+            return;
+        }
+
+        // Carve down at random
+        Arrays.fill(counts, 0);
+        Arrays.fill(hasDown, false);
+        for (int i = 0; i < width; i++) {
+            int label = sets[i];
+            down[i] = nextBit();
+            hasDown[label] |= down[i];
+            counts[label]++;
+        }
+
+        // Every set must reach the next row, so a set that was never carved down
+        // is carved down from one of its cells picked at random
+        for (int i = 0; i < width; i++) {
+            int label = sets[i];
+            if (!hasDown[label] && counts[label] > 0) {
+                chosen[label] = random.nextInt(counts[label]);
+                counts[label] = 0;
+            }
+        }
+        for (int i = 0; i < width; i++) {
+            int label = sets[i];
+            if (!hasDown[label] && chosen[label]-- == 0) {
+                down[i] = true;
+                hasDown[label] = true;
+            }
+        }
+
+        // Carry the sets down, renumbered from 0
+        int[] renumbered = counts;
+        Arrays.fill(renumbered, -1);
+        int next = 0;
+        for (int i = 0; i < width; i++) {
+            if (!down[i]) {
+                sets[i] = -1;
+                continue;
+            }
+            int label = sets[i];
+            if (renumbered[label] < 0)
+                renumbered[label] = next++;
+            sets[i] = renumbered[label];
+        }
+    }
+
+    private boolean nextBit() {
+        if (randomBitsLeft == 0) {
+            randomBits = random.nextLong();
+            randomBitsLeft = 64;
+        }
+        randomBitsLeft--;
+        boolean bit = (randomBits & 1) != 0;
+        randomBits >>>= 1;
+        return bit;
+    }
+
+    private int find(int label) {
+        while (parent[label] != label) {
+            parent[label] = parent[parent[label]];
+            label = parent[label];
+        }
+        return label;
+    }
+}
@@ -1,30 +1,111 @@
 package Cells.Maze;
 
 import java.awt.Graphics;
+import java.util.SplittableRandom;
 
 import Cells.CellManager;
+import Cells.Grid;
 import Utilities.Vector2;
 
 public abstract class Maze {
 
+    // Draws the seeds of mazes that were not given one.
+    private static final SplittableRandom SEEDS = new SplittableRandom();
+
     public boolean computationComplete = false;
 
+    // Every random choice of the maze derives from this seed, so the same seed
+    // on the same grid always gives the same maze.
+    private long seed = SEEDS.nextLong();
+
+    // Whether the seed was set, rather than drawn anew on every reset.
+    private boolean fixedSeed = false;
+
     public void StartMaze() {
         System.out.println("Maze needs no setup");
     }
 
+    // One step of the computation. Only the developer mode visualisation steps
+    // through the maze, everything else uses GenerateMaze.
     public void ComputeMaze() {
         System.out.println("Maze needs no computation");
         computationComplete = true;
         ComputationCompleted();
     }
 
+    // Runs the rest of the computation in one go and writes the result into the
+    // grid once, without the overhead of a call to ComputeMaze per step.
+    public final void GenerateMaze() {
+        Generate();
+        computationComplete = true;
+        ComputationCompleted();
+    }
+
+    // Runs whatever computation is left after StartMaze. Mazes that need none
+    // leave it empty.
+    protected void Generate() {
+
+    }
+
+    // Writes every cell of the maze into the grid as a wall or a path. The start
+    // and end cells are placed afterwards by the CellManager. Mazes that keep
+    // their own plane of walls should override this to copy it in bulk.
+    public void WriteWalls(Grid grid) {
+        Vector2 position = new Vector2();
+        long[] paths = new long[(grid.size() + 63) >>> 6];
+        for (int index = 0; index < grid.size(); index++) {
+            position.x = grid.getX(index);
+            position.y = grid.getY(index);
+            if (IsWall(position))
+                paths[index >>> 6] |= 1L << index;
+        }
+        grid.setTypes(paths, true);
+    }
+
     public void DrawDebug(Graphics g) {
 
     }
 
     public void reset() {
         computationComplete = false;
+        if (!fixedSeed)
+            seed = SEEDS.nextLong();
+    }
+
+    // Fixes the seed, so every maze generated from now on is the same one
+    // (for the same grid size and start cell).
+    public void setSeed(long seed) {
+        this.seed = seed;
+        fixedSeed = true;
+    }
+
+    // Goes back to a new random seed on every reset.
+    public void clearSeed() {
+        fixedSeed = false;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    // A fresh generator for the current seed. Mazes should take one in
+    // StartMaze, so a restart with the same seed replays the same choices.
+    protected SplittableRandom NewRandom() {
+        return new SplittableRandom(seed);
+    }
+
+    // The cost of stepping onto the cell at a position. Mazes without terrain
+    // cost 1 everywhere.
+    public int Cost(Vector2 position) {
+        return 1;
+    }
+
+    // True if every cell is a pure function of the seed and its position, so
+    // IsWall and Cost can be asked about any cell of an unbounded world, in
+    // any order and from any thread. Mazes that carve a fixed size grid are
+    // not.
+    public boolean IsUnbounded() {
+        return false;
     }
 
     // Used for the rendering. This is not a helper class. It is used by the
@@ -0,0 +1,19 @@
+package Cells.Maze;
+
+import java.io.IOException;
+
+/**
+ * Receives a maze one row of cells at a time, for generators that never hold
+ * the whole maze in memory.
+ */
+@FunctionalInterface
+public interface MazeRowWriter {
+
+    /**
+     * @param y   The y coordinate of the row. Rows arrive in increasing order.
+     * @param row One bit per cell along the x axis, set for a path. The array
+     *            is reused for the next row, so it must be copied to be kept.
+     * @throws IOException If the row cannot be written.
+     */
+    void writeRow(int y, long[] row) throws IOException;
+}
@@ -1,14 +1,142 @@
 package Cells.Maze;
 
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import Cells.Grid;
+import Utilities.SplitMix64;
 import Utilities.Vector2;
 
+/**
+ * Randomized makes each cell a wall with a fixed chance, independently of the
+ * others.
+ *
+ * <p>
+ * Whether a cell is a wall is a pure function of the seed and its coordinates,
+ * hashed with {@link SplitMix64}. Asking twice about the same cell gives the
+ * same answer, nothing is stored, and any cell of an unbounded world can be
+ * evaluated on its own in O(1).
+ * </p>
+ *
+ * <p>
+ * Because no cell depends on another, the grid is filled on a
+ * {@link ForkJoinPool} in stripes of consecutive cells. Each row of a stripe
+ * walks its own SplitMix64 stream, starting from the stream position of its
+ * first cell, so every stripe produces exactly the cells IsWall would and the
+ * grid is identical for a given seed however many threads fill it.
+ * </p>
+ */
 public class Randomized extends Maze {
 
     public static final double WALL_CHANCE = 30d / 100d;
 
+    // A cell is a path when the top 53 bits of its hash are above this, the
+    // same as the hash as a double in [0, 1) being above WALL_CHANCE.
+    private static final long WALL_THRESHOLD = (long) Math.floor(WALL_CHANCE * 0x1.0p53);
+
+    // Cells filled by one task, a multiple of 64 so stripes never share a word.
+    private static final int CHUNK = 1 << 16;
+
+    private final ForkJoinPool pool;
+
+    public Randomized() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    // Fills the grid on the given pool instead of the common pool.
+    public Randomized(ForkJoinPool pool) {
+        if (pool == null) {
+            throw new IllegalArgumentException("Pool must not be null");
+        }
+        this.pool = pool;
+    }
+
     @Override
     public boolean IsWall(Vector2 position) {
-        return Math.random() > WALL_CHANCE;
+        return IsPath(getSeed(), position.x, position.y);
+    }
+
+    @Override
+    public boolean IsUnbounded() {
+        return true;
+    }
+
+    // True if the cell at x, y is a path in the maze with the given seed.
+    public static boolean IsPath(long seed, int x, int y) {
+        return SplitMix64.hash(seed, x, y) >>> 11 > WALL_THRESHOLD;
+    }
+
+    // Fills the grid in parallel stripes.
+    @Override
+    public void WriteWalls(Grid grid) {
+        int chunks = (grid.size() + CHUNK - 1) / CHUNK;
+        pool.invoke(new FillTask(grid, getSeed(), 0, chunks));
+    }
+
+    /**
+     * Computes a run of consecutive cells of a grid row-major, one bit per cell
+     * set for a path.
+     *
+     * @param seed  The seed of the maze.
+     * @param rows  Number of cells along the x axis.
+     * @param from  The index of the first cell.
+     * @param count The number of cells.
+     * @param paths Receives bit i for the cell at from + i.
+     */
+    public static void FillPaths(long seed, int rows, int from, int count, long[] paths) {
+        int x = from % rows, y = from / rows;
+        long state = seed + SplitMix64.GOLDEN_GAMMA * ((((long) y << 32) | x) + 1);
+
+        for (int word = 0; word << 6 < count; word++) {
+            int bits = Math.min(64, count - (word << 6));
+            long value = 0;
+            for (int bit = 0; bit < bits; bit++) {
+                // Sign bit of the difference, without a branch on random data
+                value |= ((WALL_THRESHOLD - (SplitMix64.mix(state) >>> 11)) >>> 63) << bit;
+
+                // The next cell on the row is the next output of the stream
+                state += SplitMix64.GOLDEN_GAMMA;
+                if (++x == rows) {
+                    x = 0;
+                    y++;
+                    state = seed + SplitMix64.GOLDEN_GAMMA * (((long) y << 32) + 1);
+                }
+            }
+            paths[word] = value;
+        }
+    }
+
+    // Splits the chunks in halves until each task fills one stripe.
+    private static class FillTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final transient Grid grid;
+        private final long seed;
+        private final int lowChunk, highChunk;
+
+        FillTask(Grid grid, long seed, int lowChunk, int highChunk) {
+            this.grid = grid;
+            this.seed = seed;
+            this.lowChunk = lowChunk;
+            this.highChunk = highChunk;
+        }
+
+        @Override
+        protected void compute() {
+            if (highChunk - lowChunk > 1) {
+                int middle = (lowChunk + highChunk) >>> 1;
+                invokeAll(new FillTask(grid, seed, lowChunk, middle),
+                        new FillTask(grid, seed, middle, highChunk));
+                return;
+            }
+
+            int from = lowChunk * CHUNK;
+            int count = Math.min(grid.size() - from, CHUNK);
+            long[] paths = new long[CHUNK >>> 6];
+            FillPaths(seed, grid.getRows(), from, count, paths);
+            grid.setTypes(from, paths, count, true);
+        }
     }
 
 }
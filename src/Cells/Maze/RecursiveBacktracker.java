@@ -2,17 +2,16 @@ package Cells.Maze;
 
 import java.awt.Color;
 import java.awt.Graphics;
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Random;
+import java.util.Arrays;
+import java.util.SplittableRandom;
 
+import Cells.Grid;
 import Driver.Config;
 import Utilities.Vector2;
 
 /**
  * RecursiveBacktracker is a maze generation algorithm.
- * 
+ *
  * Logic/Progression:
  * 1. Start at an initial cell.
  * 2. Push the cell to the stack.
@@ -23,44 +22,88 @@ import Utilities.Vector2;
  * 5. If no unvisited neighbors are found, backtrack by popping from the stack
  * until a cell with unvisited neighbors is found.
  * 6. Repeat until the stack is empty.
+ *
+ * <p>
+ * The generator is iterative and allocation-free once started:
+ * - carved cells are kept in a bitset, one bit per cell, indexed like the grid
+ * ({@code x + y * rows}); a cell is visited once it has been carved
+ * - the stack holds the moves taken from the start cell rather than the cells
+ * themselves, 2 bits per move packed into an int array, and backtracking undoes
+ * the last move
+ * - the four directions are shuffled in place in a fixed table each step
+ * A 16384x16384 maze needs 32 MB for the bitset and at most 16 MB for the
+ * stack.
+ * </p>
  */
 public class RecursiveBacktracker extends Maze {
 
-    // A stack to hold cells for backtracking.
-    private final ArrayList<Vector2> stack = new ArrayList<>();
+    // Moves in the same order as Vector2.up, down, left, right.
+    private static final int[] DX = { 0, 0, -1, 1 };
+    private static final int[] DY = { 1, -1, 0, 0 };
 
-    // A map to store the status of each cell: whether it's a path, wall, start, or
-    // end.
-    private final HashMap<Vector2, CellType> vectorMap = new HashMap<>();
+    // Directions tried this step, shuffled in place.
+    private final int[] directions = { 0, 1, 2, 3 };
+
+    // One bit per cell, set once the cell has been carved into a path.
+    private long[] carved = new long[0];
+
+    // Moves taken from the start cell, 16 per int.
+    private int[] stack = new int[0];
+    private int depth;
+
+    // The cell at the top of the stack.
+    private int x, y;
+    private boolean stackEmpty = true;
+
+    private int rows, cols;
+
+    // Whether the carved passages are reported as walls instead of paths.
+    private final boolean inverted;
 
     // Random number generator for random selection of directions.
-    private final Random random = new Random();
+    private SplittableRandom random;
 
-    // Enum to define cell types.
-    private enum CellType {
-        Path, Wall, Start, End
+    public RecursiveBacktracker() {
+        this(false);
+    }
+
+    // Used by ReverseRecursiveBacktracker to swap walls and paths.
+    protected RecursiveBacktracker(boolean inverted) {
+        this.inverted = inverted;
     }
 
     // This method initializes the maze with walls and starts the algorithm at the
     // starting cell.
     @Override
     public void StartMaze() {
-        for (int y = 0; y < Config.getNumCellCols(); y++) {
-            for (int x = 0; x < Config.getNumCellRows(); x++) {
-                vectorMap.put(new Vector2(x, y), CellType.Wall);
-            }
+        rows = Config.getNumCellRows();
+        cols = Config.getNumCellCols();
+        random = NewRandom();
+        // The shuffles start from the same order, so a seed replays the same maze
+        for (int i = 0; i < directions.length; i++) {
+            directions[i] = i;
         }
 
+        int words = (int) (((long) rows * cols + 63) >>> 6);
+        if (carved.length < words)
+            carved = new long[words];
+        else
+            Arrays.fill(carved, 0, words, 0L);
+        depth = 0;
+
         Vector2 startCell = Config.getStartCell();
-        stack.add(startCell);
-        vectorMap.put(startCell, CellType.Path); // Change this line to Path instead of Start
+        x = startCell.x;
+        y = startCell.y;
+        stackEmpty = !inBounds(x, y);
+        if (!stackEmpty)
+            carve(x, y);
     }
 
     // Core computation of the maze. If the stack is not empty, visit the next cell.
     // If empty, the maze is complete.
     @Override
     public void ComputeMaze() {
-        if (!stack.isEmpty()) {
+        if (!stackEmpty) {
             VisitCellOnStack();
         } else {
             computationComplete = true;
@@ -69,58 +112,97 @@ public class RecursiveBacktracker extends Maze {
         }
     }
 
+    // Carves the rest of the maze in one go. The stack empties exactly when
+    // every reachable cell has been carved.
+    @Override
+    protected void Generate() {
+        while (!stackEmpty) {
+            VisitCellOnStack();
+        }
+    }
+
+    // Copies the carved bitset into the grid in one pass.
+    @Override
+    public void WriteWalls(Grid grid) {
+        if (grid.getRows() != rows || grid.getCols() != cols) {
+            super.WriteWalls(grid);
+            return;
+        }
+        grid.setTypes(carved, !inverted);
+    }
+
     // Visit the top cell on the stack. If it has unvisited neighbors, move to one,
     // else backtrack.
     public void VisitCellOnStack() {
-        Vector2 current = stack.get(0);
-        ArrayList<Vector2> directions = new ArrayList<>(List.of(Vector2.up, Vector2.down, Vector2.left, Vector2.right));
+        // Fisher-Yates shuffle of the direction table, with all three swaps drawn
+        // from one number out of the 4! orderings
+        int draw = random.nextInt(24);
+        for (int i = directions.length - 1; i > 0; i--) {
+            int j = draw % (i + 1);
+            draw /= i + 1;
+            int swap = directions[i];
+            directions[i] = directions[j];
+            directions[j] = swap;
+        }
 
-        Vector2 next = GetNextVector(directions, current);
+        for (int direction : directions) {
+            int nextX = x + 2 * DX[direction]; // Move 2 cells in the chosen direction.
+            int nextY = y + 2 * DY[direction];
+
+            if (inBounds(nextX, nextY) && !isCarved(nextX, nextY)) {
+                carve(x + DX[direction], y + DY[direction]);
+                carve(nextX, nextY);
+                push(direction);
+                x = nextX;
+                y = nextY;
+                return;
+            }
+        }
 
-        if (next != null) {
-            stack.add(0, next);
-            Vector2 wall = current.plus(next).div(2);
-            vectorMap.put(next, CellType.Path);
-            vectorMap.put(wall, CellType.Path);
-        } else {
-            stack.remove(0);
+        // Dead end, so step back along the last move
+        if (depth == 0) {
+            stackEmpty = true;
+            return;
         }
+        int direction = pop();
+        x -= 2 * DX[direction];
+        y -= 2 * DY[direction];
     }
 
-    // Given a list of potential directions, select a random direction and compute
-    // the resulting position.
-    // If that position is valid and is a wall (unvisited), return it. Else, try
-    // another direction.
-    private Vector2 GetNextVector(ArrayList<Vector2> options, Vector2 vector) {
-        if (options.isEmpty())
-            return null;
+    private void push(int direction) {
+        int word = depth >>> 4;
+        if (word == stack.length)
+            stack = Arrays.copyOf(stack, Math.max(16, stack.length * 2));
 
-        if (vector == null)
-            return null;
+        int shift = (depth & 15) << 1;
+        stack[word] = (stack[word] & ~(3 << shift)) | (direction << shift);
+        depth++;
+    }
 
-        Vector2 direction = options.get(random.nextInt(options.size()));
-        Vector2 newPosition = vector.plus(direction.mult(2)); // Move 2 cells in the chosen direction.
+    private int pop() {
+        depth--;
+        return (stack[depth >>> 4] >>> ((depth & 15) << 1)) & 3;
+    }
 
-        if (isPositionValid(newPosition) && vectorMap.get(newPosition) == CellType.Wall) {
-            return newPosition;
-        }
+    private boolean inBounds(int x, int y) {
+        return 0 <= x && x < rows && 0 <= y && y < cols;
+    }
 
-        options.remove(direction);
-        return GetNextVector(options, vector);
+    private void carve(int x, int y) {
+        int index = x + y * rows;
+        carved[index >>> 6] |= 1L << index;
     }
 
-    // Check if a given position is within the maze boundaries and not the starting
-    // cell.
-    private boolean isPositionValid(Vector2 position) {
-        return 0 <= position.x && position.x <= Config.getNumCellRows()
-                && 0 <= position.y && position.y <= Config.getNumCellCols()
-                && !position.equals(Config.getStartCell());
+    private boolean isCarved(int x, int y) {
+        int index = x + y * rows;
+        return (carved[index >>> 6] & (1L << index)) != 0;
     }
 
-    // Check if a given position is a wall. Used by renderer to determine cell type.
+    // Check if a given position has been carved (or not, when inverted). Used by
+    // renderer to determine cell type.
     @Override
     public boolean IsWall(Vector2 position) {
-        return vectorMap.get(position) == CellType.Path;
+        return inBounds(position.x, position.y) && isCarved(position.x, position.y) != inverted;
     }
 
     // Debug drawing method to visualize the maze and its generation process.
@@ -132,24 +214,27 @@ public class RecursiveBacktracker extends Maze {
         g.fillRect(Config.getStartCell().x * Config.getCellWidth(), Config.getStartCell().y * Config.getCellHeight(),
                 Config.getCellWidth(), Config.getCellHeight());
 
-        // Stack
-        g.setColor(Color.CYAN);
-        for (Vector2 stackElement : stack) {
-            g.drawRect(stackElement.x * Config.getCellWidth() + 3, stackElement.y * Config.getCellHeight() + 3,
-                    Config.getCellWidth() - 6, Config.getCellHeight() - 6);
-        }
-
         // Map
-        for (Vector2 mapElement : vectorMap.keySet()) {
-
-            CellType type = vectorMap.get(mapElement);
-            if (type == CellType.Path)
-                g.setColor(Color.blue);
-            else if (type == CellType.Wall)
-                g.setColor(Color.red);
+        for (int cellY = 0; cellY < cols; cellY++) {
+            for (int cellX = 0; cellX < rows; cellX++) {
+                g.setColor(isCarved(cellX, cellY) ? Color.blue : Color.red);
+                g.drawRect(cellX * Config.getCellWidth(), cellY * Config.getCellHeight(),
+                        Config.getCellWidth(), Config.getCellHeight());
+            }
+        }
 
-            g.drawRect(mapElement.x * Config.getCellWidth(), mapElement.y * Config.getCellHeight(),
-                    Config.getCellWidth(), Config.getCellHeight());
+        // Stack, replayed from the start cell
+        g.setColor(Color.CYAN);
+        int stackX = Config.getStartCell().x;
+        int stackY = Config.getStartCell().y;
+        for (int i = 0; i <= depth; i++) {
+            g.drawRect(stackX * Config.getCellWidth() + 3, stackY * Config.getCellHeight() + 3,
+                    Config.getCellWidth() - 6, Config.getCellHeight() - 6);
+            if (i < depth) {
+                int direction = (stack[i >>> 4] >>> ((i & 15) << 1)) & 3;
+                stackX += 2 * DX[direction];
+                stackY += 2 * DY[direction];
+            }
         }
     }
 }
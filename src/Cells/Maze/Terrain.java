@@ -0,0 +1,108 @@
+package Cells.Maze;
+
+import Cells.Grid;
+import Utilities.SplitMix64;
+import Utilities.Vector2;
+
+/**
+ * Terrain scatters a few walls over open ground of varying cost, for the
+ * searches that weigh each step.
+ *
+ * <p>
+ * Like {@link Randomized}, every cell is a pure function of the seed and its
+ * coordinates. Walls are hashed cell by cell. Costs come from value noise: a
+ * random height on a lattice every {@link #PATCH} cells, blended smoothly in
+ * between, so cheap plains and expensive hills form patches a search has to
+ * decide whether to cross or go around.
+ * </p>
+ */
+public class Terrain extends Maze {
+
+    public static final double WALL_CHANCE = 10d / 100d;
+
+    // Highest cost a cell of terrain can have.
+    public static final int MAX_TERRAIN_COST = 9;
+
+    // Distance between the lattice points of the cost noise.
+    public static final int PATCH = 8;
+
+    // A cell is a path when the top 53 bits of its hash are above this.
+    private static final long WALL_THRESHOLD = (long) Math.floor(WALL_CHANCE * 0x1.0p53);
+
+    @Override
+    public boolean IsWall(Vector2 position) {
+        return IsPath(getSeed(), position.x, position.y);
+    }
+
+    @Override
+    public int Cost(Vector2 position) {
+        return Cost(getSeed(), position.x, position.y);
+    }
+
+    @Override
+    public boolean IsUnbounded() {
+        return true;
+    }
+
+    // True if the cell at x, y is a path in the terrain with the given seed.
+    public static boolean IsPath(long seed, int x, int y) {
+        return SplitMix64.hash(seed, x, y) >>> 11 > WALL_THRESHOLD;
+    }
+
+    /**
+     * @param seed The seed of the terrain.
+     * @param x    The x coordinate.
+     * @param y    The y coordinate.
+     * @return The cost of stepping onto the cell, from 1 to
+     *         {@link #MAX_TERRAIN_COST}.
+     */
+    public static int Cost(long seed, int x, int y) {
+        // The costs use their own stream, so they do not follow the walls
+        long costSeed = SplitMix64.mix(~seed);
+
+        int i = Math.floorDiv(x, PATCH), j = Math.floorDiv(y, PATCH);
+        double fx = Smooth((x - i * PATCH) / (double) PATCH);
+        double fy = Smooth((y - j * PATCH) / (double) PATCH);
+
+        double top = Lerp(Height(costSeed, i, j), Height(costSeed, i + 1, j), fx);
+        double bottom = Lerp(Height(costSeed, i, j + 1), Height(costSeed, i + 1, j + 1), fx);
+        double height = Lerp(top, bottom, fy);
+
+        // Squared so that most of the ground is cheap
+        return 1 + Math.min(MAX_TERRAIN_COST - 1, (int) (height * height * MAX_TERRAIN_COST));
+    }
+
+    private static double Height(long seed, int i, int j) {
+        return SplitMix64.toDouble(SplitMix64.hash(seed, i, j));
+    }
+
+    private static double Smooth(double t) {
+        return t * t * (3 - 2 * t);
+    }
+
+    private static double Lerp(double a, double b, double t) {
+        return a + (b - a) * t;
+    }
+
+    // Writes the walls in one pass, then the cost of every cell. Walls get a
+    // cost too, so a wall clicked away leaves the ground it stood on.
+    @Override
+    public void WriteWalls(Grid grid) {
+        long seed = getSeed();
+        int rows = grid.getRows();
+
+        long[] paths = new long[(grid.size() + 63) >>> 6];
+        for (int index = 0; index < grid.size(); index++) {
+            if (IsPath(seed, index % rows, index / rows))
+                paths[index >>> 6] |= 1L << index;
+        }
+        grid.setTypes(paths, true);
+
+        byte[] costs = new byte[grid.size()];
+        for (int index = 0; index < costs.length; index++) {
+            costs[index] = (byte) Cost(seed, index % rows, index / rows);
+        }
+        grid.setCosts(costs);
+    }
+
+}
@@ -0,0 +1,186 @@
+package Cells.Maze;
+
+import java.awt.Color;
+import java.awt.Graphics;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+import Cells.Grid;
+import Driver.Config;
+import Utilities.Vector2;
+
+/**
+ * Wilson is a maze generation algorithm that picks a uniform spanning tree:
+ * every possible perfect maze is equally likely, without the long corridors of
+ * the RecursiveBacktracker.
+ *
+ * Logic/Progression:
+ * 1. Add the start cell to the maze.
+ * 2. Pick any cell not yet in the maze and take a random walk from it until
+ * the walk reaches the maze, remembering only the last direction taken out of
+ * each cell. Walking back into a cell overwrites that direction, which erases
+ * the loop.
+ * 3. Follow the remembered directions from the first cell again, carving the
+ * loop-erased walk into the maze.
+ * 4. Repeat until every cell is in the maze.
+ *
+ * <p>
+ * Like the RecursiveBacktracker, the maze cells sit 2 apart, on the
+ * coordinates with the parity of the start cell. Membership is the carved
+ * bitset itself, and the walk stores one byte per maze cell. Each call to
+ * ComputeMaze adds one walk to the maze.
+ * </p>
+ */
+public class Wilson extends Maze {
+
+    // Moves in the same order as Vector2.up, down, left, right.
+    private static final int[] DX = { 0, 0, -1, 1 };
+    private static final int[] DY = { 1, -1, 0, 0 };
+
+    // One bit per cell, set once the cell has been carved into a path.
+    private long[] carved = new long[0];
+
+    // Last direction the walk left each maze cell by.
+    private byte[] exits = new byte[0];
+
+    private int rows, cols;
+    private int originX, originY;
+
+    // Number of maze cells along each axis.
+    private int width, height;
+
+    // Every maze cell before this one is already in the maze.
+    private int scan;
+
+    // Random number generator for the walks.
+    private SplittableRandom random;
+
+    @Override
+    public void StartMaze() {
+        rows = Config.getNumCellRows();
+        cols = Config.getNumCellCols();
+        random = NewRandom();
+
+        int words = (int) (((long) rows * cols + 63) >>> 6);
+        if (carved.length < words)
+            carved = new long[words];
+        else
+            Arrays.fill(carved, 0, words, 0L);
+
+        Vector2 startCell = Config.getStartCell();
+        originX = Math.floorMod(startCell.x, 2);
+        originY = Math.floorMod(startCell.y, 2);
+        width = rows > originX ? (rows - originX + 1) / 2 : 0;
+        height = cols > originY ? (cols - originY + 1) / 2 : 0;
+
+        if (exits.length < width * height)
+            exits = new byte[width * height];
+        scan = 0;
+
+        // The maze grows from the start cell, or the first cell without one
+        if (startCell.x >= 0 && startCell.x < rows && startCell.y >= 0 && startCell.y < cols)
+            carve(startCell.x, startCell.y);
+        else if (width > 0 && height > 0)
+            carve(originX, originY);
+    }
+
+    // Adds one loop-erased walk to the maze. Once every cell is in, the maze is
+    // complete.
+    @Override
+    public void ComputeMaze() {
+        if (!AddWalk()) {
+            computationComplete = true;
+            ComputationCompleted();
+            if (Config.isDeveloperMode())
+                System.out.println("Maze Computation Complete");
+        }
+    }
+
+    @Override
+    protected void Generate() {
+        while (AddWalk()) {
+        }
+    }
+
+    // Walks from the next cell outside the maze until it reaches the maze, then
+    // carves the loop-erased walk.
+    private boolean AddWalk() {
+        int total = width * height;
+        while (scan < total && isCarved(originX + 2 * (scan % width), originY + 2 * (scan / width))) {
+            scan++;
+        }
+        if (scan == total)
+            return false;
+
+        int firstX = scan % width, firstY = scan / width;
+
+        // Random walk, remembering the last exit from each cell
+        int i = firstX, j = firstY;
+        while (!isCarved(originX + 2 * i, originY + 2 * j)) {
+            int direction = random.nextInt(4);
+            int nextI = i + DX[direction], nextJ = j + DY[direction];
+            if (nextI < 0 || nextI >= width || nextJ < 0 || nextJ >= height)
+                continue;
+
+            exits[i + j * width] = (byte) direction;
+            i = nextI;
+            j = nextJ;
+        }
+
+        // Carve the walk again, following only the last exits
+        i = firstX;
+        j = firstY;
+        while (!isCarved(originX + 2 * i, originY + 2 * j)) {
+            int direction = exits[i + j * width];
+            int x = originX + 2 * i, y = originY + 2 * j;
+            carve(x, y);
+            carve(x + DX[direction], y + DY[direction]);
+            i += DX[direction];
+            j += DY[direction];
+        }
+        return true;
+    }
+
+    private void carve(int x, int y) {
+        int index = x + y * rows;
+        carved[index >>> 6] |= 1L << index;
+    }
+
+    private boolean isCarved(int x, int y) {
+        int index = x + y * rows;
+        return (carved[index >>> 6] & (1L << index)) != 0;
+    }
+
+    @Override
+    public void WriteWalls(Grid grid) {
+        if (grid.getRows() != rows || grid.getCols() != cols) {
+            super.WriteWalls(grid);
+            return;
+        }
+        grid.setTypes(carved, true);
+    }
+
+    @Override
+    public boolean IsWall(Vector2 position) {
+        return position.x >= 0 && position.x < rows && position.y >= 0 && position.y < cols
+                && isCarved(position.x, position.y);
+    }
+
+    @Override
+    public void DrawDebug(Graphics g) {
+
+        // Start Cell
+        g.setColor(Color.GREEN);
+        g.fillRect(Config.getStartCell().x * Config.getCellWidth(), Config.getStartCell().y * Config.getCellHeight(),
+                Config.getCellWidth(), Config.getCellHeight());
+
+        // Map
+        for (int y = 0; y < cols; y++) {
+            for (int x = 0; x < rows; x++) {
+                g.setColor(isCarved(x, y) ? Color.blue : Color.red);
+                g.drawRect(x * Config.getCellWidth(), y * Config.getCellHeight(),
+                        Config.getCellWidth(), Config.getCellHeight());
+            }
+        }
+    }
+}
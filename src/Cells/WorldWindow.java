@@ -0,0 +1,129 @@
+package Cells;
+
+import Cells.ChunkedWorld.Chunk;
+
+/**
+ * A bounded rectangle of a {@link ChunkedWorld}, searched like any other grid.
+ * <p>
+ * Cell {@code x + y * rows} of the window is the cell at
+ * {@code (x0 + x, y0 + y)} of the world. Nothing is generated when the window
+ * is opened: each chunk is generated, or fetched from the world, the first
+ * time a search asks about one of its cells, so a search that stays near its
+ * start only ever generates the chunks around it, however large the window.
+ * </p>
+ * The window holds on to every chunk it has fetched and reads the cells
+ * straight from them. A live window pins those chunks, so none is evicted
+ * while a search runs, however short memory gets: eviction only happens
+ * between queries, once the window is dropped. A search that roams far in a
+ * large window keeps every chunk it reached in memory until then. The window
+ * never changes, so any number of threads can search it at the same time.
+ */
+public final class WorldWindow implements GridMap {
+
+	private final ChunkedWorld world;
+	private final int x0, y0, rows, cols;
+
+	/** Coordinates of the first chunk and the number of chunks along x. */
+	private final int cx0, cy0, chunkRows;
+
+	/** Chunks fetched so far, or null where none was. */
+	private final Chunk[] chunks;
+
+	WorldWindow(ChunkedWorld world, int x0, int y0, int rows, int cols) {
+		if (rows <= 0 || cols <= 0) {
+			throw new IllegalArgumentException("Window dimensions must be positive.");
+		}
+		if ((long) x0 + rows - 1 > Integer.MAX_VALUE || (long) y0 + cols - 1 > Integer.MAX_VALUE) {
+			throw new IllegalArgumentException("Window of " + rows + "x" + cols + " runs off the world.");
+		}
+		if ((long) rows * cols > Integer.MAX_VALUE) {
+			throw new IllegalArgumentException("Window of " + rows + "x" + cols + " does not fit an int index.");
+		}
+
+		this.world = world;
+		this.x0 = x0;
+		this.y0 = y0;
+		this.rows = rows;
+		this.cols = cols;
+
+		this.cx0 = x0 >> ChunkedWorld.CHUNK_SHIFT;
+		this.cy0 = y0 >> ChunkedWorld.CHUNK_SHIFT;
+		this.chunkRows = ((x0 + rows - 1) >> ChunkedWorld.CHUNK_SHIFT) - cx0 + 1;
+		int chunkCols = ((y0 + cols - 1) >> ChunkedWorld.CHUNK_SHIFT) - cy0 + 1;
+		this.chunks = new Chunk[chunkRows * chunkCols];
+	}
+
+	/**
+	 * Returns the chunk holding a world cell, fetching it from the world the
+	 * first time. Chunks never change, so a chunk written by one thread can be
+	 * read by another without locking, at worst after fetching it twice.
+	 */
+	private Chunk chunkAt(int x, int y) {
+		int cx = (x >> ChunkedWorld.CHUNK_SHIFT) - cx0;
+		int cy = (y >> ChunkedWorld.CHUNK_SHIFT) - cy0;
+		int slot = cx + cy * chunkRows;
+
+		Chunk chunk = chunks[slot];
+		if (chunk == null) {
+			chunk = world.chunk(cx + cx0, cy + cy0);
+			chunks[slot] = chunk;
+		}
+		return chunk;
+	}
+
+	@Override
+	public int getRows() {
+		return rows;
+	}
+
+	@Override
+	public int getCols() {
+		return cols;
+	}
+
+	@Override
+	public boolean isPassable(int index) {
+		int x = x0 + index % rows, y = y0 + index / rows;
+		return chunkAt(x, y).isPassable(x & (ChunkedWorld.CHUNK_SIZE - 1), y & (ChunkedWorld.CHUNK_SIZE - 1));
+	}
+
+	@Override
+	public int getCost(int index) {
+		int x = x0 + index % rows, y = y0 + index / rows;
+		return chunkAt(x, y).getCost(x & (ChunkedWorld.CHUNK_SIZE - 1), y & (ChunkedWorld.CHUNK_SIZE - 1));
+	}
+
+	/**
+	 * @param x The x coordinate in the world.
+	 * @param y The y coordinate in the world.
+	 * @return The index of the cell in the window, or -1 if it lies outside.
+	 */
+	public int indexOfWorld(int x, int y) {
+		long dx = (long) x - x0, dy = (long) y - y0;
+		if (dx < 0 || dx >= rows || dy < 0 || dy >= cols)
+			return -1;
+		return (int) dx + (int) dy * rows;
+	}
+
+	/**
+	 * @return The x coordinate in the world of the first cell.
+	 */
+	public int getX0() {
+		return x0;
+	}
+
+	/**
+	 * @return The y coordinate in the world of the first cell.
+	 */
+	public int getY0() {
+		return y0;
+	}
+
+	/**
+	 * @return The world the window looks onto.
+	 */
+	public ChunkedWorld getWorld() {
+		return world;
+	}
+
+}
@@ -0,0 +1,7 @@
+package Click;
+
+import java.awt.event.MouseEvent;
+
+public interface CellClickListener {
+    void onCellClick(int index, MouseEvent e);
+}
@@ -1,19 +1,39 @@
 package Click;
 
+import java.awt.Rectangle;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
 import java.awt.event.MouseListener;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Supplier;
 
 import javax.swing.JFrame;
 
+/**
+ * Dispatches mouse clicks on the window.
+ * <p>
+ * Rather than asking every listener whether a click concerns it, clicks are
+ * routed by position: widgets registered with a region are looked up in a
+ * {@link RegionIndex}, and the topmost one under the mouse gets the click.
+ * Otherwise the {@link GridHitTester} turns the position into a cell index
+ * with plain arithmetic. Listeners registered without a region still hear
+ * every click.
+ * </p>
+ */
 public class ClickManager {
 
     public static ClickManager Instance;
 
+    /** Offset from the frame's corner to the window's content. */
+    public static final int X_OFFSET = 7, Y_OFFSET = 28;
+
     private List<ClickListener> listeners = new ArrayList<>();
 
+    private final RegionIndex widgets = new RegionIndex();
+
+    private GridHitTester grid;
+
     public ClickManager(JFrame frame) {
 
         if (Instance != null) {
@@ -35,8 +55,32 @@ public class ClickManager {
         listeners.add(listener);
     }
 
-    // Notify all registered listeners of a click event
+    // Allow widgets to register for clicks inside their bounds only
+    public void addClickListener(Supplier<Rectangle> bounds, ClickListener listener) {
+        widgets.add(bounds, listener);
+    }
+
+    // Route clicks on the grid's cells to a single hit tester
+    public void setGrid(GridHitTester grid) {
+        this.grid = grid;
+    }
+
+    // Re-read the widget bounds, for example after the window was resized
+    public void invalidateRegions() {
+        widgets.invalidate();
+    }
+
+    // Notify the widget or cell under the click, then the global listeners
     protected void notifyClick(MouseEvent e) {
+        int x = e.getX() - X_OFFSET;
+        int y = e.getY() - Y_OFFSET;
+
+        ClickListener widget = widgets.find(x, y);
+        if (widget != null)
+            widget.onClick(e);
+        else if (grid != null)
+            grid.dispatch(x, y, e);
+
         for (ClickListener listener : listeners) {
             listener.onClick(e);
         }
@@ -44,6 +88,8 @@ public class ClickManager {
 
     public void reset() {
         listeners.clear();
+        widgets.clear();
+        grid = null;
     }
 
 }
@@ -0,0 +1,60 @@
+package Click;
+
+import java.awt.event.MouseEvent;
+
+import Driver.Config;
+
+/**
+ * Maps a point in the window to the index of the grid cell under it.
+ * <p>
+ * Cells are laid out row-major from the top left corner of the window, so the
+ * cell under a point is found with two divisions, whatever the size of the
+ * grid. The cell size is read from the {@link Config} on every click, so the
+ * hit tester keeps working after the window is resized.
+ * </p>
+ */
+public class GridHitTester {
+
+    private final int rows;
+    private final int cols;
+    private final CellClickListener listener;
+
+    /**
+     * @param rows     Number of cells along the x axis.
+     * @param cols     Number of cells along the y axis.
+     * @param listener Notified with the index of every clicked cell.
+     */
+    public GridHitTester(int rows, int cols, CellClickListener listener) {
+        this.rows = rows;
+        this.cols = cols;
+        this.listener = listener;
+    }
+
+    /**
+     * @param x The x coordinate inside the window.
+     * @param y The y coordinate inside the window.
+     * @return The index of the cell under the point, or -1 if it lies outside
+     *         the grid.
+     */
+    public int hitTest(int x, int y) {
+        int cellX = Math.floorDiv(x, Config.getCellWidth());
+        int cellY = Math.floorDiv(y, Config.getCellHeight());
+        if (cellX < 0 || cellX >= rows || cellY < 0 || cellY >= cols)
+            return -1;
+        return cellX + cellY * rows;
+    }
+
+    /**
+     * Notifies the listener if the point lies on a cell.
+     *
+     * @return True if a cell was clicked.
+     */
+    boolean dispatch(int x, int y, MouseEvent e) {
+        int index = hitTest(x, y);
+        if (index == -1)
+            return false;
+
+        listener.onCellClick(index, e);
+        return true;
+    }
+}
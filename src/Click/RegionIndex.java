@@ -0,0 +1,113 @@
+package Click;
+
+import java.awt.Rectangle;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * An interval index over the rectangles of clickable widgets.
+ * <p>
+ * The widgets are kept sorted by their left edge, along with the furthest
+ * right edge of every prefix of that order. A point query binary-searches the
+ * last widget starting left of the point, then walks back only while some
+ * earlier widget still reaches the point. Only the widgets whose x interval
+ * holds the point have their y interval tested.
+ * </p>
+ * Widget bounds may depend on the window size, so they are given as suppliers
+ * and read again after {@link #invalidate()}.
+ */
+public class RegionIndex {
+
+    private static class Region {
+        final Supplier<Rectangle> source;
+        final ClickListener listener;
+        final int order;
+        Rectangle bounds;
+
+        Region(Supplier<Rectangle> source, ClickListener listener, int order) {
+            this.source = source;
+            this.listener = listener;
+            this.order = order;
+        }
+    }
+
+    private final List<Region> regions = new ArrayList<>();
+
+    /** Regions sorted by left edge, or null when they must be sorted again. */
+    private Region[] sorted;
+
+    /** Furthest right edge of each prefix of {@link #sorted}. */
+    private int[] reach;
+
+    /**
+     * Adds a widget. Where widgets overlap, the one added last wins.
+     *
+     * @param bounds   Supplies the area of the widget inside the window.
+     * @param listener Notified when the widget is clicked.
+     */
+    public void add(Supplier<Rectangle> bounds, ClickListener listener) {
+        regions.add(new Region(bounds, listener, regions.size()));
+        sorted = null;
+    }
+
+    /**
+     * Reads the bounds of every widget again, for example after a resize.
+     */
+    public void invalidate() {
+        sorted = null;
+    }
+
+    public void clear() {
+        regions.clear();
+        sorted = null;
+    }
+
+    /**
+     * @param x The x coordinate inside the window.
+     * @param y The y coordinate inside the window.
+     * @return The listener of the topmost widget under the point, or null.
+     */
+    public ClickListener find(int x, int y) {
+        if (sorted == null)
+            build();
+
+        // Last region whose left edge is at or before x
+        int low = 0, high = sorted.length - 1, last = -1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            if (sorted[middle].bounds.x <= x) {
+                last = middle;
+                low = middle + 1;
+            } else {
+                high = middle - 1;
+            }
+        }
+
+        Region hit = null;
+        for (int i = last; i >= 0 && reach[i] > x; i--) {
+            Rectangle bounds = sorted[i].bounds;
+            if (bounds.contains(x, y) && (hit == null || sorted[i].order > hit.order))
+                hit = sorted[i];
+        }
+        return hit == null ? null : hit.listener;
+    }
+
+    private void build() {
+        for (Region region : regions) {
+            region.bounds = region.source.get();
+        }
+
+        sorted = regions.toArray(new Region[0]);
+        Arrays.sort(sorted, Comparator.comparingInt(region -> region.bounds.x));
+
+        reach = new int[sorted.length];
+        int furthest = Integer.MIN_VALUE;
+        for (int i = 0; i < sorted.length; i++) {
+            furthest = Math.max(furthest, sorted[i].bounds.x + sorted[i].bounds.width);
+            reach[i] = furthest;
+        }
+    }
+}
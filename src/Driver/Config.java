@@ -2,13 +2,24 @@ package Driver;
 
 import java.awt.Color;
 
+import Cells.Maze.Eller;
 import Cells.Maze.Maze;
 import Cells.Maze.Randomized;
 import Cells.Maze.RecursiveBacktracker;
 import Cells.Maze.ReverseRecursiveBacktracker;
+import Cells.Maze.Terrain;
+import Cells.Maze.Wilson;
 import Pathfind.AStar;
 import Pathfind.Algorithm;
+import Pathfind.BidirectionalAStar;
+import Pathfind.BidirectionalFloodfill;
+import Pathfind.BitsetFloodfill;
+import Pathfind.Dijkstra;
 import Pathfind.Floodfill;
+import Pathfind.Hierarchical;
+import Pathfind.JumpPoint;
+import Pathfind.Landmark;
+import Pathfind.ParallelFloodfill;
 import Utilities.ColorInterpolator;
 import Utilities.Vector2;
 
@@ -16,6 +27,7 @@ public final class Config {
 
     // GENERAL SETTINGS
     private static boolean DEVELOPER_MODE = false;
+    private static boolean RASTER_RENDERING = true;
     public static final int FPS = 120;
     private static Vector2 START_CELL = new Vector2(5, 5);
     private static Vector2 END_CELL = new Vector2(95, 45);
@@ -25,6 +37,14 @@ public final class Config {
     public static final Algorithm[] ALGORITHMS = new Algorithm[] {
             new Floodfill(),
             new AStar(),
+            new JumpPoint(),
+            new BidirectionalFloodfill(),
+            new BidirectionalAStar(),
+            new BitsetFloodfill(),
+            new ParallelFloodfill(),
+            new Dijkstra(),
+            new Hierarchical(),
+            new Landmark(),
     };
     private static double ACTION_TIME = 0.05f;
 
@@ -34,6 +54,9 @@ public final class Config {
             new Randomized(),
             new RecursiveBacktracker(),
             new ReverseRecursiveBacktracker(),
+            new Wilson(),
+            new Eller(),
+            new Terrain(),
     };
     private static int SCREEN_WIDTH = 800;
     private static int SCREEN_HEIGHT = 400;
@@ -53,10 +76,18 @@ public final class Config {
         return COLOR_PALETTE;
     }
 
+    public static int[] getColorGradient() {
+        return ColorInterpolator.getBaked(COLOR_PALETTE, NUM_COLOR_GRADIENT);
+    }
+
     public static boolean isDeveloperMode() {
         return DEVELOPER_MODE;
     }
 
+    public static boolean isRasterRendering() {
+        return RASTER_RENDERING;
+    }
+
     public static Vector2 getStartCell() {
         return START_CELL;
     }
@@ -104,16 +135,22 @@ public final class Config {
     // Setters without restricted access
     public static void setNumColorGradient(int value) {
         NUM_COLOR_GRADIENT = value;
+        ColorInterpolator.invalidateBaked();
     }
 
     public static void setColorPalette(Color[] value) {
         COLOR_PALETTE = value;
+        ColorInterpolator.invalidateBaked();
     }
 
     public static void setDeveloperMode(boolean value) {
         DEVELOPER_MODE = value;
     }
 
+    public static void setRasterRendering(boolean value) {
+        RASTER_RENDERING = value;
+    }
+
     public static void setStartCell(Vector2 value) {
         START_CELL = value;
     }
@@ -153,6 +190,7 @@ public final class Config {
     public static String getConfigState() {
         return "Config Settings: " +
                 "\n\tDeveloper Mode: " + DEVELOPER_MODE +
+                "\n\tRaster Rendering: " + RASTER_RENDERING +
                 "\n\tStart Cell: " + START_CELL +
                 "\n\tEnd Cell: " + END_CELL +
                 "\n\tAlgorithm: " + ALGORITHM +
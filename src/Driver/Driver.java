@@ -6,7 +6,6 @@ import java.awt.event.ComponentAdapter;
 import java.awt.event.ComponentEvent;
 import javax.swing.Timer;
 
-import Cells.CellManager;
 import Click.ClickManager;
 import Keys.KeyManager;
 
@@ -63,8 +62,7 @@ public class Driver {
 		Dimension newSize = frame.getSize();
 		Config.setScreenWidth((int) newSize.getWidth());
 		Config.setScreenHeight((int) newSize.getHeight());
-
-		CellManager.Instance.updateScreenPosition();
+		ClickManager.Instance.invalidateRegions();
 	}
 
 }
@@ -3,13 +3,15 @@ package Driver;
 import java.awt.Color;
 import java.awt.Font;
 import java.awt.Graphics;
+import java.awt.Rectangle;
 import java.awt.event.MouseEvent;
 
 import Cells.CellManager;
+import Cells.Grid;
 import Click.ClickListener;
 import Click.ClickManager;
 import Pathfind.PathfindingManager;
-import Utilities.Looper;
+import Utilities.Scheduler;
 
 public class Game {
 
@@ -31,6 +33,7 @@ public class Game {
             Instance = this;
         }
 
+        Scheduler.resetTime();
         startPathfinding();
         computeMaze();
 
@@ -48,20 +51,70 @@ public class Game {
             if (!Config.getMaze().computationComplete) {
                 Config.getMaze().ComputeMaze();
             }
-        } else {
-            while (!Config.getMaze().computationComplete) {
-                Config.getMaze().ComputeMaze();
-            }
+        } else if (!Config.getMaze().computationComplete) {
+            // Nothing to watch, so generate the whole maze in one go
+            Config.getMaze().GenerateMaze();
         }
 
     }
 
     public void loop() {
-        if (setupComplete) {
+        // The cells are only written once the maze completes
+        if (setupComplete && Config.getMaze().computationComplete) {
             PathfindingManager.Instance.pathfind();
         }
     }
 
+    /** Frames between refreshes of the fading gradient and the debug text. */
+    private static final int SLOW_REFRESH_FRAMES = Config.FPS / 10;
+
+    private int frame = 0;
+
+    /** What the window showed after its last full repaint. */
+    private Grid paintedGrid;
+    private int paintedCellWidth, paintedCellHeight;
+
+    /**
+     * Asks the window to repaint what changed since the last frame.
+     * <p>
+     * Only the cells the grid recorded as dirty are repainted every frame. The
+     * colors of explored cells fade as the algorithm steps on, so they, along
+     * with the debug text, are refreshed on a coarser schedule, and only while
+     * some are still fading. The whole window is repainted when the grid or
+     * the cell size changes, and every frame in developer mode, where the maze
+     * animation and the cell overlays are drawn outside the cells.
+     * </p>
+     */
+    public void repaintChanged() {
+        Grid grid = CellManager.Instance.GetGrid();
+        int cellWidth = Config.getCellWidth();
+        int cellHeight = Config.getCellHeight();
+
+        if (!setupComplete || Config.isDeveloperMode() || grid != paintedGrid
+                || cellWidth != paintedCellWidth || cellHeight != paintedCellHeight) {
+            paintedGrid = grid;
+            paintedCellWidth = cellWidth;
+            paintedCellHeight = cellHeight;
+            if (grid != null)
+                grid.getDirty().clear();
+            window.repaint();
+            return;
+        }
+
+        window.repaint(grid.getDirty().take(cellWidth, cellHeight));
+
+        if (++frame % SLOW_REFRESH_FRAMES != 0)
+            return;
+
+        window.repaint(PathfindingManager.Instance.getDebugBounds());
+
+        boolean fading = Config.getAlgorithm().GetSteps() - grid.getLastExploredStep() <= Config
+                .getNumColorGradient();
+        Rectangle explored = grid.getExplored().toScreen(cellWidth, cellHeight);
+        if (fading && explored != null)
+            window.repaint(explored);
+    }
+
     public void render(Graphics g) {
 
         if (!Config.getMaze().computationComplete && Config.isDeveloperMode()) {
@@ -78,7 +131,7 @@ public class Game {
     }
 
     public void restart() {
-        Looper.resetTime();
+        Scheduler.resetTime();
         ClickManager.Instance.reset();
         CreateButton();
         Config.getMaze().reset();
@@ -87,21 +140,16 @@ public class Game {
     }
 
     private void CreateButton() {
-        // Add Button to Each Cell
-        ClickManager.Instance.addClickListener(new ClickListener() {
-            @Override
-            public void onClick(MouseEvent e) {
-                int xOffset = 7;
-                int yOffset = 28;
-                if (Config.getScreenWidth() - (int) (menuButtonSize * 1.65) < e.getX() - xOffset && e.getX()
-                        - xOffset < Config.getScreenWidth() - (int) (menuButtonSize * 1.65) + menuButtonSize) {
-                    if (0 < e.getY() - yOffset && e.getY() - yOffset < menuButtonSize) {
+        // Add the Menu Button to the click index
+        ClickManager.Instance.addClickListener(() -> new Rectangle(
+                Config.getScreenWidth() - (int) (menuButtonSize * 1.65), 0, menuButtonSize, menuButtonSize),
+                new ClickListener() {
+                    @Override
+                    public void onClick(MouseEvent e) {
                         System.out.println("Return to Menu");
                         window.startMenu();
                     }
-                }
-            }
-        });
+                });
     }
 
     private int menuButtonSize = 20;
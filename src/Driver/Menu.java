@@ -32,6 +32,7 @@ public class Menu {
     private JButton saveSettingsButton;
 
     private JCheckBox developerModeCheckbox;
+    private JCheckBox rasterRenderingCheckbox;
     private JTextField startCellXField, startCellYField, endCellXField, endCellYField;
     private JComboBox<Algorithm> algorithmComboBox;
     private JTextField actionTimeField;
@@ -186,6 +187,11 @@ public class Menu {
         gbc.gridx = 0;
         menuPanel.add(developerModeCheckbox, gbc);
 
+        // Raster Rendering Checkbox
+        rasterRenderingCheckbox = new JCheckBox("Raster Rendering", Config.isRasterRendering());
+        gbc.gridx = 1;
+        menuPanel.add(rasterRenderingCheckbox, gbc);
+
         // Before adding the saveSettingsButton, modify the anchor property:
         gbc.anchor = GridBagConstraints.CENTER;
         gbc.weightx = 1.0;
@@ -270,6 +276,7 @@ public class Menu {
 
                 // All settings save operations go here
                 Config.setDeveloperMode(developerModeCheckbox.isSelected());
+                Config.setRasterRendering(rasterRenderingCheckbox.isSelected());
                 Config.setStartCell(new Vector2(Integer.parseInt(startCellXField.getText()),
                         Integer.parseInt(startCellYField.getText())));
                 Config.setEndCell(new Vector2(Integer.parseInt(endCellXField.getText()),
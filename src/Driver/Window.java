@@ -3,12 +3,14 @@ package Driver;
 import java.awt.Color;
 import java.awt.Dimension;
 import java.awt.Graphics;
+import java.awt.Rectangle;
 
 import javax.swing.JPanel;
+import javax.swing.SwingUtilities;
 
 import Cells.CellManager;
 import Pathfind.PathfindingManager;
-import Utilities.Looper;
+import Utilities.Scheduler;
 
 public class Window extends JPanel {
 
@@ -21,6 +23,8 @@ public class Window extends JPanel {
 	private Game game;
 	private ApplicationState state = ApplicationState.MENU;
 
+	private final Scheduler scheduler = new Scheduler(this::update, this::render, Config.FPS, Config.FPS);
+
 	public Window() {
 		initializeSingletons();
 		initializeWindow();
@@ -52,22 +56,54 @@ public class Window extends JPanel {
 				game.start();
 				break;
 		}
-		new Looper(this, "loop", Config.FPS);
+		scheduler.start();
 	}
 
-	public void loop() {
-		repaint();
+	private void update() {
 		if (state == ApplicationState.PLAY) {
 			game.loop();
 		}
 	}
 
+	private void render() {
+		if (state == ApplicationState.PLAY) {
+			game.repaintChanged();
+		} else {
+			repaint();
+		}
+	}
+
+	/**
+	 * Repaints a few separate parts of the window. Swing joins the rectangles
+	 * passed to {@link #repaint(Rectangle)} into their bounding box, so when
+	 * there are several they are painted one at a time on the event thread.
+	 *
+	 * @param rectangles The parts to repaint.
+	 */
+	public void repaint(Rectangle[] rectangles) {
+		if (rectangles.length == 0)
+			return;
+		if (rectangles.length == 1) {
+			repaint(rectangles[0]);
+			return;
+		}
+
+		SwingUtilities.invokeLater(() -> {
+			for (Rectangle rectangle : rectangles) {
+				paintImmediately(rectangle);
+			}
+		});
+	}
+
 	public void startGame() {
 		state = ApplicationState.PLAY;
 		startApp();
 	}
 
 	public void startMenu() {
+		if (Config.isDeveloperMode()) {
+			System.out.println(scheduler);
+		}
 		state = ApplicationState.MENU;
 		menu.show();
 	}
@@ -0,0 +1,92 @@
+package Pathfind;
+
+import Cells.GridMap;
+
+/**
+ * An allocation-free A* core that works directly on the cell indices of a
+ * {@link GridMap}.
+ * <p>
+ * Search state lives in a {@link SearchContext}: parallel primitive arrays
+ * ({@code g}, {@code parent}) and an {@link IndexedMinHeap} with real
+ * decrease-key. The arrays are reused between queries and a generation stamp
+ * marks which entries belong to the current one, so starting a new query does
+ * not clear them. After warm-up, expanding a node allocates nothing.
+ * </p>
+ * The search itself is stateless and may be shared between threads, as long as
+ * each thread brings its own context. It can be advanced one expansion at a
+ * time with {@link #step(SearchContext)}, which is how {@link AStar} animates
+ * it, or run to completion through {@link #search(GridMap, int, int, SearchContext)}.
+ * <p>
+ * Moving onto a cell costs {@link GridMap#getCost(int)}. The heuristic is the
+ * Euclidean distance scaled by the cheapest cell of the grid, so it never
+ * overestimates on weighted terrain and is unchanged on uniform grids.
+ * </p>
+ */
+public class AStarSearch extends BestFirstSearch {
+
+    /** True if the search runs from the goal back towards the start. */
+    private final boolean backward;
+
+    /** True if the heuristic is averaged with the distance back to the start. */
+    private final boolean balanced;
+
+    public AStarSearch() {
+        this(false, false);
+    }
+
+    /**
+     * @param backward True to search against the direction of travel, paying
+     *                 the cost of the cell being left instead of the one being
+     *                 entered. The backward half of a bidirectional query uses
+     *                 this so both halves agree on the cost of every route.
+     * @param balanced True to use half the difference between the distance to
+     *                 the goal and the distance to the start as the heuristic.
+     *                 The two halves of a bidirectional query then use
+     *                 heuristics that sum to a constant, which lets them stop
+     *                 as soon as their open lists show no shorter route.
+     */
+    AStarSearch(boolean backward, boolean balanced) {
+        this.backward = backward;
+        this.balanced = balanced;
+    }
+
+    @Override
+    protected void expand(SearchContext context, int current) {
+        GridMap map = context.map;
+        int rows = map.getRows();
+        int x = current % rows;
+        int y = current / rows;
+
+        // Same order as Vector2.up, down, left, right
+        if (y + 1 < map.getCols() && map.isPassable(current + rows))
+            relax(context, current, current + rows, cost(map, current, current + rows));
+        if (y > 0 && map.isPassable(current - rows))
+            relax(context, current, current - rows, cost(map, current, current - rows));
+        if (x > 0 && map.isPassable(current - 1))
+            relax(context, current, current - 1, cost(map, current, current - 1));
+        if (x + 1 < rows && map.isPassable(current + 1))
+            relax(context, current, current + 1, cost(map, current, current + 1));
+    }
+
+    private int cost(GridMap map, int current, int next) {
+        return map.getCost(backward ? current : next);
+    }
+
+    /**
+     * Euclidean distance from a cell to the goal, times the lowest cell cost.
+     * When balanced, half of that minus half the distance to the start.
+     */
+    @Override
+    protected double heuristic(SearchContext context, int cell) {
+        if (balanced)
+            return (distance(context, cell, context.goal) - distance(context, cell, context.start)) / 2;
+        return distance(context, cell, context.goal);
+    }
+
+    private static double distance(SearchContext context, int from, int to) {
+        int rows = context.map.getRows();
+        int dx = from % rows - to % rows;
+        int dy = from / rows - to / rows;
+        return Math.sqrt(dx * dx + dy * dy) * context.minCost;
+    }
+}
@@ -1,24 +1,23 @@
 package Pathfind;
 
-import java.util.HashSet;
 import java.util.ArrayList;
-import java.util.HashMap;
 
 import Cells.Cell;
-import Cells.CellManager;
+import Cells.Grid;
 import Driver.Config;
 import Driver.Game;
-import Utilities.Looper;
+import Utilities.Scheduler;
 
 /**
  * Represents a generic pathfinding algorithm.
  * <p>
- * The class provides a base structure for different pathfinding algorithms. It
- * contains fields and methods
- * common to many algorithms, like maintaining the set of currently explored
- * cells, keeping track of steps taken,
- * and handling the timing of actions.
+ * The class provides a base structure for different pathfinding algorithms
+ * that are stepped by the game loop so their progress can be watched. It keeps
+ * track of steps taken, handles the timing of actions and marks the explored
+ * cells and the final path on the grid.
  * </p>
+ * The search state of each run lives in a fresh {@link SearchContext}, and the
+ * grid to search is passed in rather than read from the {@code CellManager}.
  */
 public abstract class Algorithm {
 
@@ -37,23 +36,17 @@ public abstract class Algorithm {
         return steps;
     }
 
-    /** Set of cells currently being processed. */
-    public HashSet<Cell> currentLayer = new HashSet<Cell>();
+    /** Search state of the current run. */
+    protected SearchContext context = new SearchContext();
 
-    /** Set of cells to be processed in the next iteration. */
-    public HashSet<Cell> nextLayer = new HashSet<Cell>();
-
-    /** Set of cells that have already been processed. */
-    public HashSet<Cell> exploredCells = new HashSet<Cell>();
-
-    // Linked List to backtrack from
-    protected HashMap<Cell, Cell> predecessorMap = new HashMap<>();
-
-    /** List of cell indexes forming the path. */
+    /** List of cells forming the path. */
     protected ArrayList<Cell> path = new ArrayList<Cell>();
 
-    /** Manager to access cells and their details. */
-    protected CellManager cells;
+    /** Outcome of the current run, once its path is marked. */
+    protected PathResult result;
+
+    /** Grid being searched. */
+    protected Grid grid;
 
     /** Starting cell for the pathfinding algorithm. */
     protected Cell start;
@@ -62,12 +55,18 @@ public abstract class Algorithm {
     protected Cell end;
 
     /**
-     * Initializes the algorithm by setting the start and end cells.
+     * Initializes the algorithm by setting the grid, start and end cells.
+     *
+     * @param grid       The grid to search.
+     * @param startIndex Index of the starting cell.
+     * @param endIndex   Index of the ending cell.
      */
-    public void startAlgorithm() {
-        this.cells = CellManager.Instance;
-        this.start = cells.GetCellByIndex(cells.GetStartIndex());
-        this.end = cells.GetCellByIndex(cells.GetEndIndex());
+    public void startAlgorithm(Grid grid, int startIndex, int endIndex) {
+        this.grid = grid;
+        this.start = new Cell(grid, startIndex);
+        this.end = new Cell(grid, endIndex);
+        this.context = new SearchContext();
+        this.result = null;
     }
 
     /**
@@ -76,6 +75,14 @@ public abstract class Algorithm {
      */
     public abstract void Pathfind();
 
+    /**
+     * Returns the headless search this algorithm animates, for running the same
+     * strategy to completion outside of the game loop.
+     *
+     * @return The stateless search behind this algorithm.
+     */
+    public abstract PathSearch GetSearch();
+
     /**
      * Invoked when the target or end cell is found by the algorithm.
      * 
@@ -92,6 +99,50 @@ public abstract class Algorithm {
         Game.Instance.restart();
     }
 
+    /**
+     * Marks the cells of a path as the fastest route and records them, along
+     * with the result of the run.
+     *
+     * @param indices The cell indices from start to end.
+     */
+    protected void markPath(int[] indices) {
+        if (!path.isEmpty())
+            return;
+
+        int cost = 0;
+        for (int i = 0; i < indices.length; i++) {
+            grid.markFastestPath(indices[i]);
+            path.add(new Cell(grid, indices[i]));
+            if (i > 0)
+                cost += grid.getCost(indices[i]);
+        }
+        result = new PathResult(indices, cost, context.getExpanded());
+    }
+
+    /**
+     * Shows a result found earlier instead of searching for it, as when the
+     * path was cached by a previous run on the same grid.
+     *
+     * @param found The result to show.
+     */
+    public void ShowPath(PathResult found) {
+        if (!found.isFound()) {
+            EndNotFound();
+            return;
+        }
+
+        markPath(found.getPath());
+        result = found;
+        System.out.println("End found at: " + end.GraphPosition() + " (cached)");
+    }
+
+    /**
+     * @return The result of the current run, or null until its path is marked.
+     */
+    public PathResult GetResult() {
+        return result;
+    }
+
     /**
      * Handles the action timing for the algorithm based on the provided
      * configuration.
@@ -99,22 +150,19 @@ public abstract class Algorithm {
      * @return True if the algorithm should take the next action, otherwise False.
      */
     public final boolean HandleActionTime() {
-        if (Looper.getTime() / steps > Config.getActionTime()) {
-            Config.getAlgorithm().steps++;
+        if (Scheduler.getTime() / steps > Config.getActionTime()) {
+            steps++;
             return true;
         }
         return false;
     }
 
     /**
-     * Resets the algorithm's state, clearing explored cells and resetting steps.
+     * Resets the algorithm's state, clearing the path and resetting steps.
      */
     public void reset() {
         steps = 0;
         path.clear();
-        predecessorMap.clear();
-        currentLayer.clear();
-        nextLayer.clear();
-        currentLayer.add(CellManager.Instance.GetCellByVector(Config.getStartCell()));
+        result = null;
     }
 }
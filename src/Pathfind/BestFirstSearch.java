@@ -0,0 +1,126 @@
+package Pathfind;
+
+import Cells.GridMap;
+
+/**
+ * Common driver for the searches that expand cells in order of a priority
+ * kept in the {@link IndexedMinHeap} of a {@link SearchContext}.
+ * <p>
+ * Subclasses decide which cells an expansion reaches and at what cost
+ * ({@link #expand(SearchContext, int)}) and how far a cell is estimated to be
+ * from the goal ({@link #heuristic(SearchContext, int)}). The driver takes care
+ * of the open list, the parent and cost tables, stepping and building the
+ * result. Like every {@link PathSearch}, subclasses must keep no per-query
+ * state of their own.
+ * </p>
+ */
+public abstract class BestFirstSearch implements SteppedSearch {
+
+    @Override
+    public void start(SearchContext context, GridMap map, int start, int goal) {
+        context.begin(map, start, goal);
+        context.requireCosts();
+
+        context.reach(start, -1);
+        context.g[start] = 0;
+        context.open.insertOrDecrease(start, heuristic(context, start));
+    }
+
+    /**
+     * Expands the most promising open cell.
+     */
+    @Override
+    public int step(SearchContext context) {
+        if (context.status != SearchContext.RUNNING)
+            return context.status;
+
+        if (context.open.isEmpty()) {
+            context.status = SearchContext.EXHAUSTED;
+            return context.status;
+        }
+
+        int current = context.open.poll();
+        if (current == context.goal) {
+            context.status = SearchContext.FOUND;
+            return context.status;
+        }
+
+        context.close(current);
+        expand(context, current);
+
+        return current;
+    }
+
+    /**
+     * Runs a started query until the goal is found or the open list is
+     * exhausted.
+     *
+     * @param context The context of a started query.
+     * @return True if the goal was reached.
+     */
+    public boolean run(SearchContext context) {
+        while (step(context) >= 0) {
+        }
+        return context.isFound();
+    }
+
+    @Override
+    public PathResult search(GridMap map, int start, int goal, SearchContext context) {
+        start(context, map, start, goal);
+
+        if (!run(context))
+            return PathResult.notFound(context.expanded);
+
+        return new PathResult(path(context), context.g[goal], context.expanded);
+    }
+
+    @Override
+    public int[] path(SearchContext context) {
+        return context.path();
+    }
+
+    /**
+     * Reaches the neighbors of a cell that has just been closed, usually through
+     * {@link #relax(SearchContext, int, int, double)}.
+     *
+     * @param context The context of the query.
+     * @param current The cell being expanded.
+     */
+    protected abstract void expand(SearchContext context, int current);
+
+    /**
+     * Estimates the cost from a cell to the goal. Must never overestimate it,
+     * or the path found may not be the shortest.
+     *
+     * @param context The context of the query.
+     * @param cell    The cell to estimate from.
+     * @return The estimated remaining cost.
+     */
+    protected abstract double heuristic(SearchContext context, int cell);
+
+    /**
+     * Offers a route to {@code next} through {@code current}, keeping it if it
+     * is the first or the cheapest one found so far.
+     *
+     * @param context The context of the query.
+     * @param current The cell being expanded.
+     * @param next    The cell reached.
+     * @param cost    The cost of moving from {@code current} to {@code next}.
+     */
+    protected final void relax(SearchContext context, int current, int next, double cost) {
+        if (context.isClosed(next))
+            return;
+
+        double tentativeG = context.g[current] + cost;
+
+        if (!context.isSeen(next)) {
+            context.reach(next, current);
+            context.g[next] = tentativeG;
+            context.open.insertOrDecrease(next, tentativeG + heuristic(context, next));
+        } else if (tentativeG < context.g[next]) {
+            context.g[next] = tentativeG;
+            context.parent[next] = current;
+            context.open.insertOrDecrease(next, tentativeG + heuristic(context, next));
+        }
+    }
+}
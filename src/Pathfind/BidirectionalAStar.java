@@ -0,0 +1,14 @@
+package Pathfind;
+
+/**
+ * BidirectionalAStar animates a {@link BidirectionalAStarSearch}: A* runs from
+ * the start and from the end in turn, one expansion each, until the two
+ * searches meet and no shorter route can remain.
+ */
+public class BidirectionalAStar extends AStar {
+
+    public BidirectionalAStar() {
+        super(new BidirectionalAStarSearch());
+    }
+
+}
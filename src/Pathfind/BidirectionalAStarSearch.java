@@ -0,0 +1,122 @@
+package Pathfind;
+
+import Cells.GridMap;
+
+/**
+ * A* run from the start and the goal at the same time, each step expanding a
+ * cell of whichever half has fewer open cells, until the two searches meet.
+ * <p>
+ * The backward half lives in the reverse context of the
+ * {@link SearchContext} and is an {@link AStarSearch} towards the start that
+ * pays for the cell it leaves rather than the one it enters, so the cost
+ * reached from the start plus the cost remaining to the goal is the cost of
+ * the whole route, terrain included. Whenever an expansion touches a cell the
+ * other half has reached, the route through it becomes a candidate, and the
+ * shortest candidate so far is kept as {@code best}.
+ * </p>
+ * Meeting is not enough to stop: a shorter route may still exist. Each half
+ * uses the average of the two distance heuristics, half the distance to its
+ * goal minus half the distance back to its start, so the heuristics of the
+ * two halves sum to zero at every cell and both stay consistent. Any route
+ * not yet found passes through an open cell of each half, and by consistency
+ * the F values of those two cells sum to at most the length of the route. So
+ * once the smallest F values of the two open lists add up to {@code best},
+ * no shorter route is left and the search stops. Unlike stopping on either
+ * open list alone, neither half has to search past the middle.
+ */
+public class BidirectionalAStarSearch implements SteppedSearch {
+
+    /** The searches each half runs. Stateless, so every query shares them. */
+    private final AStarSearch forward = new AStarSearch(false, true);
+    private final AStarSearch backward = new AStarSearch(true, true);
+
+    @Override
+    public void start(SearchContext context, GridMap map, int start, int goal) {
+        forward.start(context, map, start, goal);
+        backward.start(context.reverse(), map, goal, start);
+
+        if (start == goal) {
+            context.meet = start;
+            context.best = 0;
+            context.status = SearchContext.FOUND;
+        }
+    }
+
+    @Override
+    public int step(SearchContext context) {
+        if (context.status != SearchContext.RUNNING)
+            return context.status;
+
+        SearchContext reverse = context.reverse();
+
+        if (lowestF(context) + lowestF(reverse) >= context.best) {
+            context.status = context.meet != -1 ? SearchContext.FOUND : SearchContext.EXHAUSTED;
+            return context.status;
+        }
+
+        boolean backwardTurn = reverse.open.size() < context.open.size();
+        SearchContext side = backwardTurn ? reverse : context;
+        SearchContext other = backwardTurn ? context : reverse;
+        AStarSearch half = backwardTurn ? backward : forward;
+
+        int current = half.step(side);
+        if (current < 0) {
+            // Cannot happen while the stopping rule above holds, but never loop.
+            context.status = context.meet != -1 ? SearchContext.FOUND : SearchContext.EXHAUSTED;
+            return context.status;
+        }
+
+        GridMap map = side.map;
+        int rows = map.getRows();
+        int x = current % rows;
+        int y = current / rows;
+
+        meet(context, side, other, current);
+        if (y + 1 < map.getCols())
+            meet(context, side, other, current + rows);
+        if (y > 0)
+            meet(context, side, other, current - rows);
+        if (x > 0)
+            meet(context, side, other, current - 1);
+        if (x + 1 < rows)
+            meet(context, side, other, current + 1);
+
+        return current;
+    }
+
+    private static double lowestF(SearchContext half) {
+        if (half.open.isEmpty())
+            return Double.POSITIVE_INFINITY;
+        return half.open.getKey(half.open.peek());
+    }
+
+    private static void meet(SearchContext context, SearchContext side, SearchContext other, int cell) {
+        if (!side.isSeen(cell) || !other.isSeen(cell))
+            return;
+
+        double length = side.g[cell] + other.g[cell];
+        if (length < context.best) {
+            context.best = length;
+            context.meet = cell;
+        }
+    }
+
+    @Override
+    public int[] path(SearchContext context) {
+        return context.joinedPath();
+    }
+
+    @Override
+    public PathResult search(GridMap map, int start, int goal, SearchContext context) {
+        start(context, map, start, goal);
+
+        while (step(context) >= 0) {
+        }
+
+        int expanded = context.expanded + context.reverse().expanded;
+        if (!context.isFound())
+            return PathResult.notFound(expanded);
+
+        return new PathResult(path(context), context.best, expanded);
+    }
+}
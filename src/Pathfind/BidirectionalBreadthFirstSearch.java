@@ -0,0 +1,126 @@
+package Pathfind;
+
+import Cells.GridMap;
+
+/**
+ * A breadth-first search that floods from the start and the goal at the same
+ * time and stops where the two floods meet.
+ * <p>
+ * The two halves take turns expanding one whole layer each. Each half only
+ * needs to cover about half the distance, so on open maps roughly half as many
+ * cells are explored as with {@link BreadthFirstSearch}. The backward half
+ * lives in the reverse context of the {@link SearchContext}.
+ * </p>
+ * When a layer discovers a cell the other half has already reached, the
+ * shortest route through all such cells of that layer is kept, which is the
+ * shortest path overall.
+ */
+public class BidirectionalBreadthFirstSearch implements LayeredSearch {
+
+    @Override
+    public void start(SearchContext context, GridMap map, int start, int goal) {
+        SearchContext reverse = context.reverse();
+
+        begin(context, map, start, goal);
+        begin(reverse, map, goal, start);
+
+        if (start == goal) {
+            context.meet = start;
+            context.best = 0;
+            context.status = SearchContext.FOUND;
+        }
+    }
+
+    private void begin(SearchContext half, GridMap map, int from, int to) {
+        half.begin(map, from, to);
+        half.requireQueue();
+        half.requireDistances();
+
+        half.reach(from, -1);
+        half.g[from] = 0;
+        half.queue[half.tail++] = from;
+    }
+
+    @Override
+    public int stepLayer(SearchContext context) {
+        if (context.status != SearchContext.RUNNING)
+            return context.status;
+
+        SearchContext reverse = context.reverse();
+        SearchContext side = context.backwardTurn ? reverse : context;
+        SearchContext other = context.backwardTurn ? context : reverse;
+        context.backwardTurn = !context.backwardTurn;
+
+        if (side.head == side.tail) {
+            context.status = SearchContext.EXHAUSTED;
+            return context.status;
+        }
+
+        int layerEnd = side.tail;
+        while (side.head < layerEnd) {
+            expand(context, side, other, side.queue[side.head++]);
+        }
+
+        if (context.meet != -1) {
+            context.status = SearchContext.FOUND;
+            return context.status;
+        }
+
+        return side.tail - layerEnd;
+    }
+
+    private void expand(SearchContext context, SearchContext side, SearchContext other, int current) {
+        side.expanded++;
+
+        GridMap map = side.map;
+        int rows = map.getRows();
+        int x = current % rows;
+        int y = current / rows;
+
+        // Same order as Vector2.up, down, left, right
+        if (y + 1 < map.getCols())
+            visit(context, side, other, current, current + rows);
+        if (y > 0)
+            visit(context, side, other, current, current - rows);
+        if (x > 0)
+            visit(context, side, other, current, current - 1);
+        if (x + 1 < rows)
+            visit(context, side, other, current, current + 1);
+    }
+
+    private void visit(SearchContext context, SearchContext side, SearchContext other, int current, int next) {
+        if (side.isSeen(next) || !side.map.isPassable(next))
+            return;
+
+        side.reach(next, current);
+        side.g[next] = side.g[current] + 1;
+        side.queue[side.tail++] = next;
+
+        if (other.isSeen(next)) {
+            double length = side.g[next] + other.g[next];
+            if (length < context.best) {
+                context.best = length;
+                context.meet = next;
+            }
+        }
+    }
+
+    @Override
+    public int[] path(SearchContext context) {
+        return context.joinedPath();
+    }
+
+    @Override
+    public PathResult search(GridMap map, int start, int goal, SearchContext context) {
+        start(context, map, start, goal);
+
+        while (stepLayer(context) >= 0) {
+        }
+
+        int expanded = context.expanded + context.reverse().expanded;
+        if (!context.isFound())
+            return PathResult.notFound(expanded);
+
+        return new PathResult(path(context), context.best, expanded);
+    }
+}
@@ -0,0 +1,14 @@
+package Pathfind;
+
+/**
+ * BidirectionalFloodfill animates a {@link BidirectionalBreadthFirstSearch}:
+ * two wavefronts, one from the start and one from the end, take turns
+ * spreading by a layer until they meet in the middle.
+ */
+public class BidirectionalFloodfill extends Floodfill {
+
+    public BidirectionalFloodfill() {
+        super(new BidirectionalBreadthFirstSearch());
+    }
+
+}
@@ -0,0 +1,221 @@
+package Pathfind;
+
+import Cells.GridMap;
+
+/**
+ * A breadth-first search whose frontier and visited set are bitsets over the
+ * cell indices.
+ * <p>
+ * Because cells are laid out as {@code x + y * rows}, the neighbors of a whole
+ * word of frontier cells are that word shifted by one bit (left and right) or
+ * by {@code rows} bits (up and down). Each layer is expanded by shifting the
+ * frontier words in all four directions and masking the result with the
+ * passable cells that have not been visited yet, 64 cells at a time. Only the
+ * non-zero words of the frontier are touched.
+ * </p>
+ *
+ * <p>
+ * No parent table is kept. Instead, the layer each cell was reached in is
+ * stored modulo 3 in two more bitsets. Neighboring cells are at most one layer
+ * apart, so walking back from the goal, the neighbor one layer closer to the
+ * start is always the only one with the previous remainder.
+ * </p>
+ * A query run through {@link #search(GridMap, int, int, SearchContext)} never
+ * looks at individual cells until it builds the path. Stepping it with
+ * {@link #stepLayer(SearchContext)} also lists every discovered cell for
+ * {@link Floodfill} to animate. Paths are as short as those of
+ * {@link BreadthFirstSearch}, although ties may be broken differently.
+ */
+public class BitsetBreadthFirstSearch implements LayeredSearch {
+
+    @Override
+    public void start(SearchContext context, GridMap map, int start, int goal) {
+        context.begin(map, start, goal);
+        context.requireQueue();
+        context.requireBitsets();
+
+        context.queue[context.tail++] = start;
+
+        int word = start >>> 6;
+        context.visitedBits[word] |= 1L << start;
+        context.frontierBits[word] |= 1L << start;
+        context.frontierWords[context.frontierCount++] = word;
+
+        if (start == goal)
+            context.status = SearchContext.FOUND;
+    }
+
+    @Override
+    public int stepLayer(SearchContext context) {
+        if (context.status != SearchContext.RUNNING)
+            return context.status;
+
+        int before = context.tail;
+        expandLayer(context, true);
+
+        if (context.status != SearchContext.RUNNING)
+            return context.status;
+        return context.tail - before;
+    }
+
+    @Override
+    public int[] path(SearchContext context) {
+        if (context.status != SearchContext.FOUND)
+            return new int[0];
+
+        GridMap map = context.map;
+        int rows = map.getRows();
+        int size = map.size();
+
+        int[] path = new int[context.layer + 1];
+        int cell = context.goal;
+        path[context.layer] = cell;
+
+        for (int depth = context.layer - 1; depth >= 0; depth--) {
+            int x = cell % rows;
+            int remainder = depth % 3;
+
+            // Same order as Vector2.up, down, left, right
+            if (cell + rows < size && isInLayer(context, cell + rows, remainder))
+                cell += rows;
+            else if (cell - rows >= 0 && isInLayer(context, cell - rows, remainder))
+                cell -= rows;
+            else if (x > 0 && isInLayer(context, cell - 1, remainder))
+                cell -= 1;
+            else
+                cell += 1;
+
+            path[depth] = cell;
+        }
+
+        return path;
+    }
+
+    @Override
+    public PathResult search(GridMap map, int start, int goal, SearchContext context) {
+        start(context, map, start, goal);
+
+        while (context.status == SearchContext.RUNNING)
+            expandLayer(context, false);
+
+        int[] path = path(context);
+        if (path.length == 0)
+            return PathResult.notFound(context.expanded);
+        return new PathResult(path, path.length - 1, context.expanded);
+    }
+
+    /**
+     * Expands every cell of the current frontier and makes the cells it
+     * discovers the new frontier, updating the status of the query.
+     *
+     * @param record True to append every discovered cell to the FIFO frontier.
+     */
+    private void expandLayer(SearchContext context, boolean record) {
+        if (context.frontierCount == 0) {
+            context.status = SearchContext.EXHAUSTED;
+            return;
+        }
+
+        context.layer++;
+
+        int rows = context.map.getRows();
+        int shift = rows & 63;
+        int rowWords = rows >>> 6;
+        int remainder = context.layer % 3;
+
+        for (int i = 0; i < context.frontierCount; i++) {
+            int word = context.frontierWords[i];
+            long bits = context.frontierBits[word];
+            context.frontierBits[word] = 0;
+            context.expanded += Long.bitCount(bits);
+
+            // Same order as Vector2.up, down, left, right
+            if (shift == 0) {
+                discover(context, word + rowWords, bits, null, remainder);
+                discover(context, word - rowWords, bits, null, remainder);
+            } else {
+                discover(context, word + rowWords, bits << shift, null, remainder);
+                discover(context, word + rowWords + 1, bits >>> (64 - shift), null, remainder);
+                discover(context, word - rowWords, bits >>> shift, null, remainder);
+                discover(context, word - rowWords - 1, bits << (64 - shift), null, remainder);
+            }
+            discover(context, word, bits >>> 1, context.notLastBits, remainder);
+            discover(context, word - 1, bits << 63, context.notLastBits, remainder);
+            discover(context, word, bits << 1, context.notFirstBits, remainder);
+            discover(context, word + 1, bits >>> 63, context.notFirstBits, remainder);
+        }
+
+        if (record) {
+            for (int i = 0; i < context.nextCount; i++) {
+                int word = context.nextWords[i];
+                int base = word << 6;
+                for (long bits = context.nextBits[word]; bits != 0; bits &= bits - 1) {
+                    context.queue[context.tail++] = base + Long.numberOfTrailingZeros(bits);
+                }
+            }
+        }
+
+        // The old frontier has been cleared word by word, so it becomes the
+        // empty buffer for the next layer.
+        long[] bits = context.frontierBits;
+        context.frontierBits = context.nextBits;
+        context.nextBits = bits;
+
+        int[] active = context.frontierWords;
+        context.frontierWords = context.nextWords;
+        context.nextWords = active;
+        context.frontierCount = context.nextCount;
+        context.nextCount = 0;
+
+        if ((context.visitedBits[context.goal >>> 6] & (1L << context.goal)) != 0)
+            context.status = SearchContext.FOUND;
+    }
+
+    /**
+     * Adds the unvisited, passable cells among {@code candidates} to the next
+     * frontier.
+     *
+     * @param word       Index of the word the candidates fall in.
+     * @param candidates Frontier cells shifted onto their neighbors.
+     * @param edge       For steps left or right, the cells that can be entered
+     *                   without wrapping around to the neighboring column;
+     *                   null for steps up or down.
+     * @param remainder  The current layer modulo 3.
+     */
+    private static void discover(SearchContext context, int word, long candidates, long[] edge, int remainder) {
+        if (candidates == 0 || word < 0 || word >= context.bitWords)
+            return;
+
+        if (edge != null)
+            candidates &= edge[word];
+
+        long fresh = candidates & context.passableBits[word] & ~context.visitedBits[word];
+        if (fresh == 0)
+            return;
+
+        context.visitedBits[word] |= fresh;
+        if ((remainder & 1) != 0)
+            context.layerLowBits[word] |= fresh;
+        if ((remainder & 2) != 0)
+            context.layerHighBits[word] |= fresh;
+
+        if (context.nextBits[word] == 0)
+            context.nextWords[context.nextCount++] = word;
+        context.nextBits[word] |= fresh;
+    }
+
+    /**
+     * @return True if the cell has been reached in a layer with the given
+     *         remainder modulo 3.
+     */
+    private static boolean isInLayer(SearchContext context, int cell, int remainder) {
+        int word = cell >>> 6;
+        long bit = 1L << cell;
+        if ((context.visitedBits[word] & bit) == 0)
+            return false;
+
+        int low = (context.layerLowBits[word] & bit) != 0 ? 1 : 0;
+        int high = (context.layerHighBits[word] & bit) != 0 ? 2 : 0;
+        return (low | high) == remainder;
+    }
+}
@@ -0,0 +1,13 @@
+package Pathfind;
+
+/**
+ * BitsetFloodfill animates a {@link BitsetBreadthFirstSearch}: the same
+ * wavefront as {@link Floodfill}, expanded 64 cells at a time.
+ */
+public class BitsetFloodfill extends Floodfill {
+
+    public BitsetFloodfill() {
+        super(new BitsetBreadthFirstSearch());
+    }
+
+}
@@ -0,0 +1,104 @@
+package Pathfind;
+
+import Cells.GridMap;
+
+/**
+ * A headless breadth-first search, the core behind {@link Floodfill}.
+ * <p>
+ * The frontier is a plain int array used as a FIFO queue and the visited set
+ * is a generation-stamped int array, both kept in a {@link SearchContext}, so a
+ * query allocates nothing but its result once the arrays have grown to the
+ * size of the grid. The search itself is stateless and may be shared between
+ * threads, as long as each thread brings its own context.
+ * </p>
+ * A query can be advanced one whole layer at a time with
+ * {@link #stepLayer(SearchContext)}, which is how {@link Floodfill} animates it.
+ */
+public class BreadthFirstSearch implements LayeredSearch {
+
+    @Override
+    public void start(SearchContext context, GridMap map, int start, int goal) {
+        context.begin(map, start, goal);
+        context.requireQueue();
+
+        context.reach(start, -1);
+        context.queue[context.tail++] = start;
+    }
+
+    @Override
+    public int stepLayer(SearchContext context) {
+        if (context.status != SearchContext.RUNNING)
+            return context.status;
+
+        if (context.head == context.tail) {
+            context.status = SearchContext.EXHAUSTED;
+            return context.status;
+        }
+
+        int layerEnd = context.tail;
+        while (context.head < layerEnd) {
+            if (expand(context, context.queue[context.head++]))
+                return context.status;
+        }
+
+        return context.tail - layerEnd;
+    }
+
+    @Override
+    public int[] path(SearchContext context) {
+        return context.path();
+    }
+
+    @Override
+    public PathResult search(GridMap map, int start, int goal, SearchContext context) {
+        start(context, map, start, goal);
+
+        while (context.head < context.tail) {
+            if (expand(context, context.queue[context.head++])) {
+                int[] path = context.path();
+                return new PathResult(path, path.length - 1, context.expanded);
+            }
+        }
+
+        context.status = SearchContext.EXHAUSTED;
+        return PathResult.notFound(context.expanded);
+    }
+
+    /**
+     * Expands a cell, queueing its unvisited neighbors.
+     *
+     * @return True if the cell is the goal.
+     */
+    private boolean expand(SearchContext context, int current) {
+        context.expanded++;
+
+        if (current == context.goal) {
+            context.status = SearchContext.FOUND;
+            return true;
+        }
+
+        int rows = context.map.getRows();
+        int x = current % rows;
+        int y = current / rows;
+
+        // Same order as Vector2.up, down, left, right
+        if (y + 1 < context.map.getCols())
+            visit(context, current, current + rows);
+        if (y > 0)
+            visit(context, current, current - rows);
+        if (x > 0)
+            visit(context, current, current - 1);
+        if (x + 1 < rows)
+            visit(context, current, current + 1);
+
+        return false;
+    }
+
+    private void visit(SearchContext context, int current, int next) {
+        if (context.isSeen(next) || !context.map.isPassable(next))
+            return;
+
+        context.reach(next, current);
+        context.queue[context.tail++] = next;
+    }
+}
@@ -0,0 +1,191 @@
+package Pathfind;
+
+import java.util.Arrays;
+
+/**
+ * A monotone priority queue of int ids keyed by small integers, with a ring of
+ * buckets (Dial's algorithm).
+ * <p>
+ * Every queued key must lie within {@code span} of the lowest key still
+ * queued, and no key lower than the last one polled may be queued. Dijkstra
+ * over integer costs of at most {@code span - 1} satisfies both, since every
+ * new key is the polled key plus one cost. Each bucket is a doubly linked list
+ * threaded through per-id arrays, so inserting, lowering a key and polling are
+ * all O(1) apart from skipping empty buckets, and nothing is allocated once
+ * the queue has grown to the size of the graph.
+ * </p>
+ * Ids with the same key come out in the order they were queued.
+ */
+public class BucketQueue {
+
+    /** First and last id of each bucket, or -1 if it is empty. */
+    private final int[] heads;
+    private final int[] tails;
+
+    /** {@code span - 1}, as span is a power of two. */
+    private final int mask;
+
+    /** Neighbors of each id inside its bucket, or -1 at either end. */
+    private int[] next = new int[0];
+    private int[] previous = new int[0];
+
+    /** Key of each id. Only meaningful while the id is queued. */
+    private long[] keys = new long[0];
+
+    /** Whether each id is queued. */
+    private boolean[] queued = new boolean[0];
+
+    /** Key of the bucket the next poll starts looking from. */
+    private long cursor;
+
+    /** Number of queued ids. */
+    private int size;
+
+    /**
+     * @param span Number of distinct keys that may be queued at once. Rounded
+     *             up to a power of two.
+     */
+    public BucketQueue(int span) {
+        if (span <= 0) {
+            throw new IllegalArgumentException("Span must be positive.");
+        }
+
+        int buckets = Integer.highestOneBit(span);
+        if (buckets < span)
+            buckets <<= 1;
+
+        heads = new int[buckets];
+        tails = new int[buckets];
+        mask = buckets - 1;
+        Arrays.fill(heads, -1);
+        Arrays.fill(tails, -1);
+    }
+
+    /**
+     * Grows the queue so it can hold the ids {@code [0, capacity)}, emptying it
+     * if it has to grow.
+     *
+     * @param capacity The number of distinct ids.
+     */
+    public void ensureCapacity(int capacity) {
+        if (capacity <= queued.length)
+            return;
+
+        next = new int[capacity];
+        previous = new int[capacity];
+        keys = new long[capacity];
+        queued = new boolean[capacity];
+        Arrays.fill(heads, -1);
+        Arrays.fill(tails, -1);
+        size = 0;
+    }
+
+    /**
+     * Removes every queued id. Runs in time proportional to the number of
+     * buckets plus the number of ids still queued, not the capacity.
+     */
+    public void clear() {
+        for (int bucket = 0; bucket < heads.length; bucket++) {
+            for (int id = heads[bucket]; id != -1; id = next[id]) {
+                queued[id] = false;
+            }
+            heads[bucket] = -1;
+            tails[bucket] = -1;
+        }
+        size = 0;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean contains(int id) {
+        return queued[id];
+    }
+
+    public long getKey(int id) {
+        return keys[id];
+    }
+
+    /**
+     * Queues an id, or lowers its key if it is already queued with a higher one.
+     *
+     * @param id  The id to queue.
+     * @param key The key of the id, no lower than the last key polled and less
+     *            than {@code span} above it.
+     * @return True if the id was queued or its key lowered.
+     */
+    public boolean insertOrDecrease(int id, long key) {
+        if (queued[id]) {
+            if (key >= keys[id])
+                return false;
+            unlink(id);
+        } else {
+            size++;
+        }
+
+        // Once the queue runs empty, the first key queued need not be the
+        // lowest, so the cursor moves back to any lower one
+        if (size == 1 || key < cursor)
+            cursor = key;
+
+        keys[id] = key;
+        queued[id] = true;
+
+        // Append to the bucket, so equal keys keep their order
+        int bucket = (int) (key & mask);
+        next[id] = -1;
+        previous[id] = tails[bucket];
+        if (tails[bucket] == -1)
+            heads[bucket] = id;
+        else
+            next[tails[bucket]] = id;
+        tails[bucket] = id;
+        return true;
+    }
+
+    /**
+     * Removes and returns the id with the lowest key.
+     *
+     * @return The id with the lowest key.
+     * @throws IllegalStateException if the queue is empty.
+     */
+    public int poll() {
+        int id = peek();
+        unlink(id);
+        queued[id] = false;
+        size--;
+        return id;
+    }
+
+    /**
+     * @return The id with the lowest key, without removing it.
+     */
+    public int peek() {
+        if (size == 0)
+            throw new IllegalStateException("Queue is empty.");
+
+        while (heads[(int) (cursor & mask)] == -1) {
+            cursor++;
+        }
+        return heads[(int) (cursor & mask)];
+    }
+
+    private void unlink(int id) {
+        int bucket = (int) (keys[id] & mask);
+
+        if (previous[id] == -1)
+            heads[bucket] = next[id];
+        else
+            next[previous[id]] = next[id];
+
+        if (next[id] == -1)
+            tails[bucket] = previous[id];
+        else
+            previous[next[id]] = previous[id];
+    }
+}
@@ -0,0 +1,376 @@
+package Pathfind;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import Cells.GridMap;
+
+/**
+ * The abstract graph behind {@link HierarchicalSearch} (HPA*).
+ * <p>
+ * The map is cut into square clusters of {@code clusterSize} cells. Wherever
+ * two neighboring clusters share a run of cells that are open on both sides of
+ * their border, the run is an entrance, crossed by one transition in its
+ * middle, or by one at each end if it is long. The two cells of a transition
+ * become nodes of the graph, joined by an edge costing a single step. Inside
+ * each cluster, every pair of nodes is joined by an edge costing the cheapest
+ * route between them that stays in the cluster.
+ * </p>
+ *
+ * <p>
+ * Edges are directed, as a step costs whatever the cell entered costs. Nodes
+ * are numbered cluster by cluster, and the edges of each node are stored
+ * contiguously (compressed sparse rows), so the graph is a handful of int
+ * arrays. Building it runs one small Dijkstra per node, cluster by cluster on
+ * a {@link ForkJoinPool}.
+ * </p>
+ * The graph describes the map as it was when built and is immutable, so any
+ * number of threads may query it. Build a new one after editing the map.
+ */
+public final class ClusterGraph {
+
+    /** Cluster size used when none is given. */
+    public static final int DEFAULT_CLUSTER_SIZE = 16;
+
+    /** Largest cluster size, which keeps every intra-cluster cost in an int. */
+    public static final int MAX_CLUSTER_SIZE = 1024;
+
+    /** Entrances at least this long get a transition at each end. */
+    private static final int LONG_ENTRANCE = 6;
+
+    /** Clusters whose edges one task computes. */
+    private static final int CLUSTERS_PER_TASK = 64;
+
+    private final GridMap map;
+    private final int clusterSize;
+    private final int clustersX, clustersY;
+
+    /** Nodes of cluster c are {@code clusterStart[c]} to {@code clusterStart[c + 1] - 1}. */
+    final int[] clusterStart;
+
+    /** Cell of each node, ascending within each cluster. */
+    final int[] nodeCell;
+
+    /** Edges of node u are {@code edgeStart[u]} to {@code edgeStart[u + 1] - 1}. */
+    final int[] edgeStart;
+
+    /** Node each edge leads to. */
+    final int[] edgeTarget;
+
+    /** Cost of each edge. */
+    final int[] edgeCost;
+
+    /** Most nodes in any one cluster. */
+    final int maxClusterNodes;
+
+    private ClusterGraph(GridMap map, int clusterSize, ForkJoinPool pool) {
+        this.map = map;
+        this.clusterSize = clusterSize;
+        this.clustersX = (map.getRows() + clusterSize - 1) / clusterSize;
+        this.clustersY = (map.getCols() + clusterSize - 1) / clusterSize;
+
+        // 1. Transitions between neighboring clusters, as pairs of cells
+        int[] transitions = findTransitions();
+        int transitionCount = transitions.length / 2;
+
+        // 2. Their cells become the nodes, sorted by cluster then cell
+        long[] keys = new long[2 * transitionCount];
+        for (int i = 0; i < keys.length; i++) {
+            int cell = transitions[i];
+            keys[i] = (long) clusterOf(cell) << 32 | cell;
+        }
+        Arrays.sort(keys);
+
+        int nodes = 0;
+        for (int i = 0; i < keys.length; i++) {
+            if (i == 0 || keys[i] != keys[i - 1])
+                keys[nodes++] = keys[i];
+        }
+
+        nodeCell = new int[nodes];
+        clusterStart = new int[clustersX * clustersY + 1];
+        for (int node = 0; node < nodes; node++) {
+            nodeCell[node] = (int) keys[node];
+            clusterStart[(int) (keys[node] >>> 32) + 1]++;
+        }
+        int most = 0;
+        for (int c = 0; c < clustersX * clustersY; c++) {
+            most = Math.max(most, clusterStart[c + 1]);
+            clusterStart[c + 1] += clusterStart[c];
+        }
+        maxClusterNodes = most;
+
+        // 3. Room for every edge: one per transition, and one to each other
+        // node of the cluster
+        int[] slotStart = new int[nodes + 1];
+        for (int i = 0; i < 2 * transitionCount; i++) {
+            slotStart[nodeOf(transitions[i]) + 1]++;
+        }
+        for (int node = 0; node < nodes; node++) {
+            int c = clusterOf(nodeCell[node]);
+            slotStart[node + 1] += slotStart[node] + clusterStart[c + 1] - clusterStart[c] - 1;
+        }
+
+        int[] targets = new int[slotStart[nodes]];
+        int[] costs = new int[slotStart[nodes]];
+        int[] counts = new int[nodes];
+
+        for (int i = 0; i < transitionCount; i++) {
+            int a = transitions[2 * i], b = transitions[2 * i + 1];
+            int nodeA = nodeOf(a), nodeB = nodeOf(b);
+            targets[slotStart[nodeA] + counts[nodeA]] = nodeB;
+            costs[slotStart[nodeA] + counts[nodeA]++] = map.getCost(b);
+            targets[slotStart[nodeB] + counts[nodeB]] = nodeA;
+            costs[slotStart[nodeB] + counts[nodeB]++] = map.getCost(a);
+        }
+
+        // 4. Intra-cluster edges, each node writing only its own slots
+        pool.invoke(new EdgeTask(this, 0, clustersX * clustersY, slotStart, targets, costs, counts));
+
+        // 5. Pack the edges, dropping the slots of unreachable pairs
+        edgeStart = new int[nodes + 1];
+        for (int node = 0; node < nodes; node++) {
+            edgeStart[node + 1] = edgeStart[node] + counts[node];
+        }
+        edgeTarget = new int[edgeStart[nodes]];
+        edgeCost = new int[edgeStart[nodes]];
+        for (int node = 0; node < nodes; node++) {
+            System.arraycopy(targets, slotStart[node], edgeTarget, edgeStart[node], counts[node]);
+            System.arraycopy(costs, slotStart[node], edgeCost, edgeStart[node], counts[node]);
+        }
+    }
+
+    /**
+     * Builds the graph of a map on the common pool.
+     *
+     * @param map         The map to abstract. Should not change while the
+     *                    graph is in use, e.g. a {@code FrozenGrid}.
+     * @param clusterSize Width and height of a cluster, in cells.
+     * @return The graph.
+     */
+    public static ClusterGraph build(GridMap map, int clusterSize) {
+        return build(map, clusterSize, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Builds the graph of a map on the given pool.
+     *
+     * @param map         The map to abstract.
+     * @param clusterSize Width and height of a cluster, in cells.
+     * @param pool        The pool to compute the clusters on.
+     * @return The graph.
+     */
+    public static ClusterGraph build(GridMap map, int clusterSize, ForkJoinPool pool) {
+        if (map == null || pool == null) {
+            throw new IllegalArgumentException("Map and pool must not be null");
+        }
+        if (clusterSize < 2 || clusterSize > MAX_CLUSTER_SIZE) {
+            throw new IllegalArgumentException("Cluster size " + clusterSize + " is outside 2.." + MAX_CLUSTER_SIZE);
+        }
+        return new ClusterGraph(map, clusterSize, pool);
+    }
+
+    /**
+     * Finds the transitions across every border between two clusters.
+     *
+     * @return The cells of each transition in pairs, the near side first.
+     */
+    private int[] findTransitions() {
+        int rows = map.getRows(), cols = map.getCols();
+        int[] pairs = new int[64];
+        int count = 0;
+
+        // Vertical borders, between a cluster and the one to its right
+        for (int x = clusterSize - 1; x + 1 < rows; x += clusterSize) {
+            for (int y0 = 0; y0 < cols; y0 += clusterSize) {
+                int y1 = Math.min(y0 + clusterSize, cols);
+                int run = 0;
+                for (int y = y0; y <= y1; y++) {
+                    int cell = x + y * rows;
+                    if (y < y1 && map.isPassable(cell) && map.isPassable(cell + 1)) {
+                        run++;
+                        continue;
+                    }
+                    if (run > 0) {
+                        pairs = grow(pairs, 2 * count + 4);
+                        count = addEntrance(pairs, count, x + (y - run) * rows, rows, run, 1);
+                    }
+                    run = 0;
+                }
+            }
+        }
+
+        // Horizontal borders, between a cluster and the one below it
+        for (int y = clusterSize - 1; y + 1 < cols; y += clusterSize) {
+            for (int x0 = 0; x0 < rows; x0 += clusterSize) {
+                int x1 = Math.min(x0 + clusterSize, rows);
+                int run = 0;
+                for (int x = x0; x <= x1; x++) {
+                    int cell = x + y * rows;
+                    if (x < x1 && map.isPassable(cell) && map.isPassable(cell + rows)) {
+                        run++;
+                        continue;
+                    }
+                    if (run > 0) {
+                        pairs = grow(pairs, 2 * count + 4);
+                        count = addEntrance(pairs, count, x - run + y * rows, 1, run, rows);
+                    }
+                    run = 0;
+                }
+            }
+        }
+
+        return Arrays.copyOf(pairs, 2 * count);
+    }
+
+    /**
+     * Adds the transitions of one entrance.
+     *
+     * @param pairs  Transition cells, with room for two more pairs.
+     * @param count  Number of pairs so far.
+     * @param first  First cell of the run on the near side of the border.
+     * @param along  Index step from one cell of the run to the next.
+     * @param length Number of cells in the run.
+     * @param across Index step from a near cell to the cell across the border.
+     * @return The new number of pairs.
+     */
+    private static int addEntrance(int[] pairs, int count, int first, int along, int length, int across) {
+        if (length >= LONG_ENTRANCE) {
+            int last = first + along * (length - 1);
+            pairs[2 * count] = first;
+            pairs[2 * count + 1] = first + across;
+            count++;
+            pairs[2 * count] = last;
+            pairs[2 * count + 1] = last + across;
+        } else {
+            int middle = first + along * ((length - 1) / 2);
+            pairs[2 * count] = middle;
+            pairs[2 * count + 1] = middle + across;
+        }
+        return count + 1;
+    }
+
+    private static int[] grow(int[] pairs, int length) {
+        if (length <= pairs.length)
+            return pairs;
+        return Arrays.copyOf(pairs, Math.max(2 * pairs.length, length));
+    }
+
+    // Computes the intra-cluster edges of a range of clusters.
+    private static class EdgeTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final transient ClusterGraph graph;
+        private final int lowCluster, highCluster;
+        private final int[] slotStart, targets, costs, counts;
+
+        EdgeTask(ClusterGraph graph, int lowCluster, int highCluster, int[] slotStart, int[] targets, int[] costs,
+                int[] counts) {
+            this.graph = graph;
+            this.lowCluster = lowCluster;
+            this.highCluster = highCluster;
+            this.slotStart = slotStart;
+            this.targets = targets;
+            this.costs = costs;
+            this.counts = counts;
+        }
+
+        @Override
+        protected void compute() {
+            if (highCluster - lowCluster > CLUSTERS_PER_TASK) {
+                int middle = (lowCluster + highCluster) >>> 1;
+                invokeAll(new EdgeTask(graph, lowCluster, middle, slotStart, targets, costs, counts),
+                        new EdgeTask(graph, middle, highCluster, slotStart, targets, costs, counts));
+                return;
+            }
+
+            int[] nodeCell = graph.nodeCell;
+            ClusterSearch search = new ClusterSearch();
+            for (int c = lowCluster; c < highCluster; c++) {
+                int first = graph.clusterStart[c], end = graph.clusterStart[c + 1];
+                for (int u = first; u < end; u++) {
+                    graph.searchCluster(search, c, nodeCell[u], -1, false);
+                    for (int v = first; v < end; v++) {
+                        int cost = search.distance(nodeCell[v]);
+                        if (v == u || cost == ClusterSearch.UNREACHED)
+                            continue;
+                        targets[slotStart[u] + counts[u]] = v;
+                        costs[slotStart[u] + counts[u]++] = cost;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Runs a search confined to one cluster.
+     *
+     * @param search   The scratch state to search with.
+     * @param cluster  The cluster to stay in.
+     * @param source   Cell to search from, inside the cluster.
+     * @param target   Cell to stop at, or -1 to reach the whole cluster.
+     * @param backward True to find the costs of reaching the source.
+     */
+    void searchCluster(ClusterSearch search, int cluster, int source, int target, boolean backward) {
+        int x0 = cluster % clustersX * clusterSize;
+        int y0 = cluster / clustersX * clusterSize;
+        search.run(map, x0, y0, Math.min(clusterSize, map.getRows() - x0), Math.min(clusterSize, map.getCols() - y0),
+                source, target, backward);
+    }
+
+    /**
+     * @param cell A cell index.
+     * @return The cluster holding the cell.
+     */
+    int clusterOf(int cell) {
+        int rows = map.getRows();
+        return cell % rows / clusterSize + cell / rows / clusterSize * clustersX;
+    }
+
+    /**
+     * @param cell A cell index.
+     * @return The node on that cell, or -1 if it is not a node.
+     */
+    int nodeOf(int cell) {
+        int c = clusterOf(cell);
+        int node = Arrays.binarySearch(nodeCell, clusterStart[c], clusterStart[c + 1], cell);
+        return node < 0 ? -1 : node;
+    }
+
+    /**
+     * @return The map the graph was built from.
+     */
+    public GridMap getMap() {
+        return map;
+    }
+
+    /**
+     * @return Width and height of a cluster, in cells.
+     */
+    public int getClusterSize() {
+        return clusterSize;
+    }
+
+    /**
+     * @return Number of clusters the map was cut into.
+     */
+    public int getClusterCount() {
+        return clustersX * clustersY;
+    }
+
+    /**
+     * @return Number of nodes of the graph.
+     */
+    public int getNodeCount() {
+        return nodeCell.length;
+    }
+
+    /**
+     * @return Number of directed edges of the graph.
+     */
+    public int getEdgeCount() {
+        return edgeTarget.length;
+    }
+}
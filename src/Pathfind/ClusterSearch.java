@@ -0,0 +1,133 @@
+package Pathfind;
+
+import java.util.Arrays;
+
+import Cells.Grid;
+import Cells.GridMap;
+
+/**
+ * Dijkstra's algorithm confined to one rectangular window of a
+ * {@link GridMap}, usually a cluster of a {@link ClusterGraph}.
+ * <p>
+ * All state is indexed by the position inside the window, so it is only as
+ * large as the biggest window searched, however large the map. Each thread
+ * needs its own instance.
+ * </p>
+ */
+class ClusterSearch {
+
+    /** Distance of a cell that was not reached. */
+    static final int UNREACHED = Integer.MAX_VALUE;
+
+    /** Cost from the source to each cell of the window. */
+    private int[] dist = new int[0];
+
+    /** Window position each cell was reached from, or -1 for the source. */
+    private int[] parent = new int[0];
+
+    private final BucketQueue open = new BucketQueue(Grid.MAX_COST + 1);
+
+    private int x0, y0, width, height, rows;
+
+    /**
+     * Finds the cost from {@code source} to every cell of a window, or stops
+     * early once {@code target} is settled.
+     *
+     * @param map      The map to search.
+     * @param x0       Left edge of the window.
+     * @param y0       Top edge of the window.
+     * @param width    Width of the window.
+     * @param height   Height of the window.
+     * @param source   Cell index to search from, inside the window.
+     * @param target   Cell index to stop at, or -1 to reach the whole window.
+     * @param backward True to pay for the cell being left instead of the one
+     *                 entered, so the costs are those of reaching the source
+     *                 rather than leaving it.
+     */
+    void run(GridMap map, int x0, int y0, int width, int height, int source, int target, boolean backward) {
+        this.x0 = x0;
+        this.y0 = y0;
+        this.width = width;
+        this.height = height;
+        this.rows = map.getRows();
+
+        int size = width * height;
+        if (dist.length < size) {
+            dist = new int[size];
+            parent = new int[size];
+        }
+        open.ensureCapacity(size);
+        open.clear();
+        Arrays.fill(dist, 0, size, UNREACHED);
+
+        int from = local(source);
+        int to = target == -1 ? -1 : local(target);
+        dist[from] = 0;
+        parent[from] = -1;
+        open.insertOrDecrease(from, 0);
+
+        while (!open.isEmpty()) {
+            int current = open.poll();
+            if (current == to)
+                return;
+
+            int x = current % width;
+            int y = current / width;
+            int cell = x0 + x + (y0 + y) * rows;
+
+            // Same order as Vector2.up, down, left, right
+            if (y + 1 < height)
+                relax(map, current, cell, current + width, cell + rows, backward);
+            if (y > 0)
+                relax(map, current, cell, current - width, cell - rows, backward);
+            if (x > 0)
+                relax(map, current, cell, current - 1, cell - 1, backward);
+            if (x + 1 < width)
+                relax(map, current, cell, current + 1, cell + 1, backward);
+        }
+    }
+
+    private void relax(GridMap map, int current, int cell, int next, int nextCell, boolean backward) {
+        if (!map.isPassable(nextCell))
+            return;
+
+        int cost = dist[current] + map.getCost(backward ? cell : nextCell);
+        if (cost < dist[next]) {
+            dist[next] = cost;
+            parent[next] = current;
+            open.insertOrDecrease(next, cost);
+        }
+    }
+
+    private int local(int cell) {
+        return cell % rows - x0 + (cell / rows - y0) * width;
+    }
+
+    /**
+     * @param cell A cell index inside the window of the last run.
+     * @return The cost between the source and the cell, or {@link #UNREACHED}.
+     */
+    int distance(int cell) {
+        return dist[local(cell)];
+    }
+
+    /**
+     * Builds the route between the source of the last run and a cell.
+     *
+     * @param cell A cell reached by the last run.
+     * @return The cell indices from {@code cell} back to the source.
+     */
+    int[] traceToSource(int cell) {
+        int length = 0;
+        for (int at = local(cell); at != -1; at = parent[at]) {
+            length++;
+        }
+
+        int[] route = new int[length];
+        int i = 0;
+        for (int at = local(cell); at != -1; at = parent[at]) {
+            route[i++] = x0 + at % width + (y0 + at / width) * rows;
+        }
+        return route;
+    }
+}
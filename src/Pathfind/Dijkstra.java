@@ -0,0 +1,14 @@
+package Pathfind;
+
+/**
+ * Dijkstra animates a {@link DijkstraSearch} the same way {@link AStar}
+ * animates A*. On weighted terrain the explored area grows in rings of equal
+ * cost rather than equal distance, spreading slowly through expensive cells.
+ */
+public class Dijkstra extends AStar {
+
+    public Dijkstra() {
+        super(new DijkstraSearch());
+    }
+
+}
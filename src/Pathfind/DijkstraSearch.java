@@ -0,0 +1,103 @@
+package Pathfind;
+
+import Cells.GridMap;
+
+/**
+ * Dijkstra's algorithm over the terrain costs of a {@link GridMap}.
+ * <p>
+ * Cell costs are small integers, so every route cost is an integer too and the
+ * open list is a {@link BucketQueue} instead of a binary heap: inserting,
+ * lowering a cost and taking the cheapest cell are all O(1). Without a
+ * heuristic the search spreads evenly in cost from the start, which makes it
+ * the reference for the cheapest route over weighted terrain. On a uniform
+ * grid it expands the same cells as a flood fill.
+ * </p>
+ * Like {@link AStarSearch}, the search is stateless and keeps everything a
+ * query changes in its {@link SearchContext}.
+ */
+public class DijkstraSearch implements SteppedSearch {
+
+    @Override
+    public void start(SearchContext context, GridMap map, int start, int goal) {
+        context.begin(map, start, goal);
+        context.requireBuckets();
+
+        context.reach(start, -1);
+        context.g[start] = 0;
+        context.buckets.insertOrDecrease(start, 0);
+    }
+
+    /**
+     * Expands the cheapest open cell.
+     */
+    @Override
+    public int step(SearchContext context) {
+        if (context.status != SearchContext.RUNNING)
+            return context.status;
+
+        if (context.buckets.isEmpty()) {
+            context.status = SearchContext.EXHAUSTED;
+            return context.status;
+        }
+
+        int current = context.buckets.poll();
+        if (current == context.goal) {
+            context.status = SearchContext.FOUND;
+            return context.status;
+        }
+
+        context.close(current);
+
+        GridMap map = context.map;
+        int rows = map.getRows();
+        int x = current % rows;
+        int y = current / rows;
+
+        // Same order as Vector2.up, down, left, right
+        if (y + 1 < map.getCols() && map.isPassable(current + rows))
+            relax(context, current, current + rows);
+        if (y > 0 && map.isPassable(current - rows))
+            relax(context, current, current - rows);
+        if (x > 0 && map.isPassable(current - 1))
+            relax(context, current, current - 1);
+        if (x + 1 < rows && map.isPassable(current + 1))
+            relax(context, current, current + 1);
+
+        return current;
+    }
+
+    private static void relax(SearchContext context, int current, int next) {
+        if (context.isClosed(next))
+            return;
+
+        double tentativeG = context.g[current] + context.map.getCost(next);
+
+        if (!context.isSeen(next)) {
+            context.reach(next, current);
+        } else if (tentativeG < context.g[next]) {
+            context.parent[next] = current;
+        } else {
+            return;
+        }
+        context.g[next] = tentativeG;
+        context.buckets.insertOrDecrease(next, (long) tentativeG);
+    }
+
+    @Override
+    public PathResult search(GridMap map, int start, int goal, SearchContext context) {
+        start(context, map, start, goal);
+
+        while (step(context) >= 0) {
+        }
+
+        if (!context.isFound())
+            return PathResult.notFound(context.expanded);
+
+        return new PathResult(path(context), context.g[goal], context.expanded);
+    }
+
+    @Override
+    public int[] path(SearchContext context) {
+        return context.path();
+    }
+}
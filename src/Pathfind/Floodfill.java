@@ -1,105 +1,101 @@
 package Pathfind;
 
-import java.util.ArrayList;
-import java.util.List;
-
 import Cells.Cell;
-import Driver.Config;
-import Utilities.Vector2;
-
+import Cells.Grid;
+
+/**
+ * Floodfill explores the grid breadth-first, one whole layer per loop, so the
+ * animation shows a wavefront spreading out from the start cell.
+ * <p>
+ * The search itself is performed by a {@link LayeredSearch}, a
+ * {@link BreadthFirstSearch} unless a subclass supplies another one. This class
+ * only marks each newly discovered layer and the final path on the grid.
+ * </p>
+ */
 public class Floodfill extends Algorithm {
 
-    private Vector2[] directions = {
-            Vector2.up, Vector2.down, Vector2.left, Vector2.right
-    };
+    private final LayeredSearch search;
 
-    @Override
-    public void Pathfind() {
+    /** True once the search of the current run was started. */
+    private boolean started;
 
-        if (currentLayer.size() == 0)
-            EndNotFound();
+    /** Cells of the forward frontier already marked as explored. */
+    private int markedForward;
 
-        List<Cell> temp = new ArrayList<>(currentLayer);
-        currentLayer.clear();
-        for (Cell cell : temp) {
-            ExploreCell(cell);
-        }
-        currentLayer.addAll(nextLayer);
-        nextLayer.clear();
+    /** Cells of the backward frontier already marked as explored. */
+    private int markedBackward;
+
+    public Floodfill() {
+        this(new BreadthFirstSearch());
     }
 
-    private void ExploreCell(Cell cell) {
-        if (cell.IsEnd())
-            EndFound(cell);
+    /**
+     * Animates another layered search the same way as the flood fill.
+     *
+     * @param search The search to animate.
+     */
+    protected Floodfill(LayeredSearch search) {
+        this.search = search;
+    }
 
-        exploredCells.add(cell);
+    @Override
+    public void startAlgorithm(Grid grid, int startIndex, int endIndex) {
+        super.startAlgorithm(grid, startIndex, endIndex);
 
-        for (Vector2 direction : directions) {
-            AddToNextLayer(cell, ValidateDirection(cell, direction));
-        }
+        started = false;
+        markedForward = 0;
+        markedBackward = 0;
     }
 
-    private boolean AddToNextLayer(Cell currentCell, Cell neighboringCell) {
-        if (neighboringCell == null || neighboringCell.IsWall() || neighboringCell.IsStart()) {
-            return false;
-        }
-
-        if (!nextLayer.contains(neighboringCell) && !currentLayer.contains(neighboringCell)) {
-            neighboringCell.MarkAsExplored();
-            nextLayer.add(neighboringCell); // assuming nextLayer is a HashSet or similar
-            predecessorMap.put(neighboringCell, currentCell);
-            return true;
-        }
-        return false;
+    @Override
+    public PathSearch GetSearch() {
+        return search;
     }
 
-    private Cell ValidateDirection(Cell cell, Vector2 direction) {
-        Vector2 newPosition = cell.GraphPosition().plus(direction);
+    @Override
+    public void Pathfind() {
 
-        // Check if the new position is within the grid boundaries
-        if (newPosition.x < 0 || newPosition.x >= Config.getNumCellRows() || newPosition.y < 0
-                || newPosition.y >= Config.getNumCellCols()) {
-            return null; // Out of bounds
+        // The maze is written after the start, so start searching on the first step
+        if (!started) {
+            started = true;
+            search.start(context, grid, start.index, end.index);
         }
 
-        Cell exploring = cells.GetCellByVector(newPosition);
-        if (exploring == null) {
-            return null;
-        } else if (WasExplored(exploring)) {
-            return exploring;
-        }
-        return null;
-    }
+        if (context.isFinished())
+            return;
 
-    private boolean WasExplored(Cell exploring) {
+        int result = search.stepLayer(context);
 
-        if (!exploring.IsExplored()) {
-            return exploring.IsPath() || exploring.IsEnd();
+        if (result == SearchContext.EXHAUSTED) {
+            EndNotFound();
+            return;
         }
 
-        return false;
-    }
+        markedForward = markDiscovered(context, markedForward);
+        if (context.getReverse() != null)
+            markedBackward = markDiscovered(context.getReverse(), markedBackward);
 
-    private void backtrack(Cell endCell) {
-        Cell currentCell = endCell;
+        if (result == SearchContext.FOUND)
+            EndFound(end);
+    }
 
-        while (currentCell != null && currentCell != start) {
-            path.add(0, currentCell);
-            currentCell = predecessorMap.get(currentCell);
+    /**
+     * Marks the cells discovered since the last call as explored.
+     *
+     * @return The number of cells of the frontier marked so far.
+     */
+    private int markDiscovered(SearchContext frontier, int marked) {
+        for (int i = marked; i < frontier.getDiscoveredCount(); i++) {
+            grid.markExplored(frontier.getDiscovered(i), steps);
         }
-        path.add(0, start);
+        return frontier.getDiscoveredCount();
     }
 
     @Override
     public void EndFound(Cell end) {
         System.out.println("End found at: " + end.GraphPosition());
 
-        backtrack(end); // Backtrack from the end cell
-        for (Cell c : path) {
-            if (c != null) {
-                c.MarkAsFastestPath();
-            }
-        }
+        markPath(search.path(context));
     }
 
 }
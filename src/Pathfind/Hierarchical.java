@@ -0,0 +1,67 @@
+package Pathfind;
+
+import Cells.Grid;
+
+/**
+ * Hierarchical animates a {@link HierarchicalSearch}. The abstract route is
+ * found as soon as the algorithm starts, then refined one segment per loop, so
+ * the animation shows the path being laid down cluster by cluster.
+ * <p>
+ * The cluster graph is built from a snapshot of the grid on the first step of
+ * every run, once the maze is written, so walls toggled since the last run
+ * are taken into account.
+ * </p>
+ */
+public class Hierarchical extends Algorithm {
+
+    private final HierarchicalSearch search = new HierarchicalSearch();
+
+    /** Route being refined, or null before the first step and once the run is over. */
+    private HierarchicalPath route;
+
+    /** True once the route of the current run was found. */
+    private boolean started;
+
+    @Override
+    public void startAlgorithm(Grid grid, int startIndex, int endIndex) {
+        super.startAlgorithm(grid, startIndex, endIndex);
+
+        route = null;
+        started = false;
+    }
+
+    @Override
+    public PathSearch GetSearch() {
+        return search;
+    }
+
+    @Override
+    public void Pathfind() {
+
+        // The maze is written after the start, so find the route on the first step
+        if (!started) {
+            started = true;
+            route = search.find(grid.snapshot(), start.index, end.index, context);
+        }
+
+        if (route == null)
+            return;
+
+        if (!route.isFound()) {
+            route = null;
+            EndNotFound();
+            return;
+        }
+
+        if (route.hasNextSegment()) {
+            for (int cell : route.nextSegment()) {
+                grid.markExplored(cell, steps);
+            }
+            return;
+        }
+
+        markPath(route.toPath());
+        route = null;
+        EndFound(end);
+    }
+}
@@ -0,0 +1,148 @@
+package Pathfind;
+
+import java.util.Arrays;
+
+/**
+ * A route found by {@link HierarchicalSearch}, refined into cells on demand.
+ * <p>
+ * The route is first known only by its waypoints: the start, the transition
+ * cells it crosses between clusters and the goal. Consecutive waypoints are
+ * either neighbors across a cluster border or in the same cluster, so each
+ * segment can be refined on its own by a search confined to one cluster. A
+ * caller that only needs the first few steps, such as a unit about to move,
+ * can refine the segments one at a time with {@link #nextSegment()} and stop
+ * early.
+ * </p>
+ * A path is not thread-safe. It refines its segments with its own scratch
+ * state, so it stays valid after the query's {@link SearchContext} is reused.
+ */
+public final class HierarchicalPath {
+
+    private final ClusterGraph graph;
+
+    /** Cells the route passes through, from start to goal. Empty if not found. */
+    private final int[] waypoints;
+
+    private final double cost;
+    private final int expanded;
+
+    /** Next segment {@link #nextSegment()} refines. */
+    private int next;
+
+    /** Scratch state of {@link #nextSegment()}, created on first use. */
+    private ClusterSearch search;
+
+    HierarchicalPath(ClusterGraph graph, int[] waypoints, double cost, int expanded) {
+        this.graph = graph;
+        this.waypoints = waypoints;
+        this.cost = cost;
+        this.expanded = expanded;
+    }
+
+    static HierarchicalPath notFound(ClusterGraph graph, int expanded) {
+        return new HierarchicalPath(graph, new int[0], Double.POSITIVE_INFINITY, expanded);
+    }
+
+    /**
+     * @return True if a route was found.
+     */
+    public boolean isFound() {
+        return waypoints.length > 0;
+    }
+
+    /**
+     * @return The total cost of the route, the same as that of the refined
+     *         path.
+     */
+    public double getCost() {
+        return cost;
+    }
+
+    /**
+     * @return Number of abstract nodes expanded to find the route.
+     */
+    public int getExpanded() {
+        return expanded;
+    }
+
+    /**
+     * @return The cells the route passes through, from start to goal.
+     */
+    public int[] getWaypoints() {
+        return Arrays.copyOf(waypoints, waypoints.length);
+    }
+
+    /**
+     * @return Number of segments between consecutive waypoints.
+     */
+    public int getSegmentCount() {
+        return Math.max(0, waypoints.length - 1);
+    }
+
+    /**
+     * @return True if {@link #nextSegment()} has a segment left to refine.
+     */
+    public boolean hasNextSegment() {
+        return next < getSegmentCount();
+    }
+
+    /**
+     * Refines the next segment of the route.
+     *
+     * @return The cells from one waypoint to the next, both included.
+     * @throws IllegalStateException if every segment was already refined.
+     */
+    public int[] nextSegment() {
+        if (!hasNextSegment())
+            throw new IllegalStateException("No segment left to refine.");
+
+        if (search == null)
+            search = new ClusterSearch();
+        return segment(next++, search);
+    }
+
+    /**
+     * Refines the whole route at once.
+     *
+     * @return The cell indices from start to goal, or an empty array if no
+     *         route was found.
+     */
+    public int[] toPath() {
+        if (search == null)
+            search = new ClusterSearch();
+        return toPath(search);
+    }
+
+    int[] toPath(ClusterSearch search) {
+        if (waypoints.length <= 1)
+            return Arrays.copyOf(waypoints, waypoints.length);
+
+        int[][] segments = new int[waypoints.length - 1][];
+        int length = 1;
+        for (int i = 0; i < segments.length; i++) {
+            segments[i] = segment(i, search);
+            length += segments[i].length - 1;
+        }
+
+        // Consecutive segments share their waypoint
+        int[] path = new int[length];
+        path[0] = waypoints[0];
+        int at = 1;
+        for (int[] segment : segments) {
+            System.arraycopy(segment, 1, path, at, segment.length - 1);
+            at += segment.length - 1;
+        }
+        return path;
+    }
+
+    private int[] segment(int i, ClusterSearch search) {
+        int from = waypoints[i], to = waypoints[i + 1];
+        int cluster = graph.clusterOf(from);
+        if (cluster != graph.clusterOf(to))
+            return new int[] { from, to };
+
+        // Searching back from the far end traces the segment in order
+        graph.searchCluster(search, cluster, to, from, true);
+        return search.traceToSource(from);
+    }
+}
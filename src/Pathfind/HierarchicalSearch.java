@@ -0,0 +1,263 @@
+package Pathfind;
+
+import java.util.concurrent.ForkJoinPool;
+
+import Cells.GridMap;
+
+/**
+ * Hierarchical pathfinding (HPA*) over a precomputed {@link ClusterGraph}.
+ * <p>
+ * A query links the start and the goal to the nodes of their own clusters
+ * with two searches confined to those clusters, then runs A* over the
+ * abstract graph instead of the cells. The route found is refined one cluster
+ * at a time, only where it goes, either all at once by
+ * {@link #search(GridMap, int, int, SearchContext)} or lazily through the
+ * {@link HierarchicalPath} returned by
+ * {@link #find(GridMap, int, int, SearchContext)}. The abstract graph holds a
+ * few nodes per cluster, so a query costs about as much as a few cluster
+ * searches plus an A* whose size grows with the distance in clusters, not the
+ * size of the map.
+ * </p>
+ *
+ * <p>
+ * The price is optimality: routes may only cross cluster borders at
+ * transitions, so they can come out slightly longer than the shortest path.
+ * </p>
+ * The graph is built for the first map searched and rebuilt whenever a
+ * different map comes along, so search an immutable snapshot such as a
+ * {@code FrozenGrid} and take a new one after editing the map. Like every
+ * {@link PathSearch}, one instance can serve many threads.
+ */
+public class HierarchicalSearch implements PathSearch {
+
+    private final int clusterSize;
+    private final ForkJoinPool pool;
+
+    /** True if the graph was given rather than built on demand. */
+    private final boolean fixed;
+
+    /** Graph of the map searched last. */
+    private volatile ClusterGraph graph;
+
+    /**
+     * Creates a search that builds its graph with the default cluster size.
+     */
+    public HierarchicalSearch() {
+        this(ClusterGraph.DEFAULT_CLUSTER_SIZE);
+    }
+
+    /**
+     * Creates a search that builds its graph on the common pool.
+     *
+     * @param clusterSize Width and height of a cluster, in cells.
+     */
+    public HierarchicalSearch(int clusterSize) {
+        this(clusterSize, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Creates a search that builds its graph on the given pool.
+     *
+     * @param clusterSize Width and height of a cluster, in cells.
+     * @param pool        The pool to build graphs on.
+     */
+    public HierarchicalSearch(int clusterSize, ForkJoinPool pool) {
+        if (pool == null) {
+            throw new IllegalArgumentException("Pool must not be null");
+        }
+        if (clusterSize < 2 || clusterSize > ClusterGraph.MAX_CLUSTER_SIZE) {
+            throw new IllegalArgumentException(
+                    "Cluster size " + clusterSize + " is outside 2.." + ClusterGraph.MAX_CLUSTER_SIZE);
+        }
+        this.clusterSize = clusterSize;
+        this.pool = pool;
+        this.fixed = false;
+    }
+
+    /**
+     * Creates a search over a prebuilt graph, which only answers queries on
+     * the map the graph was built from.
+     *
+     * @param graph The graph to search.
+     */
+    public HierarchicalSearch(ClusterGraph graph) {
+        if (graph == null) {
+            throw new IllegalArgumentException("Graph must not be null");
+        }
+        this.clusterSize = graph.getClusterSize();
+        this.pool = null;
+        this.fixed = true;
+        this.graph = graph;
+    }
+
+    /**
+     * Returns the graph of a map, building it if the map is not the one
+     * searched last.
+     *
+     * @param map The map to search.
+     * @return The graph of the map.
+     * @throws IllegalArgumentException if the search was given a graph of
+     *                                  another map.
+     */
+    public ClusterGraph graphFor(GridMap map) {
+        ClusterGraph current = graph;
+        if (current != null && current.getMap() == map)
+            return current;
+
+        if (fixed) {
+            throw new IllegalArgumentException("The graph was built for another map");
+        }
+
+        synchronized (this) {
+            current = graph;
+            if (current == null || current.getMap() != map) {
+                current = ClusterGraph.build(map, clusterSize, pool);
+                graph = current;
+            }
+            return current;
+        }
+    }
+
+    @Override
+    public PathResult search(GridMap map, int start, int goal, SearchContext context) {
+        HierarchicalPath route = find(map, start, goal, context);
+        if (!route.isFound())
+            return PathResult.notFound(route.getExpanded());
+
+        return new PathResult(route.toPath(context.window()), route.getCost(), route.getExpanded());
+    }
+
+    /**
+     * Finds a route from {@code start} to {@code goal} without refining it.
+     *
+     * @param map     The map to search.
+     * @param start   Index of the start cell.
+     * @param goal    Index of the goal cell.
+     * @param context Scratch state for the query. Must not be in use by another
+     *                thread.
+     * @return The route, whose segments can be refined one at a time.
+     */
+    public HierarchicalPath find(GridMap map, int start, int goal, SearchContext context) {
+        ClusterGraph graph = graphFor(map);
+        int nodes = graph.getNodeCount();
+
+        // Two extra nodes stand for the start and the goal
+        int source = nodes, sink = nodes + 1;
+        context.begin(map, start, goal);
+        context.requireNodes(nodes + 2, graph.maxClusterNodes);
+
+        // Link the start and the goal to the nodes of their clusters
+        ClusterSearch window = context.window();
+        int startCluster = graph.clusterOf(start), goalCluster = graph.clusterOf(goal);
+        int startFirst = graph.clusterStart[startCluster], startEnd = graph.clusterStart[startCluster + 1];
+        int goalFirst = graph.clusterStart[goalCluster], goalEnd = graph.clusterStart[goalCluster + 1];
+
+        graph.searchCluster(window, startCluster, start, -1, false);
+        for (int node = startFirst; node < startEnd; node++) {
+            context.entryCosts[node - startFirst] = window.distance(graph.nodeCell[node]);
+        }
+        int direct = startCluster == goalCluster ? window.distance(goal) : ClusterSearch.UNREACHED;
+
+        graph.searchCluster(window, goalCluster, goal, -1, true);
+        for (int node = goalFirst; node < goalEnd; node++) {
+            context.exitCosts[node - goalFirst] = window.distance(graph.nodeCell[node]);
+        }
+
+        // A* over the abstract graph
+        context.reach(source, -1);
+        context.g[source] = 0;
+        context.open.insertOrDecrease(source, heuristic(context, start));
+
+        while (!context.open.isEmpty()) {
+            int current = context.open.poll();
+            if (current == sink) {
+                context.status = SearchContext.FOUND;
+                break;
+            }
+            context.close(current);
+
+            if (current == source) {
+                for (int node = startFirst; node < startEnd; node++) {
+                    relax(context, graph, current, node, context.entryCosts[node - startFirst]);
+                }
+                relax(context, graph, current, sink, direct);
+                continue;
+            }
+
+            for (int edge = graph.edgeStart[current]; edge < graph.edgeStart[current + 1]; edge++) {
+                relax(context, graph, current, graph.edgeTarget[edge], graph.edgeCost[edge]);
+            }
+            if (current >= goalFirst && current < goalEnd)
+                relax(context, graph, current, sink, context.exitCosts[current - goalFirst]);
+        }
+
+        if (context.status != SearchContext.FOUND) {
+            context.status = SearchContext.EXHAUSTED;
+            return HierarchicalPath.notFound(graph, context.expanded);
+        }
+
+        return new HierarchicalPath(graph, waypoints(context, graph, source, sink), context.g[sink],
+                context.expanded);
+    }
+
+    private static void relax(SearchContext context, ClusterGraph graph, int current, int next, int cost) {
+        if (cost == ClusterSearch.UNREACHED || context.isClosed(next))
+            return;
+
+        double tentativeG = context.g[current] + cost;
+        if (context.isSeen(next) && tentativeG >= context.g[next])
+            return;
+
+        context.reach(next, current);
+        context.g[next] = tentativeG;
+        context.open.insertOrDecrease(next, tentativeG + heuristic(context, cellOf(context, graph, next)));
+    }
+
+    private static int cellOf(SearchContext context, ClusterGraph graph, int node) {
+        int nodes = graph.getNodeCount();
+        if (node == nodes)
+            return context.start;
+        if (node == nodes + 1)
+            return context.goal;
+        return graph.nodeCell[node];
+    }
+
+    /**
+     * Manhattan distance from a cell to the goal, times the lowest cell cost.
+     * Every abstract edge stands for a route of 4-connected steps, so this
+     * never overestimates, and it is much tighter than the Euclidean distance
+     * over routes that cross many clusters.
+     */
+    private static double heuristic(SearchContext context, int cell) {
+        int rows = context.map.getRows();
+        int dx = Math.abs(cell % rows - context.goal % rows);
+        int dy = Math.abs(cell / rows - context.goal / rows);
+        return (dx + dy) * context.minCost;
+    }
+
+    /**
+     * Turns the abstract route into the cells it passes through, dropping a
+     * node that sits on the same cell as the start or the goal.
+     */
+    private static int[] waypoints(SearchContext context, ClusterGraph graph, int source, int sink) {
+        int length = 0;
+        for (int node = sink; node != -1; node = context.parent[node]) {
+            length++;
+        }
+
+        int[] cells = new int[length];
+        int count = 0;
+        for (int node = sink; node != -1; node = context.parent[node]) {
+            int cell = cellOf(context, graph, node);
+            if (count == 0 || cells[count - 1] != cell)
+                cells[count++] = cell;
+        }
+
+        // Collected goal first, so reverse into place
+        int[] route = new int[count];
+        for (int i = 0; i < count; i++) {
+            route[i] = cells[count - 1 - i];
+        }
+        return route;
+    }
+}
@@ -0,0 +1,189 @@
+package Pathfind;
+
+import java.util.Arrays;
+
+/**
+ * A binary min-heap of int ids keyed by primitive doubles.
+ * <p>
+ * Every id in {@code [0, capacity)} has a fixed slot in the position table, so
+ * the heap can tell in O(1) whether an id is queued and lower its key in place
+ * (a real decrease-key) instead of queueing a duplicate entry. Nothing is
+ * allocated once the heap has grown to the size of the graph.
+ * </p>
+ */
+public class IndexedMinHeap {
+
+    /** Ids in heap order. */
+    private int[] heap;
+
+    /** Position of each id inside {@link #heap}, or -1 if it is not queued. */
+    private int[] position;
+
+    /** Key of each id. Only meaningful while the id is queued. */
+    private double[] keys;
+
+    /** Number of queued ids. */
+    private int size;
+
+    /**
+     * Creates a heap able to hold the ids {@code [0, capacity)}.
+     *
+     * @param capacity The number of distinct ids.
+     */
+    public IndexedMinHeap(int capacity) {
+        heap = new int[capacity];
+        position = new int[capacity];
+        keys = new double[capacity];
+        Arrays.fill(position, -1);
+    }
+
+    /**
+     * Grows the heap so it can hold the ids {@code [0, capacity)}. The heap
+     * must be empty.
+     *
+     * @param capacity The number of distinct ids.
+     */
+    public void ensureCapacity(int capacity) {
+        if (capacity <= position.length)
+            return;
+
+        heap = new int[capacity];
+        position = new int[capacity];
+        keys = new double[capacity];
+        Arrays.fill(position, -1);
+        size = 0;
+    }
+
+    /**
+     * Removes every queued id. Runs in time proportional to the number of ids
+     * still queued, not the capacity.
+     */
+    public void clear() {
+        for (int i = 0; i < size; i++) {
+            position[heap[i]] = -1;
+        }
+        size = 0;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean contains(int id) {
+        return position[id] != -1;
+    }
+
+    public double getKey(int id) {
+        return keys[id];
+    }
+
+    /**
+     * Queues an id, or lowers its key if it is already queued with a higher one.
+     *
+     * @param id  The id to queue.
+     * @param key The key of the id.
+     * @return True if the id was queued or its key lowered.
+     */
+    public boolean insertOrDecrease(int id, double key) {
+        int pos = position[id];
+
+        if (pos == -1) {
+            keys[id] = key;
+            heap[size] = id;
+            position[id] = size;
+            siftUp(size++);
+            return true;
+        }
+
+        if (key < keys[id]) {
+            keys[id] = key;
+            siftUp(pos);
+            return true;
+        }
+
+        return false;
+    }
+
+    /**
+     * Removes and returns the id with the lowest key.
+     *
+     * @return The id with the lowest key.
+     * @throws IllegalStateException if the heap is empty.
+     */
+    public int poll() {
+        if (size == 0)
+            throw new IllegalStateException("Heap is empty.");
+
+        int top = heap[0];
+        position[top] = -1;
+
+        size--;
+        if (size > 0) {
+            int last = heap[size];
+            heap[0] = last;
+            position[last] = 0;
+            siftDown(0);
+        }
+
+        return top;
+    }
+
+    /**
+     * @return The id with the lowest key, without removing it.
+     */
+    public int peek() {
+        if (size == 0)
+            throw new IllegalStateException("Heap is empty.");
+        return heap[0];
+    }
+
+    private void siftUp(int pos) {
+        int id = heap[pos];
+        double key = keys[id];
+
+        while (pos > 0) {
+            int parentPos = (pos - 1) >>> 1;
+            int parent = heap[parentPos];
+            if (keys[parent] <= key)
+                break;
+
+            heap[pos] = parent;
+            position[parent] = pos;
+            pos = parentPos;
+        }
+
+        heap[pos] = id;
+        position[id] = pos;
+    }
+
+    private void siftDown(int pos) {
+        int id = heap[pos];
+        double key = keys[id];
+        int half = size >>> 1;
+
+        while (pos < half) {
+            int childPos = 2 * pos + 1;
+            int child = heap[childPos];
+
+            int rightPos = childPos + 1;
+            if (rightPos < size && keys[heap[rightPos]] < keys[child]) {
+                childPos = rightPos;
+                child = heap[rightPos];
+            }
+
+            if (key <= keys[child])
+                break;
+
+            heap[pos] = child;
+            position[child] = pos;
+            pos = childPos;
+        }
+
+        heap[pos] = id;
+        position[id] = pos;
+    }
+}
@@ -0,0 +1,14 @@
+package Pathfind;
+
+/**
+ * JumpPoint animates a {@link JumpPointSearch} the same way {@link AStar}
+ * animates A*. Only the jump points are marked as they are expanded, so the
+ * explored area shows how much of the grid the pruning skips.
+ */
+public class JumpPoint extends AStar {
+
+    public JumpPoint() {
+        super(new JumpPointSearch());
+    }
+
+}
@@ -0,0 +1,170 @@
+package Pathfind;
+
+import Cells.GridMap;
+
+/**
+ * Jump Point Search for uniform-cost, 4-connected grids.
+ * <p>
+ * On a uniform grid most shortest paths are symmetric: they differ only in the
+ * order of their horizontal and vertical moves. JPS only follows the canonical
+ * one, which moves horizontally first, and jumps over every cell that the
+ * canonical paths pass straight through. Only the "jump points" where a path
+ * may have to turn are put on the open list, so far fewer cells are expanded
+ * than with {@link AStarSearch} while the paths found are just as short.
+ * </p>
+ *
+ * <p>
+ * Jump rules:
+ * 1. A vertical jump stops at the goal, or at a cell where the path is forced
+ * to turn: a side neighbor is open while the cell behind it is blocked (the
+ * turn could not have been taken one step earlier).
+ * 2. A horizontal jump stops at the goal, or at a cell from which a vertical
+ * jump in either direction finds a jump point.
+ * 3. A jump point reached horizontally continues horizontally and turns both
+ * ways; one reached vertically continues vertically and turns only towards
+ * its forced neighbors.
+ * </p>
+ * The pruning relies on every step costing the same, so cell costs are
+ * ignored: on weighted terrain the path found has the fewest steps, not the
+ * lowest cost.
+ */
+public class JumpPointSearch extends BestFirstSearch {
+
+    @Override
+    protected void expand(SearchContext context, int current) {
+        GridMap map = context.map;
+        int rows = map.getRows();
+        int x = current % rows;
+        int y = current / rows;
+
+        int parent = context.parent[current];
+
+        if (parent == -1) {
+            // The start cell looks in every direction
+            jumpVertical(context, current, x, y, 1);
+            jumpVertical(context, current, x, y, -1);
+            jumpHorizontal(context, current, x, y, -1);
+            jumpHorizontal(context, current, x, y, 1);
+            return;
+        }
+
+        int px = parent % rows;
+        int py = parent / rows;
+
+        if (py == y) {
+            // Reached horizontally: keep going and turn both ways
+            jumpVertical(context, current, x, y, 1);
+            jumpVertical(context, current, x, y, -1);
+            jumpHorizontal(context, current, x, y, Integer.signum(x - px));
+        } else {
+            // Reached vertically: keep going and turn towards forced neighbors
+            int dy = Integer.signum(y - py);
+            jumpVertical(context, current, x, y, dy);
+            if (isOpen(map, x - 1, y) && !isOpen(map, x - 1, y - dy))
+                jumpHorizontal(context, current, x, y, -1);
+            if (isOpen(map, x + 1, y) && !isOpen(map, x + 1, y - dy))
+                jumpHorizontal(context, current, x, y, 1);
+        }
+    }
+
+    private void jumpVertical(SearchContext context, int current, int x, int y, int dy) {
+        int jumpPoint = scanVertical(context, x, y, dy);
+        if (jumpPoint != -1)
+            relax(context, current, jumpPoint, Math.abs(jumpPoint / context.map.getRows() - y));
+    }
+
+    private void jumpHorizontal(SearchContext context, int current, int x, int y, int dx) {
+        int jumpPoint = scanHorizontal(context, x, y, dx);
+        if (jumpPoint != -1)
+            relax(context, current, jumpPoint, Math.abs(jumpPoint % context.map.getRows() - x));
+    }
+
+    /**
+     * Walks from {@code (x, y)} in vertical direction {@code dy}.
+     *
+     * @return The first jump point met, or -1 if a wall or the edge comes first.
+     */
+    private int scanVertical(SearchContext context, int x, int y, int dy) {
+        GridMap map = context.map;
+
+        while (true) {
+            y += dy;
+            if (!isOpen(map, x, y))
+                return -1;
+
+            int index = x + y * map.getRows();
+            if (index == context.goal)
+                return index;
+
+            if (isOpen(map, x - 1, y) && !isOpen(map, x - 1, y - dy))
+                return index;
+            if (isOpen(map, x + 1, y) && !isOpen(map, x + 1, y - dy))
+                return index;
+        }
+    }
+
+    /**
+     * Walks from {@code (x, y)} in horizontal direction {@code dx}.
+     *
+     * @return The first jump point met, or -1 if a wall or the edge comes first.
+     */
+    private int scanHorizontal(SearchContext context, int x, int y, int dx) {
+        GridMap map = context.map;
+
+        while (true) {
+            x += dx;
+            if (!isOpen(map, x, y))
+                return -1;
+
+            int index = x + y * map.getRows();
+            if (index == context.goal)
+                return index;
+
+            if (scanVertical(context, x, y, 1) != -1 || scanVertical(context, x, y, -1) != -1)
+                return index;
+        }
+    }
+
+    private static boolean isOpen(GridMap map, int x, int y) {
+        return map.inBounds(x, y) && map.isPassable(x + y * map.getRows());
+    }
+
+    /**
+     * Manhattan distance from a cell to the goal, exact on an open 4-connected
+     * grid.
+     */
+    @Override
+    protected double heuristic(SearchContext context, int cell) {
+        int rows = context.map.getRows();
+        return Math.abs(cell % rows - context.goal % rows) + Math.abs(cell / rows - context.goal / rows);
+    }
+
+    /**
+     * Builds the path found by a query, filling in the straight runs of cells
+     * between consecutive jump points.
+     */
+    @Override
+    public int[] path(SearchContext context) {
+        int[] jumpPoints = context.path();
+        if (jumpPoints.length == 0)
+            return jumpPoints;
+
+        int rows = context.map.getRows();
+        int[] path = new int[(int) context.g[context.goal] + 1];
+        int length = 0;
+        path[length++] = jumpPoints[0];
+
+        for (int i = 1; i < jumpPoints.length; i++) {
+            int from = jumpPoints[i - 1];
+            int to = jumpPoints[i];
+            int step = from / rows == to / rows ? Integer.signum(to - from) : Integer.signum(to - from) * rows;
+
+            for (int cell = from + step; cell != to; cell += step) {
+                path[length++] = cell;
+            }
+            path[length++] = to;
+        }
+
+        return path;
+    }
+}
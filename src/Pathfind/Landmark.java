@@ -0,0 +1,18 @@
+package Pathfind;
+
+/**
+ * Landmark animates a {@link LandmarkSearch}, A* with the ALT heuristic. On a
+ * maze the explored area hugs the corridors leading to the end, where plain
+ * A* floods every dead end that points towards it.
+ * <p>
+ * The landmark tables are computed on the first step, once the maze is
+ * written, and again whenever the grid is edited, so walls toggled since the
+ * last run are taken into account.
+ * </p>
+ */
+public class Landmark extends AStar {
+
+    public Landmark() {
+        super(new LandmarkSearch());
+    }
+}
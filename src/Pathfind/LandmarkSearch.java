@@ -0,0 +1,127 @@
+package Pathfind;
+
+import Cells.GridMap;
+
+/**
+ * A* guided by the ALT heuristic of a {@link LandmarkTable}.
+ * <p>
+ * The search and the path are those of {@link AStarSearch}. Only the estimate
+ * changes: the larger of the scaled Euclidean distance and the landmark bound,
+ * both admissible and consistent, so the path is still the cheapest. On mazes
+ * the landmark bound follows the corridors, and far fewer cells are expanded.
+ * </p>
+ * The tables are computed for the first map searched and again whenever a
+ * different map comes along, or the map is edited in place and moves on to a
+ * new {@link GridMap#getVersion() version}. Like every {@link PathSearch}, one
+ * instance can serve many threads.
+ */
+public class LandmarkSearch extends AStarSearch {
+
+    private final int landmarks;
+
+    /** True if the table was given rather than computed on demand. */
+    private final boolean fixed;
+
+    /** Table of the map searched last. */
+    private volatile LandmarkTable table;
+
+    /**
+     * Creates a search that picks the default number of landmarks.
+     */
+    public LandmarkSearch() {
+        this(LandmarkTable.DEFAULT_LANDMARKS);
+    }
+
+    /**
+     * Creates a search that picks the given number of landmarks.
+     *
+     * @param landmarks Number of landmarks. More tighten the heuristic at the
+     *                  cost of memory and lookups.
+     */
+    public LandmarkSearch(int landmarks) {
+        if (landmarks < 1) {
+            throw new IllegalArgumentException("Landmark count must be positive");
+        }
+        this.landmarks = landmarks;
+        this.fixed = false;
+    }
+
+    /**
+     * Creates a search over precomputed tables, for instance ones loaded from
+     * disk, which only answers queries on the map they were computed for.
+     *
+     * @param table The tables to search with.
+     */
+    public LandmarkSearch(LandmarkTable table) {
+        if (table == null) {
+            throw new IllegalArgumentException("Table must not be null");
+        }
+        this.landmarks = table.getLandmarkCount();
+        this.fixed = true;
+        this.table = table;
+    }
+
+    /**
+     * Returns the tables of a map, computing them if the map is not the one
+     * searched last or was edited since.
+     *
+     * @param map The map to search.
+     * @return The tables of the map.
+     * @throws IllegalArgumentException if the search was given the tables of
+     *                                  another map, or of an older version of
+     *                                  this one.
+     */
+    public LandmarkTable tableFor(GridMap map) {
+        LandmarkTable current = table;
+        if (describes(current, map))
+            return current;
+
+        if (fixed) {
+            throw new IllegalArgumentException("The landmark tables were computed for another map");
+        }
+
+        synchronized (this) {
+            current = table;
+            if (!describes(current, map)) {
+                current = LandmarkTable.build(map, landmarks);
+                table = current;
+            }
+            return current;
+        }
+    }
+
+    private static boolean describes(LandmarkTable table, GridMap map) {
+        return table != null && table.getMap() == map && table.getVersion() == map.getVersion();
+    }
+
+    /**
+     * Computes the tables of a map ahead of its first query, so the query
+     * does not pay for them.
+     *
+     * @param map The map to search.
+     * @return The new tables.
+     */
+    public synchronized LandmarkTable prepare(GridMap map) {
+        if (fixed) {
+            throw new IllegalStateException("The landmark tables were given and cannot be recomputed");
+        }
+        table = LandmarkTable.build(map, landmarks);
+        return table;
+    }
+
+    @Override
+    public void start(SearchContext context, GridMap map, int start, int goal) {
+        // Resolved once, so a query keeps the tables it started with
+        context.landmarks = tableFor(map);
+        super.start(context, map, start, goal);
+    }
+
+    /**
+     * The larger of the scaled Euclidean distance and the landmark bound.
+     */
+    @Override
+    protected double heuristic(SearchContext context, int cell) {
+        int bound = context.landmarks.lowerBound(cell, context.goal);
+        return Math.max(super.heuristic(context, cell), bound);
+    }
+}
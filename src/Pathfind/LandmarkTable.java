@@ -0,0 +1,337 @@
+package Pathfind;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+import Cells.GridMap;
+import Utilities.SplitMix64;
+
+/**
+ * Precomputed distances from a few landmark cells to every cell of a map, for
+ * the ALT heuristic (A*, Landmarks, Triangle inequality) of
+ * {@link LandmarkSearch}.
+ * <p>
+ * If {@code d(L, v)} is the cost of the cheapest route from landmark L to v,
+ * the triangle inequality bounds the cost from any cell v to the goal t from
+ * below by {@code d(L, t) - d(L, v)}, and by the same difference of the
+ * routes back to L. The best bound over all landmarks is an admissible,
+ * consistent heuristic that knows about walls: on a maze, where the route is
+ * many times longer than the straight line, it is far tighter than the
+ * Euclidean distance.
+ * </p>
+ *
+ * <p>
+ * Landmarks are picked by farthest-point selection: each new landmark is the
+ * cell farthest from every landmark picked so far, which spreads them around
+ * the edges of the map where they bound the most routes. Each table is filled
+ * by a {@link DijkstraSearch} run to exhaustion, a breadth-first search on a
+ * map of uniform cost. The tables are stored interleaved in one int array, the
+ * distances of each cell from every landmark side by side, so the heuristic
+ * reads one cache line per cell.
+ * </p>
+ * Only the distances from each landmark are stored. A route costs whatever
+ * the cells it enters cost, so the route back to a landmark costs
+ * {@code d(L, v) + cost(L) - cost(v)}, the same cells walked the other way.
+ * Tables describe the map as it was when computed, and can be saved to disk
+ * with {@link #save(Path)} and read back with {@link #load(Path, GridMap)}.
+ */
+public final class LandmarkTable {
+
+    /** Number of landmarks picked when none is given. */
+    public static final int DEFAULT_LANDMARKS = 8;
+
+    /** Distance of a cell that cannot be reached from a landmark. */
+    public static final int UNREACHED = Integer.MAX_VALUE;
+
+    /** First int of a saved table, "ALT1". */
+    private static final int MAGIC = 0x414C5431;
+
+    private final GridMap map;
+
+    /** Cell of each landmark. */
+    private final int[] landmarks;
+
+    /** Distance from landmark k to cell v at {@code v * landmarks.length + k}. */
+    private final int[] distances;
+
+    /** Fingerprint of the walls and costs of the map. */
+    private final long fingerprint;
+
+    /** Version of the map the tables describe. */
+    private final long version;
+
+    private LandmarkTable(GridMap map, int[] landmarks, int[] distances, long fingerprint) {
+        this.map = map;
+        this.landmarks = landmarks;
+        this.distances = distances;
+        this.fingerprint = fingerprint;
+        this.version = map.getVersion();
+    }
+
+    /**
+     * Picks landmarks on a map and computes their distance tables.
+     *
+     * @param map   The map. The tables describe it at its current version.
+     * @param count Number of landmarks to pick. Fewer are picked if the map
+     *              has fewer open cells.
+     * @return The table.
+     */
+    public static LandmarkTable build(GridMap map, int count) {
+        if (map == null) {
+            throw new IllegalArgumentException("Map must not be null");
+        }
+        if (count < 1) {
+            throw new IllegalArgumentException("Landmark count must be positive");
+        }
+
+        int size = map.size();
+        if ((long) size * count > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException(count + " landmark tables of " + size + " cells do not fit an int index");
+        }
+
+        DijkstraSearch search = new DijkstraSearch();
+        SearchContext context = new SearchContext();
+        int[] distances = new int[size * count];
+        int[] landmarks = new int[count];
+
+        // Lowest distance from each cell to any landmark so far
+        int[] nearest = new int[size];
+        Arrays.fill(nearest, UNREACHED);
+
+        int seed = 0;
+        while (seed < size && !map.isPassable(seed)) {
+            seed++;
+        }
+        if (seed == size)
+            return new LandmarkTable(map, new int[0], new int[0], fingerprint(map));
+
+        // The first landmark is the cell farthest from an arbitrary one
+        flood(search, context, map, seed);
+        int next = seed;
+        for (int cell = 0; cell < size; cell++) {
+            if (context.isSeen(cell) && context.g[cell] > context.g[next])
+                next = cell;
+        }
+
+        int picked = 0;
+        while (picked < count) {
+            landmarks[picked] = next;
+            flood(search, context, map, next);
+            for (int cell = 0; cell < size; cell++) {
+                int distance = context.isSeen(cell) ? (int) context.g[cell] : UNREACHED;
+                distances[cell * count + picked] = distance;
+                if (distance < nearest[cell])
+                    nearest[cell] = distance;
+            }
+            picked++;
+
+            // Unreached cells come first, so other regions get a landmark too
+            next = -1;
+            for (int cell = 0; cell < size; cell++) {
+                if (map.isPassable(cell) && (next == -1 || nearest[cell] > nearest[next]))
+                    next = cell;
+            }
+            if (nearest[next] == 0)
+                break;
+        }
+
+        if (picked < count)
+            return new LandmarkTable(map, Arrays.copyOf(landmarks, picked), compact(distances, size, count, picked),
+                    fingerprint(map));
+        return new LandmarkTable(map, landmarks, distances, fingerprint(map));
+    }
+
+    // Runs Dijkstra from a cell to every cell it can reach.
+    private static void flood(DijkstraSearch search, SearchContext context, GridMap map, int source) {
+        search.start(context, map, source, -1);
+        while (search.step(context) >= 0) {
+        }
+    }
+
+    // Drops the columns of landmarks that were never picked.
+    private static int[] compact(int[] distances, int size, int count, int picked) {
+        int[] compacted = new int[size * picked];
+        for (int cell = 0; cell < size; cell++) {
+            System.arraycopy(distances, cell * count, compacted, cell * picked, picked);
+        }
+        return compacted;
+    }
+
+    /**
+     * Bounds the cost of the cheapest route between two cells from below.
+     *
+     * @param cell A cell index.
+     * @param goal The cell index to reach.
+     * @return A cost no greater than that of any route from cell to goal.
+     */
+    public int lowerBound(int cell, int goal) {
+        int count = landmarks.length;
+        int cellAt = cell * count, goalAt = goal * count;
+        int correction = map.getCost(goal) - map.getCost(cell);
+
+        int best = 0;
+        for (int k = 0; k < count; k++) {
+            int fromCell = distances[cellAt + k], fromGoal = distances[goalAt + k];
+            if (fromCell == UNREACHED || fromGoal == UNREACHED)
+                continue;
+
+            // Through the landmark's routes out, then its routes back
+            best = Math.max(best, fromGoal - fromCell);
+            best = Math.max(best, fromCell - fromGoal + correction);
+        }
+        return best;
+    }
+
+    /**
+     * @return The map the tables were computed for.
+     */
+    public GridMap getMap() {
+        return map;
+    }
+
+    /**
+     * @return The {@link GridMap#getVersion() version} of the map the tables
+     *         were computed or loaded at.
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * @return Number of landmarks.
+     */
+    public int getLandmarkCount() {
+        return landmarks.length;
+    }
+
+    /**
+     * @param k A landmark number.
+     * @return The cell of the landmark.
+     */
+    public int getLandmark(int k) {
+        return landmarks[k];
+    }
+
+    /**
+     * @param k    A landmark number.
+     * @param cell A cell index.
+     * @return The cost from the landmark to the cell, or {@link #UNREACHED}.
+     */
+    public int getDistance(int k, int cell) {
+        return distances[cell * landmarks.length + k];
+    }
+
+    /**
+     * Saves the tables. The file holds, as big-endian ints, a magic number, the
+     * rows and columns of the map, a 64-bit fingerprint of its walls and
+     * costs, the number of landmarks and their cells, then every distance in
+     * the interleaved order they are kept in memory.
+     *
+     * @param file The file to write, replaced if it exists.
+     * @throws IOException If the file cannot be written.
+     */
+    public void save(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer header = ByteBuffer.allocate(24 + 4 * landmarks.length);
+            header.putInt(MAGIC).putInt(map.getRows()).putInt(map.getCols()).putLong(fingerprint)
+                    .putInt(landmarks.length);
+            header.asIntBuffer().put(landmarks);
+            header.position(header.capacity()).flip();
+            writeFully(channel, header);
+
+            ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 20);
+            IntBuffer ints = buffer.asIntBuffer();
+            for (int at = 0; at < distances.length; at += ints.capacity()) {
+                int length = Math.min(ints.capacity(), distances.length - at);
+                ints.clear();
+                ints.put(distances, at, length);
+                buffer.clear().limit(4 * length);
+                writeFully(channel, buffer);
+            }
+        }
+    }
+
+    /**
+     * Reads tables saved by {@link #save(Path)}.
+     *
+     * @param file The file to read.
+     * @param map  The map the tables were computed for.
+     * @return The tables.
+     * @throws IOException              If the file cannot be read or is not a
+     *                                  landmark table.
+     * @throws IllegalArgumentException If the tables were computed for a map
+     *                                  with other walls or costs.
+     */
+    public static LandmarkTable load(Path file, GridMap map) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(24);
+            readFully(channel, header);
+            if (header.getInt() != MAGIC)
+                throw new IOException(file + " is not a landmark table");
+
+            int rows = header.getInt(), cols = header.getInt();
+            long fingerprint = header.getLong();
+            int count = header.getInt();
+            if (rows != map.getRows() || cols != map.getCols() || fingerprint != fingerprint(map)) {
+                throw new IllegalArgumentException("Landmark tables in " + file + " were computed for another map");
+            }
+            if (count < 0 || (long) map.size() * count > Integer.MAX_VALUE)
+                throw new IOException(file + " holds a corrupt landmark count");
+
+            ByteBuffer cells = ByteBuffer.allocate(4 * count);
+            readFully(channel, cells);
+            int[] landmarks = new int[count];
+            cells.asIntBuffer().get(landmarks);
+
+            int[] distances = new int[map.size() * count];
+            ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 20);
+            IntBuffer ints = buffer.asIntBuffer();
+            for (int at = 0; at < distances.length; at += ints.capacity()) {
+                int length = Math.min(ints.capacity(), distances.length - at);
+                buffer.clear().limit(4 * length);
+                readFully(channel, buffer);
+                ints.clear();
+                ints.get(distances, at, length);
+            }
+            return new LandmarkTable(map, landmarks, distances, fingerprint);
+        }
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0)
+                throw new IOException("Landmark table ends early");
+        }
+        buffer.flip();
+    }
+
+    /**
+     * Hashes the walls and costs of a map, so tables are never loaded for a
+     * map they do not describe.
+     */
+    private static long fingerprint(GridMap map) {
+        long[] passable = new long[(map.size() + 63) >>> 6];
+        map.copyPassable(passable);
+
+        long hash = SplitMix64.mix(map.getRows() * 31L + map.getCols());
+        for (long word : passable) {
+            hash = SplitMix64.mix(hash ^ word);
+        }
+        for (int cell = 0; cell < map.size(); cell++) {
+            hash = SplitMix64.mix(hash ^ map.getCost(cell));
+        }
+        return hash;
+    }
+}
@@ -0,0 +1,44 @@
+package Pathfind;
+
+import Cells.GridMap;
+
+/**
+ * A {@link PathSearch} that can also be advanced one breadth-first layer at a
+ * time, so {@link Floodfill} can animate it.
+ * <p>
+ * Every cell a layer discovers is appended to the FIFO frontier of the
+ * context (and, for bidirectional searches, of its reverse context), which is
+ * where the animation reads them from.
+ * </p>
+ */
+public interface LayeredSearch extends PathSearch {
+
+    /**
+     * Prepares a new query from {@code start} to {@code goal}.
+     *
+     * @param context The context to run the query in.
+     * @param map     The grid to search.
+     * @param start   Index of the start cell.
+     * @param goal    Index of the goal cell.
+     */
+    void start(SearchContext context, GridMap map, int start, int goal);
+
+    /**
+     * Expands every cell of the current layer, discovering the next one.
+     *
+     * @param context The context of a started query.
+     * @return The number of cells discovered, {@link SearchContext#FOUND} once
+     *         the goal has been reached, or {@link SearchContext#EXHAUSTED} if no
+     *         path exists.
+     */
+    int stepLayer(SearchContext context);
+
+    /**
+     * Builds the path found by a query, one cell per step.
+     *
+     * @param context The context of a finished query.
+     * @return The cell indices from start to goal, or an empty array if the goal
+     *         was not reached.
+     */
+    int[] path(SearchContext context);
+}
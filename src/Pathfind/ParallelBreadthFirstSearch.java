@@ -0,0 +1,254 @@
+package Pathfind;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import Cells.GridMap;
+
+/**
+ * A level-synchronous breadth-first search that expands each layer on a
+ * {@link ForkJoinPool}.
+ * <p>
+ * A layer is split into fixed-size chunks of the FIFO frontier and is
+ * expanded in two parallel passes:
+ * 1. Every frontier cell offers itself as the parent of its passable
+ * neighbors. A shared claim array keeps, with compare-and-set, the lowest
+ * frontier position that reached each cell in this query, so cells of earlier
+ * layers are never claimed again.
+ * 2. Every frontier cell collects the neighbors it won into its chunk's own
+ * buffer and records itself as their parent.
+ * The chunk buffers are then appended to the frontier in chunk order.
+ * </p>
+ *
+ * <p>
+ * Because the lowest position always wins and the chunks do not depend on the
+ * number of threads, the discovery order, the parent table and the path are
+ * exactly those of {@link BreadthFirstSearch}, however the threads interleave.
+ * Layers smaller than one chunk are expanded on the calling thread.
+ * </p>
+ */
+public class ParallelBreadthFirstSearch implements LayeredSearch {
+
+    /** Frontier cells expanded by one task. */
+    private static final int CHUNK = 1024;
+
+    private final ForkJoinPool pool;
+
+    /**
+     * Creates a search that runs on the common pool.
+     */
+    public ParallelBreadthFirstSearch() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Creates a search that runs on the given pool.
+     *
+     * @param pool The pool to expand layers on.
+     */
+    public ParallelBreadthFirstSearch(ForkJoinPool pool) {
+        if (pool == null) {
+            throw new IllegalArgumentException("Pool must not be null");
+        }
+        this.pool = pool;
+    }
+
+    @Override
+    public void start(SearchContext context, GridMap map, int start, int goal) {
+        context.begin(map, start, goal);
+        context.requireQueue();
+        context.requireClaims();
+
+        context.parent[start] = -1;
+        context.claims.set(start, claim(context, 0));
+        context.queue[context.tail++] = start;
+
+        if (start == goal)
+            context.status = SearchContext.FOUND;
+    }
+
+    @Override
+    public int stepLayer(SearchContext context) {
+        if (context.status != SearchContext.RUNNING)
+            return context.status;
+
+        if (context.head == context.tail) {
+            context.status = SearchContext.EXHAUSTED;
+            return context.status;
+        }
+
+        int before = context.tail;
+        expandLayer(context);
+
+        if ((int) (context.claims.get(context.goal) >>> 32) == context.generation) {
+            context.status = SearchContext.FOUND;
+            return context.status;
+        }
+
+        return context.tail - before;
+    }
+
+    @Override
+    public int[] path(SearchContext context) {
+        return context.path();
+    }
+
+    @Override
+    public PathResult search(GridMap map, int start, int goal, SearchContext context) {
+        start(context, map, start, goal);
+
+        while (context.status == SearchContext.RUNNING)
+            stepLayer(context);
+
+        int[] path = context.path();
+        if (path.length == 0)
+            return PathResult.notFound(context.expanded);
+        return new PathResult(path, path.length - 1, context.expanded);
+    }
+
+    /**
+     * Expands the layer between {@code head} and {@code tail} of the FIFO
+     * frontier and appends the cells it discovers.
+     */
+    private void expandLayer(SearchContext context) {
+        int first = context.head;
+        int end = context.tail;
+        int chunks = (end - first + CHUNK - 1) / CHUNK;
+
+        context.requireChunks(chunks, 4 * CHUNK);
+        context.expanded += end - first;
+
+        if (chunks == 1) {
+            offer(context, first, end);
+            collect(context, first, end, 0);
+        } else {
+            pool.invoke(new LayerTask(context, first, end, 0, chunks, false));
+            pool.invoke(new LayerTask(context, first, end, 0, chunks, true));
+        }
+
+        for (int chunk = 0; chunk < chunks; chunk++) {
+            int count = context.chunkCounts[chunk];
+            System.arraycopy(context.chunkCells[chunk], 0, context.queue, context.tail, count);
+            context.tail += count;
+        }
+        context.head = end;
+    }
+
+    /**
+     * First pass: offers each frontier cell in {@code [from, to)} as the parent
+     * of its passable neighbors.
+     */
+    private static void offer(SearchContext context, int from, int to) {
+        GridMap map = context.map;
+
+        for (int position = from; position < to; position++) {
+            int cell = context.queue[position];
+            long mine = claim(context, position);
+
+            for (int direction = 0; direction < 4; direction++) {
+                int next = neighbor(map, cell, direction);
+                if (next == -1 || !map.isPassable(next))
+                    continue;
+
+                while (true) {
+                    long current = context.claims.get(next);
+                    if ((int) (current >>> 32) == context.generation && current <= mine)
+                        break;
+                    if (context.claims.compareAndSet(next, current, mine))
+                        break;
+                }
+            }
+        }
+    }
+
+    /**
+     * Second pass: collects the neighbors won by each frontier cell in
+     * {@code [from, to)} into the buffer of a chunk.
+     */
+    private static void collect(SearchContext context, int from, int to, int chunk) {
+        GridMap map = context.map;
+        int[] cells = context.chunkCells[chunk];
+        int count = 0;
+
+        for (int position = from; position < to; position++) {
+            int cell = context.queue[position];
+            long mine = claim(context, position);
+
+            for (int direction = 0; direction < 4; direction++) {
+                int next = neighbor(map, cell, direction);
+                if (next != -1 && context.claims.get(next) == mine) {
+                    context.parent[next] = cell;
+                    cells[count++] = next;
+                }
+            }
+        }
+
+        context.chunkCounts[chunk] = count;
+    }
+
+    /**
+     * @return The claim a frontier position puts on the cells it reaches.
+     */
+    private static long claim(SearchContext context, int position) {
+        return ((long) context.generation << 32) | position;
+    }
+
+    /**
+     * @param direction 0 to 3, in the same order as Vector2.up, down, left,
+     *                  right.
+     * @return The index of the neighbor, or -1 past the edge of the grid.
+     */
+    private static int neighbor(GridMap map, int cell, int direction) {
+        int rows = map.getRows();
+        switch (direction) {
+            case 0:
+                return cell + rows < map.size() ? cell + rows : -1;
+            case 1:
+                return cell >= rows ? cell - rows : -1;
+            case 2:
+                return cell % rows > 0 ? cell - 1 : -1;
+            default:
+                return cell % rows < rows - 1 ? cell + 1 : -1;
+        }
+    }
+
+    /**
+     * Runs one pass of a layer over a range of chunks, splitting it in half
+     * until a single chunk is left.
+     */
+    private static class LayerTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final transient SearchContext context;
+        private final int first, end;
+        private final int lowChunk, highChunk;
+        private final boolean collect;
+
+        LayerTask(SearchContext context, int first, int end, int lowChunk, int highChunk, boolean collect) {
+            this.context = context;
+            this.first = first;
+            this.end = end;
+            this.lowChunk = lowChunk;
+            this.highChunk = highChunk;
+            this.collect = collect;
+        }
+
+        @Override
+        protected void compute() {
+            if (highChunk - lowChunk > 1) {
+                int middle = (lowChunk + highChunk) >>> 1;
+                invokeAll(new LayerTask(context, first, end, lowChunk, middle, collect),
+                        new LayerTask(context, first, end, middle, highChunk, collect));
+                return;
+            }
+
+            int from = first + lowChunk * CHUNK;
+            int to = Math.min(end, from + CHUNK);
+            if (collect)
+                collect(context, from, to, lowChunk);
+            else
+                offer(context, from, to);
+        }
+    }
+}
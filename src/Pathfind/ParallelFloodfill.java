@@ -0,0 +1,13 @@
+package Pathfind;
+
+/**
+ * ParallelFloodfill animates a {@link ParallelBreadthFirstSearch}: the same
+ * wavefront as {@link Floodfill}, with each layer spread over every core.
+ */
+public class ParallelFloodfill extends Floodfill {
+
+    public ParallelFloodfill() {
+        super(new ParallelBreadthFirstSearch());
+    }
+
+}
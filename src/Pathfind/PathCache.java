@@ -0,0 +1,381 @@
+package Pathfind;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import Cells.GridMap;
+
+/**
+ * A bounded cache of path query results, for services that ask the same
+ * questions of the same map over and over.
+ * <p>
+ * Results are keyed by the map, its {@link GridMap#getVersion() version}, the
+ * start and goal cells and the {@link PathSearch} that answered them, so two
+ * strategies never share an answer. As soon as a map is seen at a new
+ * version, every result cached for an older one is dropped: toggling a wall
+ * invalidates them without the caller having to.
+ * </p>
+ *
+ * <p>
+ * Maps are compared by identity and only weakly referenced, so the cache never
+ * keeps a discarded map alive, and the bytes it counts are those of the
+ * results alone. Once a map is garbage collected, or handed to
+ * {@link #invalidate(GridMap)} when it is replaced, its results are dropped.
+ * </p>
+ *
+ * <p>
+ * The cache holds at most a given number of results and a given number of
+ * bytes, estimated from the length of each path, and evicts the least
+ * recently used result when either bound is exceeded. Counters of hits,
+ * misses, evictions and invalidations tell how well it is doing.
+ * </p>
+ * The cache is thread-safe. Results are immutable, so one cached result can
+ * be handed to many threads at once.
+ */
+public class PathCache {
+
+    /** Number of results held when none is given. */
+    public static final int DEFAULT_MAX_ENTRIES = 4096;
+
+    /** Estimated bytes held when none is given, 64 MiB. */
+    public static final long DEFAULT_MAX_BYTES = 64L << 20;
+
+    /** Estimated bytes of an entry besides its path: key, result, links. */
+    private static final int ENTRY_OVERHEAD = 160;
+
+    private final int maxEntries;
+    private final long maxBytes;
+
+    /** Results in access order, least recently used first. */
+    private final LinkedHashMap<Key, PathResult> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    /** State of each map in the cache by identity hash, chained on collisions. */
+    private final HashMap<Integer, MapState> maps = new HashMap<>();
+
+    /** States of the maps that were garbage collected. */
+    private final ReferenceQueue<GridMap> collected = new ReferenceQueue<>();
+
+    private long bytes;
+    private long hits, misses, evictions, invalidations;
+
+    /**
+     * Creates a cache with the default bounds.
+     */
+    public PathCache() {
+        this(DEFAULT_MAX_ENTRIES, DEFAULT_MAX_BYTES);
+    }
+
+    /**
+     * Creates a cache with the given bounds.
+     *
+     * @param maxEntries Most results held at once.
+     * @param maxBytes   Most bytes held at once, estimated from the path
+     *                   lengths.
+     */
+    public PathCache(int maxEntries, long maxBytes) {
+        if (maxEntries < 1 || maxBytes < 1) {
+            throw new IllegalArgumentException("Cache bounds must be positive");
+        }
+        this.maxEntries = maxEntries;
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Looks up the result of a query.
+     *
+     * @param map     The map searched.
+     * @param version The version of the map the query is asked at.
+     * @param start   Index of the start cell.
+     * @param goal    Index of the goal cell.
+     * @param search  The strategy answering the query.
+     * @return The cached result, or null if there is none.
+     */
+    public synchronized PathResult get(GridMap map, long version, int start, int goal, PathSearch search) {
+        MapState state = stateOf(map, version);
+        PathResult result = state == null ? null : entries.get(new Key(state, start, goal, search));
+
+        if (result == null)
+            misses++;
+        else
+            hits++;
+        return result;
+    }
+
+    /**
+     * Caches the result of a query, evicting the least recently used results
+     * if the cache grows past its bounds. A result larger than the whole cache
+     * is not kept.
+     *
+     * @param map     The map searched.
+     * @param version The version of the map the result was computed at.
+     * @param start   Index of the start cell.
+     * @param goal    Index of the goal cell.
+     * @param search  The strategy that answered the query.
+     * @param result  The result.
+     */
+    public synchronized void put(GridMap map, long version, int start, int goal, PathSearch search,
+            PathResult result) {
+        if (map == null || search == null || result == null) {
+            throw new IllegalArgumentException("Map, search and result must not be null");
+        }
+
+        long size = sizeOf(result);
+        if (size > maxBytes)
+            return;
+
+        MapState state = stateOf(map, version);
+        if (state == null) {
+            state = new MapState(map, version, collected);
+            state.next = maps.put(state.hash, state);
+        }
+
+        PathResult old = entries.put(new Key(state, start, goal, search), result);
+        if (old == null)
+            state.count++;
+        else
+            bytes -= sizeOf(old);
+        bytes += size;
+
+        // Least recently used first
+        Iterator<Map.Entry<Key, PathResult>> eldest = entries.entrySet().iterator();
+        while (entries.size() > maxEntries || bytes > maxBytes) {
+            Map.Entry<Key, PathResult> entry = eldest.next();
+            eldest.remove();
+            forget(entry.getKey().state, entry.getValue());
+            evictions++;
+        }
+    }
+
+    /**
+     * Answers a query from the cache, or with the search if it is not cached,
+     * caching the result unless the map changed while it was searched.
+     *
+     * @param map     The map to search.
+     * @param start   Index of the start cell.
+     * @param goal    Index of the goal cell.
+     * @param search  The strategy answering the query.
+     * @param context Scratch state for the query. Must not be in use by another
+     *                thread.
+     * @return The path found, or an empty result if the goal is unreachable.
+     */
+    public PathResult findPath(GridMap map, int start, int goal, PathSearch search, SearchContext context) {
+        long version = map.getVersion();
+        PathResult result = get(map, version, start, goal, search);
+        if (result != null)
+            return result;
+
+        result = search.search(map, start, goal, context);
+        if (map.getVersion() == version)
+            put(map, version, start, goal, search, result);
+        return result;
+    }
+
+    /**
+     * Drops every result cached for a map, for instance once it is replaced by
+     * another and will not be searched again.
+     *
+     * @param map The map.
+     */
+    public synchronized void invalidate(GridMap map) {
+        MapState state = find(map);
+        if (state != null)
+            drop(state);
+    }
+
+    /**
+     * Returns the state of a map in the cache, first dropping its results if
+     * they were cached for another version.
+     *
+     * @return The state, or null if nothing is cached for the map.
+     */
+    private MapState stateOf(GridMap map, long version) {
+        MapState state = find(map);
+        if (state == null || state.version == version)
+            return state;
+
+        drop(state);
+        return null;
+    }
+
+    // Looks a map up by identity, after dropping the maps that were collected.
+    private MapState find(GridMap map) {
+        MapState dead;
+        while ((dead = (MapState) collected.poll()) != null) {
+            if (dead.count > 0)
+                drop(dead);
+        }
+
+        for (MapState state = maps.get(System.identityHashCode(map)); state != null; state = state.next) {
+            if (state.get() == map)
+                return state;
+        }
+        return null;
+    }
+
+    // Removes every result of a map and the map itself.
+    private void drop(MapState state) {
+        Iterator<Map.Entry<Key, PathResult>> it = entries.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<Key, PathResult> entry = it.next();
+            if (entry.getKey().state == state) {
+                it.remove();
+                bytes -= sizeOf(entry.getValue());
+                invalidations++;
+            }
+        }
+        state.count = 0;
+        unlink(state);
+    }
+
+    // Accounts for a result that left the cache.
+    private void forget(MapState state, PathResult result) {
+        bytes -= sizeOf(result);
+        if (--state.count == 0)
+            unlink(state);
+    }
+
+    private void unlink(MapState state) {
+        MapState first = maps.get(state.hash);
+        if (first == state) {
+            if (state.next == null)
+                maps.remove(state.hash);
+            else
+                maps.put(state.hash, state.next);
+            return;
+        }
+        for (MapState at = first; at != null; at = at.next) {
+            if (at.next == state) {
+                at.next = state.next;
+                return;
+            }
+        }
+    }
+
+    private static long sizeOf(PathResult result) {
+        return ENTRY_OVERHEAD + 4L * result.getLength();
+    }
+
+    /**
+     * Drops every result and resets the counters.
+     */
+    public synchronized void clear() {
+        entries.clear();
+        maps.clear();
+        bytes = 0;
+        hits = misses = evictions = invalidations = 0;
+    }
+
+    /**
+     * @return Number of results held.
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * @return Estimated bytes held by the results.
+     */
+    public synchronized long getBytes() {
+        return bytes;
+    }
+
+    /**
+     * @return Lookups answered from the cache.
+     */
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    /**
+     * @return Lookups that found nothing.
+     */
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    /**
+     * @return Results dropped to stay within the bounds.
+     */
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+
+    /**
+     * @return Results dropped because their map changed.
+     */
+    public synchronized long getInvalidations() {
+        return invalidations;
+    }
+
+    public int getMaxEntries() {
+        return maxEntries;
+    }
+
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "PathCache: " +
+                "\n\tEntries: " + entries.size() + " / " + maxEntries +
+                "\n\tBytes: " + bytes + " / " + maxBytes +
+                "\n\tHits: " + hits +
+                "\n\tMisses: " + misses +
+                "\n\tEvictions: " + evictions +
+                "\n\tInvalidations: " + invalidations;
+    }
+
+    /**
+     * A map in the cache, referenced weakly, with the version its results
+     * belong to and how many there are.
+     */
+    private static final class MapState extends WeakReference<GridMap> {
+        final int hash;
+        final long version;
+        int count;
+
+        /** Next state with the same identity hash. */
+        MapState next;
+
+        MapState(GridMap map, long version, ReferenceQueue<GridMap> queue) {
+            super(map, queue);
+            this.hash = System.identityHashCode(map);
+            this.version = version;
+        }
+    }
+
+    /** A query, comparing the map state and the search by identity. */
+    private static final class Key {
+        final MapState state;
+        final int start, goal;
+        final PathSearch search;
+
+        Key(MapState state, int start, int goal, PathSearch search) {
+            this.state = state;
+            this.start = start;
+            this.goal = goal;
+            this.search = search;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof Key))
+                return false;
+            Key key = (Key) other;
+            return state == key.state && start == key.start && goal == key.goal && search == key.search;
+        }
+
+        @Override
+        public int hashCode() {
+            int hash = state.hash;
+            hash = 31 * hash + start;
+            hash = 31 * hash + goal;
+            return 31 * hash + System.identityHashCode(search);
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package Pathfind;
+
+import java.util.Arrays;
+
+/**
+ * The outcome of a single headless path query.
+ * <p>
+ * Holds the cell indices of the path from start to goal (both included), the
+ * cost of that path and how many cells the search expanded to find it.
+ * </p>
+ */
+public final class PathResult {
+
+    /** Cell indices from start to goal, empty if no path exists. */
+    private final int[] path;
+
+    /** Total traversal cost of the path. */
+    private final double cost;
+
+    /** Number of cells expanded by the search. */
+    private final int expanded;
+
+    public PathResult(int[] path, double cost, int expanded) {
+        this.path = path;
+        this.cost = cost;
+        this.expanded = expanded;
+    }
+
+    /**
+     * Creates a result for a query whose goal could not be reached.
+     *
+     * @param expanded Number of cells expanded before giving up.
+     * @return A result with an empty path.
+     */
+    public static PathResult notFound(int expanded) {
+        return new PathResult(new int[0], Double.POSITIVE_INFINITY, expanded);
+    }
+
+    /**
+     * Follows a parent table back from the goal to build the path.
+     *
+     * @param parent Cell each cell was reached from.
+     * @param start  Index of the start cell.
+     * @param goal   Index of the goal cell.
+     * @return The cell indices from start to goal.
+     */
+    static int[] trace(int[] parent, int start, int goal) {
+        int length = 1;
+        for (int cell = goal; cell != start; cell = parent[cell]) {
+            length++;
+        }
+
+        int[] path = new int[length];
+        int cell = goal;
+        for (int i = length - 1; i > 0; i--) {
+            path[i] = cell;
+            cell = parent[cell];
+        }
+        path[0] = start;
+        return path;
+    }
+
+    /**
+     * @return True if a path from start to goal was found.
+     */
+    public boolean isFound() {
+        return path.length > 0;
+    }
+
+    /**
+     * @return The cell indices from start to goal. The array is shared, so it
+     *         must not be modified.
+     */
+    public int[] getPath() {
+        return path;
+    }
+
+    /**
+     * @return The number of cells on the path, including start and goal.
+     */
+    public int getLength() {
+        return path.length;
+    }
+
+    public double getCost() {
+        return cost;
+    }
+
+    public int getExpanded() {
+        return expanded;
+    }
+
+    @Override
+    public String toString() {
+        return "PathResult: " +
+                "\n\tFound: " + isFound() +
+                "\n\tLength: " + path.length +
+                "\n\tCost: " + cost +
+                "\n\tExpanded: " + expanded +
+                "\n\tPath: " + Arrays.toString(path);
+    }
+}
@@ -0,0 +1,41 @@
+package Pathfind;
+
+import Cells.GridMap;
+
+/**
+ * A pathfinding strategy that runs a whole query in one synchronous call.
+ * <p>
+ * Unlike {@link Algorithm}, which is stepped by the game loop and draws its
+ * progress, a PathSearch only reads the given {@link GridMap} and never
+ * touches Swing, the {@code Config} or any of the singletons.
+ * </p>
+ * Implementations keep no state between calls; everything a query changes
+ * lives in the {@link SearchContext} passed in. One instance can therefore
+ * serve many threads at once, provided each thread uses its own context.
+ */
+public interface PathSearch {
+
+    /**
+     * Finds a path from {@code start} to {@code goal}.
+     *
+     * @param map     The grid to search.
+     * @param start   Index of the start cell.
+     * @param goal    Index of the goal cell.
+     * @param context Scratch state for the query. Must not be in use by another
+     *                thread.
+     * @return The path found, or an empty result if the goal is unreachable.
+     */
+    PathResult search(GridMap map, int start, int goal, SearchContext context);
+
+    /**
+     * Finds a path from {@code start} to {@code goal} using a fresh context.
+     *
+     * @param map   The grid to search.
+     * @param start Index of the start cell.
+     * @param goal  Index of the goal cell.
+     * @return The path found, or an empty result if the goal is unreachable.
+     */
+    default PathResult search(GridMap map, int start, int goal) {
+        return search(map, start, goal, new SearchContext());
+    }
+}
@@ -0,0 +1,179 @@
+package Pathfind;
+
+import Cells.GridMap;
+import Utilities.Vector2;
+
+/**
+ * Headless entry point for answering path queries at full CPU speed.
+ * <p>
+ * Where {@link PathfindingManager} steps the configured {@link Algorithm} a
+ * little every frame so the search can be watched, the engine runs a
+ * {@link PathSearch} to completion in a single synchronous call. It never
+ * touches Swing, the {@code Config}, the {@code Scheduler} or the
+ * {@code CellManager} / {@code Game} singletons, so it can be used from a
+ * backend service or a benchmark.
+ * </p>
+ *
+ * <p>
+ * The engine is thread-safe. Each thread answers its queries with its own
+ * {@link SearchContext}, reused from one query to the next, so many threads
+ * can search the same read-only grid (for example a {@code FrozenGrid}
+ * snapshot) concurrently.
+ * </p>
+ *
+ * <p>
+ * An engine given a {@link PathCache} answers repeated queries from it, for
+ * as long as the grid stays at the same version.
+ * </p>
+ *
+ * <p>
+ * <b>Example:</b>
+ * <code>
+ * PathResult result = PathfindingEngine.aStar().findPath(grid, start, goal);
+ * </code>
+ * </p>
+ */
+public class PathfindingEngine {
+
+    /** The strategy used to answer queries. */
+    private final PathSearch search;
+
+    /** Results of earlier queries, or null to search every time. */
+    private final PathCache cache;
+
+    /** Scratch state of each thread issuing queries. */
+    private final ThreadLocal<SearchContext> contexts = ThreadLocal.withInitial(SearchContext::new);
+
+    /**
+     * Creates an engine answering queries with the given strategy.
+     *
+     * @param search The search strategy to use.
+     */
+    public PathfindingEngine(PathSearch search) {
+        this(search, null);
+    }
+
+    /**
+     * Creates an engine answering queries with the given strategy, reusing
+     * results from a cache.
+     *
+     * @param search The search strategy to use.
+     * @param cache  The cache to keep results in, or null for none. May be
+     *               shared with other engines.
+     */
+    public PathfindingEngine(PathSearch search, PathCache cache) {
+        if (search == null) {
+            throw new IllegalArgumentException("Search must not be null");
+        }
+        this.search = search;
+        this.cache = cache;
+    }
+
+    /**
+     * @return An engine backed by A*.
+     */
+    public static PathfindingEngine aStar() {
+        return new PathfindingEngine(new AStarSearch());
+    }
+
+    /**
+     * @return An engine backed by Dijkstra's algorithm, for the cheapest route
+     *         over weighted terrain.
+     */
+    public static PathfindingEngine dijkstra() {
+        return new PathfindingEngine(new DijkstraSearch());
+    }
+
+    /**
+     * @return An engine backed by hierarchical pathfinding (HPA*), which
+     *         builds a cluster graph of the first grid it searches. Routes may
+     *         be slightly longer than the shortest.
+     */
+    public static PathfindingEngine hierarchical() {
+        return new PathfindingEngine(new HierarchicalSearch());
+    }
+
+    /**
+     * @return An engine backed by A* with the ALT landmark heuristic, which
+     *         computes landmark tables for the first grid it searches.
+     */
+    public static PathfindingEngine landmarks() {
+        return new PathfindingEngine(new LandmarkSearch());
+    }
+
+    /**
+     * @return An engine backed by a breadth-first flood fill.
+     */
+    public static PathfindingEngine breadthFirst() {
+        return new PathfindingEngine(new BreadthFirstSearch());
+    }
+
+    /**
+     * Finds a path between two cell indices.
+     *
+     * @param grid  The grid to search.
+     * @param start Index of the start cell.
+     * @param goal  Index of the goal cell.
+     * @return The path found, or an empty result if the goal is unreachable.
+     * @throws IllegalArgumentException if either index lies outside the grid.
+     */
+    public PathResult findPath(GridMap grid, int start, int goal) {
+        return findPath(grid, start, goal, contexts.get());
+    }
+
+    /**
+     * Finds a path between two cell indices using a caller-owned context.
+     *
+     * @param grid    The grid to search.
+     * @param start   Index of the start cell.
+     * @param goal    Index of the goal cell.
+     * @param context Scratch state for the query. Must not be in use by another
+     *                thread.
+     * @return The path found, or an empty result if the goal is unreachable.
+     * @throws IllegalArgumentException if either index lies outside the grid.
+     */
+    public PathResult findPath(GridMap grid, int start, int goal, SearchContext context) {
+        if (grid == null) {
+            throw new IllegalArgumentException("Grid must not be null");
+        }
+        if (start < 0 || start >= grid.size() || goal < 0 || goal >= grid.size()) {
+            throw new IllegalArgumentException("Start " + start + " or goal " + goal + " is outside the grid");
+        }
+
+        if (cache != null)
+            return cache.findPath(grid, start, goal, search, context);
+        return search.search(grid, start, goal, context);
+    }
+
+    /**
+     * Finds a path between two grid coordinates.
+     *
+     * @param grid  The grid to search.
+     * @param start Coordinate of the start cell.
+     * @param goal  Coordinate of the goal cell.
+     * @return The path found, or an empty result if the goal is unreachable.
+     * @throws IllegalArgumentException if either coordinate lies outside the
+     *                                  grid.
+     */
+    public PathResult findPath(GridMap grid, Vector2 start, Vector2 goal) {
+        if (grid == null || start == null || goal == null) {
+            throw new IllegalArgumentException("Grid and coordinates must not be null");
+        }
+
+        return findPath(grid, grid.indexOf(start.x, start.y), grid.indexOf(goal.x, goal.y));
+    }
+
+    /**
+     * @return The strategy used to answer queries.
+     */
+    public PathSearch getSearch() {
+        return search;
+    }
+
+    /**
+     * @return The cache of earlier results, or null if there is none.
+     */
+    public PathCache getCache() {
+        return cache;
+    }
+}
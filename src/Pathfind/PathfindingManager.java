@@ -3,14 +3,37 @@ package Pathfind;
 import java.awt.Color;
 import java.awt.Font;
 import java.awt.Graphics;
+import java.awt.Rectangle;
 
+import Cells.CellManager;
+import Cells.FrozenGrid;
+import Cells.Grid;
 import Driver.Config;
-import Utilities.Looper;
+import Utilities.Scheduler;
 
 public class PathfindingManager {
 
 	public static PathfindingManager Instance;
 
+	/** Paths found by earlier runs on the cells of {@link #cells}. */
+	private final PathCache cache = new PathCache();
+
+	/**
+	 * Cells the cached paths were found on. Every run searches a new grid, so
+	 * the paths are cached against this snapshot instead, and a run whose maze
+	 * comes out the same, as with a fixed seed, finds them again.
+	 */
+	private FrozenGrid cells;
+
+	/** True once the current run was looked up in the cache. */
+	private boolean lookedUp;
+	/** True if the current run was answered by the cache. */
+	private boolean cached;
+	/** True once the result of the current run was cached. */
+	private boolean stored;
+	/** Grid version the current run was looked up at. */
+	private long version;
+
 	public PathfindingManager() {
 
 		if (Instance != null) {
@@ -22,16 +45,84 @@ public class PathfindingManager {
 
 	public void startPathfinder() {
 		var algorithm = Config.getAlgorithm();
+		var cells = CellManager.Instance;
 		algorithm.reset();
-		algorithm.startAlgorithm();
+		algorithm.startAlgorithm(cells.GetGrid(), cells.GetStartIndex(), cells.GetEndIndex());
+
+		lookedUp = false;
+		cached = false;
+		stored = false;
 	}
 
 	public void pathfind() {
+		var algorithm = Config.getAlgorithm();
+
+		// The maze is written after the start, so look up on the first step
+		if (!lookedUp)
+			lookUp(algorithm);
+		if (cached)
+			return;
+
+		if (algorithm.HandleActionTime()) {
+
+			algorithm.Pathfind();
+			store(algorithm);
+		}
+	}
 
-		if (Config.getAlgorithm().HandleActionTime()) {
+	/**
+	 * Shows the path of the current run straight away if an earlier run on the
+	 * same cells already found it. If the cells differ, the paths cached for
+	 * the old ones are dropped.
+	 */
+	private void lookUp(Algorithm algorithm) {
+		var manager = CellManager.Instance;
+		Grid grid = manager.GetGrid();
 
-			Config.getAlgorithm().Pathfind();
+		lookedUp = true;
+		version = grid.getVersion();
+		if (cells == null || !cells.matches(grid)) {
+			if (cells != null)
+				cache.invalidate(cells);
+			cells = grid.snapshot();
 		}
+
+		PathResult result = cache.get(cells, cells.getVersion(), manager.GetStartIndex(), manager.GetEndIndex(),
+				algorithm.GetSearch());
+		if (result != null) {
+			cached = true;
+			algorithm.ShowPath(result);
+		}
+	}
+
+	/**
+	 * Caches the result of the current run once it is found, unless the grid
+	 * changed while it was being searched.
+	 */
+	private void store(Algorithm algorithm) {
+		PathResult result = algorithm.GetResult();
+		if (stored || result == null)
+			return;
+
+		var manager = CellManager.Instance;
+		stored = true;
+		if (manager.GetGrid().getVersion() == version)
+			cache.put(cells, cells.getVersion(), manager.GetStartIndex(), manager.GetEndIndex(), algorithm.GetSearch(),
+					result);
+	}
+
+	/**
+	 * @return The paths found by earlier runs.
+	 */
+	public PathCache getCache() {
+		return cache;
+	}
+
+	/**
+	 * @return The area of the window the debug text is drawn in.
+	 */
+	public Rectangle getDebugBounds() {
+		return new Rectangle(0, 0, 300, 48);
 	}
 
 	public void drawDebug(Graphics g) {
@@ -39,7 +130,7 @@ public class PathfindingManager {
 		g.setColor(Color.WHITE);
 		g.setFont(new Font("Serif", Font.PLAIN, 26));
 
-		g.drawString("Time: " + Looper.getTime(), 0, 20);
+		g.drawString("Time: " + Scheduler.getTime(), 0, 20);
 		g.drawString("Steps: " + Config.getAlgorithm().steps, 0, 40);
 
 	}
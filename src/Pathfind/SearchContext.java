@@ -0,0 +1,484 @@
+package Pathfind;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import Cells.Grid;
+import Cells.GridMap;
+
+/**
+ * Holds everything that changes while a single path query runs.
+ * <p>
+ * The search strategies ({@link AStarSearch}, {@link BreadthFirstSearch}, ...)
+ * keep no state of their own; the cost table, parent table, visited stamps,
+ * frontier and open list of a query all live here instead. A context may be
+ * reused for any number of queries, one at a time, and only grows its arrays
+ * when a larger grid comes along. Giving each thread its own context lets many
+ * threads query the same read-only {@link GridMap} concurrently.
+ * </p>
+ */
+public class SearchContext {
+
+    /** Status of a query that is still running. */
+    public static final int RUNNING = 0;
+
+    /** Status of a query that reached its goal. */
+    public static final int FOUND = -1;
+
+    /** Status of a query whose goal cannot be reached. */
+    public static final int EXHAUSTED = -2;
+
+    /** The grid being searched. */
+    GridMap map;
+
+    /** Index of the start cell. */
+    int start;
+
+    /** Index of the goal cell. */
+    int goal;
+
+    /** {@link #RUNNING}, {@link #FOUND} or {@link #EXHAUSTED}. */
+    int status = RUNNING;
+
+    /** Number of cells expanded by the current query. */
+    int expanded;
+
+    /** Cell each cell was reached from, or -1 for the start. */
+    int[] parent = new int[0];
+
+    /** Generation in which each cell was first reached. */
+    int[] seen = new int[0];
+
+    /** Generation in which each cell was closed. */
+    int[] closed = new int[0];
+
+    /** Cost from the start to each cell. */
+    double[] g = new double[0];
+
+    /** Cells in the order they were discovered, used as a FIFO frontier. */
+    int[] queue = new int[0];
+
+    /** Next cell to take from {@link #queue}. */
+    int head;
+
+    /** Next free slot of {@link #queue}. */
+    int tail;
+
+    /** Cells discovered but not yet expanded, keyed by priority. */
+    final IndexedMinHeap open = new IndexedMinHeap(0);
+
+    /** Cells discovered but not yet expanded, keyed by their integer cost. */
+    final BucketQueue buckets = new BucketQueue(Grid.MAX_COST + 1);
+
+    /** Lowest cost of any cell of the grid, which scales the heuristics. */
+    double minCost = 1;
+
+    /** One bit per cell, set when the cell can be walked on. */
+    long[] passableBits = new long[0];
+
+    /** Number of words of each bitset that cover the current grid. */
+    int bitWords;
+
+    /** One bit per cell, set once the cell has been reached. */
+    long[] visitedBits = new long[0];
+
+    /** One bit per cell of the layer being expanded. */
+    long[] frontierBits = new long[0];
+
+    /** One bit per cell of the layer being discovered. */
+    long[] nextBits = new long[0];
+
+    /** Indices of the non-zero words of {@link #frontierBits}. */
+    int[] frontierWords = new int[0];
+
+    /** Number of entries in {@link #frontierWords}. */
+    int frontierCount;
+
+    /** Indices of the non-zero words of {@link #nextBits}. */
+    int[] nextWords = new int[0];
+
+    /** Number of entries in {@link #nextWords}. */
+    int nextCount;
+
+    /** Low bit of the layer, modulo 3, in which each cell was reached. */
+    long[] layerLowBits = new long[0];
+
+    /** High bit of the layer, modulo 3, in which each cell was reached. */
+    long[] layerHighBits = new long[0];
+
+    /** Number of layers expanded by the current bitset query. */
+    int layer;
+
+    /** Cells that can be entered from their left neighbor, i.e. {@code x > 0}. */
+    long[] notFirstBits = new long[0];
+
+    /** Cells that can be entered from their right neighbor, i.e. {@code x < rows - 1}. */
+    long[] notLastBits = new long[0];
+
+    /** Grid shape {@link #notFirstBits} and {@link #notLastBits} were built for. */
+    private int maskRows = -1, maskSize = -1;
+
+    /**
+     * Claim on each cell for the parallel search: the generation in the high
+     * half and the lowest frontier position that reached the cell in the low
+     * half.
+     */
+    AtomicLongArray claims = new AtomicLongArray(0);
+
+    /** Cells discovered by each chunk of the current parallel layer. */
+    int[][] chunkCells = new int[0][];
+
+    /** Number of entries of each array in {@link #chunkCells}. */
+    int[] chunkCounts = new int[0];
+
+    /** Search confined to one cluster of a hierarchical query, created on first use. */
+    private ClusterSearch window;
+
+    /** Cost from the start to each node of its cluster, in a hierarchical query. */
+    int[] entryCosts = new int[0];
+
+    /** Cost from each node of the goal's cluster to the goal, in a hierarchical query. */
+    int[] exitCosts = new int[0];
+
+    /** Tables bounding the distance to the goal, in a landmark query. */
+    LandmarkTable landmarks;
+
+    /** Stamp identifying the current query in {@link #seen} and {@link #closed}. */
+    int generation = 0;
+
+    /** State of the backward half of a bidirectional query, created on first use. */
+    private SearchContext reverse;
+
+    /** Cell where the two halves of a bidirectional query meet, or -1. */
+    int meet;
+
+    /** Length of the shortest route found through {@link #meet}. */
+    double best;
+
+    /** True when the backward half of a bidirectional query expands next. */
+    boolean backwardTurn;
+
+    /**
+     * Resets the context for a new query, growing the parent table and visited
+     * stamps to the size of the grid if needed.
+     *
+     * @param map   The grid to search.
+     * @param start Index of the start cell.
+     * @param goal  Index of the goal cell.
+     */
+    void begin(GridMap map, int start, int goal) {
+        this.map = map;
+        this.minCost = map.getMinCost();
+        this.start = start;
+        this.goal = goal;
+        this.status = RUNNING;
+        this.expanded = 0;
+        this.head = 0;
+        this.tail = 0;
+        this.meet = -1;
+        this.best = Double.POSITIVE_INFINITY;
+        this.backwardTurn = false;
+
+        int size = map.size();
+        if (parent.length < size) {
+            parent = new int[size];
+            seen = new int[size];
+            closed = new int[0];
+            generation = 0;
+        }
+
+        generation++;
+        if (generation == Integer.MAX_VALUE) {
+            // Stamps would wrap around, so start over from a clean slate.
+            Arrays.fill(seen, 0);
+            Arrays.fill(closed, 0);
+            generation = 1;
+        }
+    }
+
+    /**
+     * Grows the cost table, closed stamps and open list to the size of the
+     * current grid. Only the cost-based searches need these.
+     */
+    void requireCosts() {
+        requireDistances();
+
+        int size = map.size();
+        if (closed.length < size)
+            closed = new int[size];
+        open.ensureCapacity(size);
+        open.clear();
+    }
+
+    /**
+     * Grows the cost table, closed stamps and bucket queue to the size of the
+     * current grid. Only the searches keyed by integer costs need these.
+     */
+    void requireBuckets() {
+        requireDistances();
+
+        int size = map.size();
+        if (closed.length < size)
+            closed = new int[size];
+        buckets.ensureCapacity(size);
+        buckets.clear();
+    }
+
+    /**
+     * Grows the parent table, stamps, cost table and open list so they can be
+     * indexed by the nodes of an abstract graph instead of cells. Only the
+     * hierarchical search needs this.
+     *
+     * @param nodes        Number of nodes of the graph.
+     * @param clusterNodes Most nodes in any one cluster of the graph.
+     */
+    void requireNodes(int nodes, int clusterNodes) {
+        if (parent.length < nodes) {
+            parent = new int[nodes];
+            seen = new int[nodes];
+        }
+        if (closed.length < nodes)
+            closed = new int[nodes];
+        if (g.length < nodes)
+            g = new double[nodes];
+        open.ensureCapacity(nodes);
+        open.clear();
+
+        if (entryCosts.length < clusterNodes) {
+            entryCosts = new int[clusterNodes];
+            exitCosts = new int[clusterNodes];
+        }
+        if (window == null)
+            window = new ClusterSearch();
+    }
+
+    /**
+     * @return The search confined to one cluster, for the hierarchical search.
+     */
+    ClusterSearch window() {
+        return window;
+    }
+
+    /**
+     * Grows the cost table to the size of the current grid.
+     */
+    void requireDistances() {
+        int size = map.size();
+        if (g.length < size)
+            g = new double[size];
+    }
+
+    /**
+     * Grows the FIFO frontier to the size of the current grid. Only the
+     * breadth-first searches need it.
+     */
+    void requireQueue() {
+        int size = map.size();
+        if (queue.length < size)
+            queue = new int[size];
+    }
+
+    /**
+     * Grows the bitsets to the size of the current grid, loads the passable
+     * cells into {@link #passableBits} and clears the visited set, the layer
+     * planes and both frontiers. Only the bitset searches need these.
+     */
+    void requireBitsets() {
+        int size = map.size();
+        int words = (size + 63) >>> 6;
+        bitWords = words;
+
+        if (passableBits.length < words) {
+            passableBits = new long[words];
+            visitedBits = new long[words];
+            frontierBits = new long[words];
+            nextBits = new long[words];
+            frontierWords = new int[words];
+            nextWords = new int[words];
+            layerLowBits = new long[words];
+            layerHighBits = new long[words];
+            notFirstBits = new long[words];
+            notLastBits = new long[words];
+            maskRows = -1;
+        }
+
+        int rows = map.getRows();
+        if (maskRows != rows || maskSize != size) {
+            Arrays.fill(notFirstBits, 0L);
+            Arrays.fill(notLastBits, 0L);
+            for (int index = 0; index < size; index++) {
+                int x = index % rows;
+                if (x != 0)
+                    notFirstBits[index >>> 6] |= 1L << index;
+                if (x != rows - 1)
+                    notLastBits[index >>> 6] |= 1L << index;
+            }
+            maskRows = rows;
+            maskSize = size;
+        }
+
+        map.copyPassable(passableBits);
+        Arrays.fill(visitedBits, 0, words, 0L);
+        Arrays.fill(frontierBits, 0, words, 0L);
+        Arrays.fill(nextBits, 0, words, 0L);
+        Arrays.fill(layerLowBits, 0, words, 0L);
+        Arrays.fill(layerHighBits, 0, words, 0L);
+        frontierCount = 0;
+        nextCount = 0;
+        layer = 0;
+    }
+
+    /**
+     * Grows the claim array to the size of the current grid. Only the parallel
+     * search needs it.
+     */
+    void requireClaims() {
+        int size = map.size();
+        // Generation 1 means the stamps were just reset, so old claims may clash
+        if (claims.length() < size || generation == 1)
+            claims = new AtomicLongArray(Math.max(size, claims.length()));
+    }
+
+    /**
+     * Makes sure there is a discovery buffer for each chunk of a parallel
+     * layer.
+     *
+     * @param chunks    Number of chunks the layer is split into.
+     * @param chunkSize Number of cells a chunk can discover at most.
+     */
+    void requireChunks(int chunks, int chunkSize) {
+        if (chunkCells.length < chunks) {
+            int[][] grown = Arrays.copyOf(chunkCells, Math.max(chunks, 2 * chunkCells.length));
+            for (int i = chunkCells.length; i < grown.length; i++) {
+                grown[i] = new int[chunkSize];
+            }
+            chunkCells = grown;
+            chunkCounts = new int[grown.length];
+        }
+    }
+
+    /**
+     * Returns the context holding the backward half of a bidirectional query,
+     * which searches from the goal towards the start.
+     *
+     * @return The reverse context, created on first use and reused afterwards.
+     */
+    SearchContext reverse() {
+        if (reverse == null)
+            reverse = new SearchContext();
+        return reverse;
+    }
+
+    /**
+     * @return The reverse context, or null if no bidirectional query ran here.
+     */
+    public SearchContext getReverse() {
+        return reverse;
+    }
+
+    /**
+     * Marks a cell as reached from another one.
+     *
+     * @param cell The cell reached.
+     * @param from The cell it was reached from, or -1 for the start.
+     */
+    void reach(int cell, int from) {
+        seen[cell] = generation;
+        parent[cell] = from;
+    }
+
+    boolean isSeen(int cell) {
+        return seen[cell] == generation;
+    }
+
+    boolean isClosed(int cell) {
+        return closed[cell] == generation;
+    }
+
+    void close(int cell) {
+        closed[cell] = generation;
+        expanded++;
+    }
+
+    /**
+     * @return True once the goal has been reached.
+     */
+    public boolean isFound() {
+        return status == FOUND;
+    }
+
+    /**
+     * @return True once the query has either reached the goal or run out of
+     *         cells.
+     */
+    public boolean isFinished() {
+        return status != RUNNING;
+    }
+
+    /**
+     * @return Number of cells expanded by the current query.
+     */
+    public int getExpanded() {
+        return expanded;
+    }
+
+    /**
+     * Builds the path of a bidirectional query by joining the forward half from
+     * the start to the meeting cell with the backward half from there to the
+     * goal.
+     *
+     * @return The cell indices from start to goal, or an empty array if the
+     *         halves never met.
+     */
+    int[] joinedPath() {
+        if (status != FOUND || meet == -1)
+            return new int[0];
+
+        int[] toMeet = PathResult.trace(parent, start, meet);
+        int[] fromGoal = PathResult.trace(reverse.parent, goal, meet);
+
+        // fromGoal runs goal -> meet, so append it backwards, skipping meet
+        int[] path = new int[toMeet.length + fromGoal.length - 1];
+        System.arraycopy(toMeet, 0, path, 0, toMeet.length);
+        for (int i = 1; i < fromGoal.length; i++) {
+            path[toMeet.length + i - 1] = fromGoal[fromGoal.length - 1 - i];
+        }
+        return path;
+    }
+
+    /**
+     * @return Number of cells placed on the FIFO frontier so far.
+     */
+    public int getDiscoveredCount() {
+        return tail;
+    }
+
+    /**
+     * @param i Position in discovery order.
+     * @return The i-th cell placed on the FIFO frontier.
+     */
+    public int getDiscovered(int i) {
+        return queue[i];
+    }
+
+    /**
+     * @param cell A cell discovered by the current query.
+     * @return The cell it was reached from, or -1 for the start.
+     */
+    public int getParent(int cell) {
+        return parent[cell];
+    }
+
+    /**
+     * Builds the path found by the current query.
+     *
+     * @return The cell indices from start to goal, or an empty array if the goal
+     *         was not reached.
+     */
+    public int[] path() {
+        if (status != FOUND)
+            return new int[0];
+
+        return PathResult.trace(parent, start, goal);
+    }
+}
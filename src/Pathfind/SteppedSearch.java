@@ -0,0 +1,39 @@
+package Pathfind;
+
+import Cells.GridMap;
+
+/**
+ * A {@link PathSearch} that can also be advanced one expansion at a time, so
+ * {@link AStar} can animate it.
+ */
+public interface SteppedSearch extends PathSearch {
+
+    /**
+     * Prepares a new query from {@code start} to {@code goal}.
+     *
+     * @param context The context to run the query in.
+     * @param map     The grid to search.
+     * @param start   Index of the start cell.
+     * @param goal    Index of the goal cell.
+     */
+    void start(SearchContext context, GridMap map, int start, int goal);
+
+    /**
+     * Expands one cell.
+     *
+     * @param context The context of a started query.
+     * @return The index of the expanded cell, {@link SearchContext#FOUND} once
+     *         the goal has been reached, or {@link SearchContext#EXHAUSTED} if no
+     *         path exists.
+     */
+    int step(SearchContext context);
+
+    /**
+     * Builds the path found by a query, one cell per step.
+     *
+     * @param context The context of a finished query.
+     * @return The cell indices from start to goal, or an empty array if the goal
+     *         was not reached.
+     */
+    int[] path(SearchContext context);
+}
@@ -53,6 +53,45 @@ public class ColorInterpolator {
                 return (int) (start + ratio * (end - start));
         }
 
+        // Precomputes the RGB value of every step, so a lookup is one array load.
+        // Entry numColors holds the final color that all later steps share.
+        public int[] bake() {
+                int[] table = new int[Math.max(numColors, 0) + 1];
+                for (int step = 0; step < table.length; step++) {
+                        table[step] = getColor(step).getRGB();
+                }
+                return table;
+        }
+
+        // Looks up the RGB value of a step in a table made by bake().
+        public static int lookup(int[] table, int step) {
+                if (step < 0)
+                        return table[0];
+                if (step >= table.length)
+                        return table[table.length - 1];
+                return table[step];
+        }
+
+        // BAKED PALETTE CACHE
+        // The table of the palette and gradient length in use, rebuilt only after
+        // invalidateBaked() or when asked for another pair.
+        private static Color[] bakedPalette;
+        private static int bakedNumColors;
+        private static int[] bakedTable;
+
+        public static synchronized int[] getBaked(Color[] palette, int numColors) {
+                if (bakedTable == null || bakedPalette != palette || bakedNumColors != numColors) {
+                        bakedTable = new ColorInterpolator(palette, numColors).bake();
+                        bakedPalette = palette;
+                        bakedNumColors = numColors;
+                }
+                return bakedTable;
+        }
+
+        public static synchronized void invalidateBaked() {
+                bakedTable = null;
+        }
+
         // PRESETS
         // Different color palettes
 
@@ -0,0 +1,212 @@
+package Utilities;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * <h3>Scheduler - Fixed-Timestep Game Loop</h3>
+ *
+ * Runs a game loop on a dedicated thread, keeping the simulation update apart
+ * from rendering.
+ *
+ * <p>
+ * The update runs at a fixed rate: every tick advances the simulation by the
+ * same amount of time, however long the frames take. Rendering happens once
+ * per frame, after whatever ticks were due, and frames are paced with
+ * nanosecond deadlines instead of {@code Thread.sleep} on truncated
+ * milliseconds.
+ * </p>
+ *
+ * <p>
+ * If the updates fall behind, up to {@link #MAX_CATCH_UP} missed ticks are run
+ * in a single frame. Anything beyond that is dropped rather than carried over,
+ * so a slow update can never snowball into a spiral of death where every frame
+ * has more ticks to catch up on than the last.
+ * </p>
+ *
+ * <p>
+ * The duration of each update and render, and the jitter of each frame
+ * (how far it started from its deadline), are kept in
+ * {@link TimingHistogram}s. An exception thrown by either callback stops the
+ * loop and reaches the thread's uncaught exception handler, rather than being
+ * swallowed.
+ * </p>
+ *
+ * <p>
+ * <b>Example:</b>
+ * <code>
+ * Scheduler scheduler = new Scheduler(this::update, this::render, 120, 120);
+ * scheduler.start();
+ * </code>
+ * </p>
+ */
+public class Scheduler implements Runnable {
+
+	/** Most ticks run in one frame before the rest are dropped. */
+	public static final int MAX_CATCH_UP = 5;
+
+	/** Simulation ticks since the clock was last reset. */
+	private static volatile long ticks = 0;
+
+	/** Simulated seconds per tick of the running scheduler. */
+	private static volatile double secondsPerTick = 1 / 60.0;
+
+	private final Runnable update;
+	private final Runnable render;
+	private final long tickNanos;
+	private final long frameNanos;
+
+	private final TimingHistogram updateTimes = new TimingHistogram("update");
+	private final TimingHistogram renderTimes = new TimingHistogram("render");
+	private final TimingHistogram jitter = new TimingHistogram("jitter");
+
+	/** Ticks dropped because the updates fell too far behind. */
+	private volatile long droppedTicks = 0;
+
+	private volatile boolean running = false;
+	private Thread thread;
+
+	/**
+	 * Creates a scheduler. The loop does not run until {@link #start()}.
+	 *
+	 * @param update          Advances the simulation by one tick.
+	 * @param render          Draws the current state.
+	 * @param ticksPerSecond  Fixed rate of the update.
+	 * @param framesPerSecond Highest rate of the render.
+	 */
+	public Scheduler(Runnable update, Runnable render, int ticksPerSecond, int framesPerSecond) {
+		if (update == null || render == null) {
+			throw new IllegalArgumentException("Update and render must not be null.");
+		}
+		if (ticksPerSecond <= 0 || framesPerSecond <= 0) {
+			throw new IllegalArgumentException("Rates must be positive.");
+		}
+
+		this.update = update;
+		this.render = render;
+		this.tickNanos = 1_000_000_000L / ticksPerSecond;
+		this.frameNanos = 1_000_000_000L / framesPerSecond;
+	}
+
+	/**
+	 * Starts the loop on its own thread and resets the simulation clock.
+	 */
+	public synchronized void start() {
+		if (running)
+			return;
+
+		secondsPerTick = tickNanos / 1e9;
+		resetTime();
+
+		running = true;
+		thread = new Thread(this, "Scheduler");
+		thread.start();
+	}
+
+	/**
+	 * Asks the loop to stop after the current frame.
+	 */
+	public synchronized void stop() {
+		running = false;
+		if (thread != null)
+			LockSupport.unpark(thread);
+	}
+
+	/**
+	 * <b>You are advised not to call this method.</b> It runs the loop on the
+	 * calling thread until {@link #stop()} is called.
+	 */
+	@Override
+	public void run() {
+		long previous = System.nanoTime();
+		long deadline = previous;
+		long lag = 0;
+
+		while (running) {
+			long frameStart = System.nanoTime();
+			jitter.record(Math.abs(frameStart - deadline));
+
+			// A frame that ran long moves the deadlines on instead of racing to
+			// make up for it
+			if (frameStart - deadline > frameNanos)
+				deadline = frameStart;
+
+			lag += frameStart - previous;
+			previous = frameStart;
+
+			// Catch up on the ticks that are due, but only so many per frame
+			int updates = 0;
+			while (lag >= tickNanos && updates < MAX_CATCH_UP) {
+				long start = System.nanoTime();
+				update.run();
+				updateTimes.record(System.nanoTime() - start);
+
+				ticks++;
+				lag -= tickNanos;
+				updates++;
+			}
+			if (lag >= tickNanos) {
+				droppedTicks += lag / tickNanos;
+				lag %= tickNanos;
+			}
+
+			long start = System.nanoTime();
+			render.run();
+			renderTimes.record(System.nanoTime() - start);
+
+			deadline += frameNanos;
+			long remaining;
+			while (running && (remaining = deadline - System.nanoTime()) > 0) {
+				LockSupport.parkNanos(this, remaining);
+			}
+		}
+	}
+
+	/**
+	 * @return The duration of each update.
+	 */
+	public TimingHistogram getUpdateTimes() {
+		return updateTimes;
+	}
+
+	/**
+	 * @return The duration of each render.
+	 */
+	public TimingHistogram getRenderTimes() {
+		return renderTimes;
+	}
+
+	/**
+	 * @return How far each frame started from its deadline.
+	 */
+	public TimingHistogram getJitter() {
+		return jitter;
+	}
+
+	/**
+	 * @return The number of ticks dropped because the updates fell too far
+	 *         behind.
+	 */
+	public long getDroppedTicks() {
+		return droppedTicks;
+	}
+
+	/**
+	 * @return The simulated time in seconds since the clock was last reset.
+	 */
+	public static double getTime() {
+		return ticks * secondsPerTick;
+	}
+
+	/**
+	 * Restarts the simulation clock from zero.
+	 */
+	public static void resetTime() {
+		ticks = 0;
+	}
+
+	@Override
+	public String toString() {
+		return updateTimes + "\n" + renderTimes + "\n" + jitter + "\ndropped ticks: " + droppedTicks;
+	}
+
+}
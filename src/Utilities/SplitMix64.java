@@ -0,0 +1,67 @@
+package Utilities;
+
+/**
+ * <h3>SplitMix64 - Counter-Based Random Numbers</h3>
+ *
+ * The SplitMix64 generator (the one behind {@link java.util.SplittableRandom})
+ * as pure functions. The n-th output of a SplitMix64 stream depends only on
+ * its seed and n, so any output can be computed directly, in any order and on
+ * any thread, without keeping generator state around.
+ *
+ * <p>
+ * <b>Example:</b>
+ * <code>
+ * boolean wall = SplitMix64.toDouble(SplitMix64.hash(seed, x, y)) < 0.3;
+ * </code>
+ * </p>
+ */
+public final class SplitMix64 {
+
+	/** The increment between consecutive states of a stream. */
+	public static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+
+	private SplitMix64() {
+	}
+
+	/**
+	 * Scrambles a state into an output. Every bit of the input affects every bit
+	 * of the output.
+	 *
+	 * @param z The state.
+	 * @return The output for that state.
+	 */
+	public static long mix(long z) {
+		z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+		z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+		return z ^ (z >>> 31);
+	}
+
+	/**
+	 * @param seed  The seed of the stream.
+	 * @param index Which output of the stream, from 0.
+	 * @return The same value as the {@code index + 1}-th call to
+	 *         {@code nextLong()} on a {@code new SplittableRandom(seed)}.
+	 */
+	public static long at(long seed, long index) {
+		return mix(seed + GOLDEN_GAMMA * (index + 1));
+	}
+
+	/**
+	 * @param seed The seed of the stream.
+	 * @param x    The x coordinate.
+	 * @param y    The y coordinate.
+	 * @return A random value for one coordinate, from the output of the stream
+	 *         at an index made of both halves.
+	 */
+	public static long hash(long seed, int x, int y) {
+		return at(seed, ((long) y << 32) | (x & 0xFFFFFFFFL));
+	}
+
+	/**
+	 * @param value A random value.
+	 * @return A double uniformly distributed in [0, 1), from the top 53 bits.
+	 */
+	public static double toDouble(long value) {
+		return (value >>> 11) * 0x1.0p-53;
+	}
+}
@@ -0,0 +1,120 @@
+package Utilities;
+
+import java.util.Arrays;
+
+/**
+ * A fixed-size histogram of durations, used for frame timing.
+ * <p>
+ * Durations are counted in buckets of 0.1 ms up to 100 ms, with one more
+ * bucket for anything longer, so recording a sample never allocates and the
+ * percentiles are accurate to a tenth of a millisecond. Samples are recorded
+ * by the loop thread and may be read from any other, so every method is
+ * synchronized.
+ * </p>
+ *
+ * <p>
+ * <b>Example:</b>
+ * <code>
+ * histogram.record(System.nanoTime() - start);
+ * double p99 = histogram.getPercentile(0.99);
+ * </code>
+ * </p>
+ */
+public class TimingHistogram {
+
+	/** Width of a bucket in nanoseconds. */
+	private static final long BUCKET_NANOS = 100_000;
+
+	/** Number of regular buckets, covering 0 to 100 ms. */
+	private static final int BUCKETS = 1000;
+
+	private final String name;
+
+	/** Samples per bucket, the last one counting everything past 100 ms. */
+	private final long[] counts = new long[BUCKETS + 1];
+
+	private long count;
+	private long totalNanos;
+	private long maxNanos;
+
+	/**
+	 * @param name The name shown by {@link #toString()}.
+	 */
+	public TimingHistogram(String name) {
+		this.name = name;
+	}
+
+	/**
+	 * Records one duration.
+	 *
+	 * @param nanos The duration in nanoseconds.
+	 */
+	public synchronized void record(long nanos) {
+		if (nanos < 0)
+			nanos = 0;
+
+		counts[(int) Math.min(nanos / BUCKET_NANOS, BUCKETS)]++;
+		count++;
+		totalNanos += nanos;
+		if (nanos > maxNanos)
+			maxNanos = nanos;
+	}
+
+	/**
+	 * @return The number of durations recorded.
+	 */
+	public synchronized long getCount() {
+		return count;
+	}
+
+	/**
+	 * @return The mean duration in milliseconds, or 0 if none was recorded.
+	 */
+	public synchronized double getMean() {
+		return count == 0 ? 0 : totalNanos / (double) count / 1e6;
+	}
+
+	/**
+	 * @return The longest duration in milliseconds.
+	 */
+	public synchronized double getMax() {
+		return maxNanos / 1e6;
+	}
+
+	/**
+	 * @param fraction The fraction of samples, between 0 and 1, that must be
+	 *                 at most the returned value.
+	 * @return The upper edge of the bucket holding the percentile, in
+	 *         milliseconds, or the maximum for samples past the last bucket.
+	 */
+	public synchronized double getPercentile(double fraction) {
+		if (count == 0)
+			return 0;
+
+		long rank = (long) Math.ceil(fraction * count);
+		long seen = 0;
+		for (int bucket = 0; bucket < BUCKETS; bucket++) {
+			seen += counts[bucket];
+			if (seen >= rank)
+				return (bucket + 1) * BUCKET_NANOS / 1e6;
+		}
+		return getMax();
+	}
+
+	/**
+	 * Forgets every recorded duration.
+	 */
+	public synchronized void reset() {
+		Arrays.fill(counts, 0);
+		count = 0;
+		totalNanos = 0;
+		maxNanos = 0;
+	}
+
+	@Override
+	public synchronized String toString() {
+		return String.format("%s: n=%d mean=%.2fms p50=%.1fms p99=%.1fms max=%.2fms",
+				name, count, getMean(), getPercentile(0.5), getPercentile(0.99), getMax());
+	}
+
+}